@@ -0,0 +1,77 @@
+package lv.brick_vision;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Core;
+
+import lv.brick_vision.detect.BatchProcessor;
+import lv.brick_vision.detect.ParameterTuner;
+
+/**
+ * Batch pip counting and brick detection from the command line:
+ *
+ * RunBatch [-threads n] [-format csv|json] [-out file] [-width px] input...
+ *
+ * The inputs are image files, directories or glob patterns. The results are
+ * written to the out file or to stdout, the throughput summary to stderr.
+ * Images are shrunk to a working size of -width by 3/4 -width pixels first,
+ * like the dice and edge applications fit their frames to 640x480: landscape
+ * images to the width, portrait ones to the height. The default of 640 is
+ * their size, -width 0 detects at the native size.
+ */
+public class RunBatch {
+	static {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int threads = Runtime.getRuntime().availableProcessors();
+		String format = "csv";
+		String out = null;
+		int width = 640;
+		List<String> inputs = new ArrayList<>();
+		for (int i = 0; i < args.length; i++) {
+			boolean hasValue = i + 1 < args.length;
+			if (args[i].equals("-threads") && hasValue) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-format") && hasValue) {
+				format = args[++i];
+			} else if (args[i].equals("-out") && hasValue) {
+				out = args[++i];
+			} else if (args[i].equals("-width") && hasValue) {
+				width = Integer.parseInt(args[++i]);
+			} else {
+				inputs.add(args[i]);
+			}
+		}
+		if (inputs.isEmpty() || !(format.equals("csv") || format.equals("json"))) {
+			System.err.println("usage: RunBatch [-threads n] [-format csv|json] [-out file] [-width px] input...");
+			System.err.println("  -width: fit images to px by 3/4 px, 640 by default, 0 for the native size");
+			System.exit(2);
+		}
+
+		List<File> files = BatchProcessor.collect(inputs);
+		BatchProcessor batch = new BatchProcessor(threads);
+		batch.setWorkingSize(width, width * ParameterTuner.HEIGHT / ParameterTuner.WIDTH);
+		try {
+			List<BatchProcessor.Result> results = batch.process(files);
+			try (PrintWriter writer = new PrintWriter(out == null ? new OutputStreamWriter(System.out)
+					: new FileWriter(out))) {
+				if (format.equals("json")) {
+					BatchProcessor.writeJson(results, writer);
+				} else {
+					BatchProcessor.writeCsv(results, writer);
+				}
+			}
+			System.err.println(batch.threads() + " workers: " + batch.summarize(results));
+		} finally {
+			batch.release();
+		}
+	}
+}
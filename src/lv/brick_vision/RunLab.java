@@ -9,6 +9,7 @@ import java.util.List;
 import javax.imageio.ImageIO;
 
 import org.opencv.core.Core;
+import org.opencv.core.CvType;
 import org.opencv.core.Mat;
 import org.opencv.core.MatOfPoint;
 import org.opencv.core.Point;
@@ -16,7 +17,15 @@ import org.opencv.core.Scalar;
 import org.opencv.core.Size;
 import org.opencv.imgproc.Imgproc;
 
+import lv.brick_vision.core.ComponentStats;
+import lv.brick_vision.core.FrameSources;
 import lv.brick_vision.core.ImgTools;
+import lv.brick_vision.core.PacedSource;
+import lv.brick_vision.core.TiledProcessor;
+import lv.brick_vision.detect.CircleDetector;
+import lv.brick_vision.detect.DetectorParams;
+import lv.brick_vision.detect.FramePreprocessor;
+import lv.brick_vision.detect.ParameterTuner;
 
 public class RunLab {
 	static {
@@ -27,11 +36,60 @@ public class RunLab {
 	public static void main(String[] args) throws IOException {
 		ImgTools tool=new ImgTools();
 		
+		if (args.length > 0 && args[0].equals("tiled")) {
+			// memory bounded run for large scans: RunLab tiled <file> [bandHeight]
+			int bandHeight = args.length > 2 ? Integer.parseInt(args[2]) : 512;
+			TiledProcessor tiles = new TiledProcessor(bandHeight, 13);
+			ComponentStats stats = tiles.process(args.length > 1 ? args[1] : "IMG_5737.png");
+			System.out.println("Objects: " + (stats.count() - 1));
+			for (int i = 1; i < stats.count(); i++) {
+				System.out.println("Label " + i + " area " + stats.area(i) + " centroid (" + stats.centroidX(i) + ", "
+						+ stats.centroidY(i) + ") box " + stats.width(i) + "x" + stats.height(i));
+			}
+			return;
+		}
+		if (args.length > 1 && args[0].equals("tune")) {
+			// headless slider tuning: RunLab tune <dir with labels.csv> [top]
+			int top = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+			ParameterTuner tuner = new ParameterTuner(ParameterTuner.load(new File(args[1])));
+			try {
+				List<ParameterTuner.Score> ranked = tuner.search(ParameterTuner.DEFAULT_GRID, 5, 3);
+				for (ParameterTuner.Score score : ranked.subList(0, Math.min(top, ranked.size()))) {
+					System.out.println(score);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				tuner.release();
+			}
+			return;
+		}
+		if (args.length > 1 && args[0].equals("replay")) {
+			// headless detection on any frame source: RunLab replay <camera|video|dir|.bvrf> [fast]
+			PacedSource.Mode mode = args.length > 2 && args[2].equals("fast") ? PacedSource.Mode.FAST
+					: PacedSource.Mode.REAL_TIME;
+			CircleDetector detector = new CircleDetector();
+			FramePreprocessor pre = new FramePreprocessor();
+			try (PacedSource source = FrameSources.open(args[1], mode)) {
+				Mat frame = new Mat();
+				long circles = 0;
+				while (source.read(frame)) {
+					circles += detector.detect(pre.reset(frame), DetectorParams.DICE_DEFAULTS).circles().size();
+				}
+				System.out.println(String.format("%d frames, %d circles, %.1f frames/s sustained", source.frames(),
+						circles, source.throughput()));
+				System.out.println(pre.morphology());
+			} finally {
+				pre.release();
+			}
+			return;
+		}
+		
 		List<MatOfPoint> contours = new ArrayList<>();
 		Mat hierarchy = new Mat();
-		Mat matImg = tool.img2Mat("IMG_5737.png");
-		//Mat matImg = tool.img2Mat("dice13.png");
-		//Mat matBack = tool.img2Mat("GG0.png");
+		Mat matImg = tool.img2Mat("IMG_5737.png", CvType.CV_8UC1);
+		//Mat matImg = tool.img2Mat("dice13.png", CvType.CV_8UC1);
+		//Mat matBack = tool.img2Mat("GG0.png", CvType.CV_8UC1);
 		System.out.println("col: "+ matImg.cols()+" row: "+matImg.rows());
 		
 		
@@ -84,13 +142,12 @@ public class RunLab {
 		
 		//-------------------------------------------------------------------------------//
 		//get and print object pixel area
-		@SuppressWarnings("unchecked")
-		List<int []> list = tool.getLebelsArray(num, matLeb);
-	    int [] x= list.get(1);
-	    int [] y= list.get(2);
+		ComponentStats stats = tool.getComponentStats(num, matLeb);
 	    Mat mat = tool.buffImg2Mat_CV_8UC1(image);
-	    for (int j = 0; j < x.length; j++) {
-	    	Imgproc.rectangle(mat, new Point(x[j], y[j]), new Point(x[j]+ 20, y[j] + 20), new Scalar(0,0,0), 5);
+	    for (int j = 0; j < stats.count(); j++) {
+	    	int x = (int) stats.centroidX(j);
+	    	int y = (int) stats.centroidY(j);
+	    	Imgproc.rectangle(mat, new Point(x, y), new Point(x + 20, y + 20), new Scalar(0,0,0), 5);
 		
 	    }
 	    
@@ -99,12 +156,9 @@ public class RunLab {
         ImageIO.write(image3, "png", ouptut1);
 	    
 	    
-	    for (int i = 0; i < list.size(); i++) {
-	    	int[] area=(int[]) list.get(i);
-			for (int j = 0; j < area.length; j++) {
-				System.out.println("Value " + j + " is " + area[j] + " val");
-			}
-			System.out.println("-----------------------------------------------------------");
+	    for (int i = 0; i < stats.count(); i++) {
+			System.out.println("Label " + i + " area " + stats.area(i) + " centroid (" + stats.centroidX(i) + ", "
+					+ stats.centroidY(i) + ") box " + stats.width(i) + "x" + stats.height(i));
 		}	
 	    
 	    //------------------------------------------------------------------------------//
@@ -0,0 +1,211 @@
+package lv.brick_vision.core;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * @description Incremental per-pixel background model for gray frames. Every
+ *              pixel keeps a running mean and a running mean absolute
+ *              deviation in Q8 fixed point. A pixel is foreground when it
+ *              differs from the mean by more than max(minDiff, k * deviation).
+ *              Background pixels adapt quickly and foreground pixels slowly,
+ *              so lighting drift is followed without absorbing objects that
+ *              just arrived.
+ *
+ *              All state is allocated once for the frame size, an update is
+ *              one pass over the pixels; the byte[] interface needs no native
+ *              code. The foreground mask is CV_8UC1 with 0/255 values, ready
+ *              for threshold or connectedComponents, and
+ *              {@link #foregroundRect()} bounds the foreground so later steps
+ *              can work on a submat only.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class BackgroundModel {
+
+	private final int width;
+	private final int height;
+	private final int[] mean;
+	private final int[] dev;
+	private boolean initialized;
+
+	private int bgShift = 5;
+	private int fgShift = 9;
+	private int k = 3;
+	private int minDiff = 15;
+
+	// foreground bounding box of the last update
+	private int fgMinX, fgMinY, fgMaxX, fgMaxY;
+	private int fgCount;
+
+	// reused by the Mat interface
+	private final byte[] frameBuf;
+	private final byte[] maskBuf;
+	private Mat gray;
+
+	/**
+	 * @param width
+	 *            frame width
+	 * @param height
+	 *            frame height
+	 */
+	public BackgroundModel(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.mean = new int[width * height];
+		this.dev = new int[width * height];
+		this.frameBuf = new byte[width * height];
+		this.maskBuf = new byte[width * height];
+	}
+
+	/**
+	 * @param bgShift
+	 *            background learning rate 1/2^bgShift (default 5)
+	 * @param fgShift
+	 *            foreground learning rate 1/2^fgShift (default 9)
+	 */
+	public void setLearningRate(int bgShift, int fgShift) {
+		this.bgShift = bgShift;
+		this.fgShift = fgShift;
+	}
+
+	/**
+	 * @param k
+	 *            deviations a pixel must differ to be foreground (default 3)
+	 * @param minDiff
+	 *            minimal gray difference to be foreground (default 15)
+	 */
+	public void setSensitivity(int k, int minDiff) {
+		this.k = k;
+		this.minDiff = minDiff;
+	}
+
+	/**
+	 * Forget the learned background, the next frame becomes the background.
+	 */
+	public void reset() {
+		initialized = false;
+	}
+
+	/**
+	 * @param frame
+	 *            gray pixels, width * height
+	 * @param mask
+	 *            foreground mask to fill, 255 foreground and 0 background
+	 */
+	public void update(byte[] frame, byte[] mask) {
+		int n = width * height;
+		if (!initialized) {
+			for (int i = 0; i < n; i++) {
+				mean[i] = (frame[i] & 0xFF) << 8;
+				dev[i] = 0;
+				mask[i] = 0;
+			}
+			initialized = true;
+			fgCount = 0;
+			return;
+		}
+
+		int minDiffQ = minDiff << 8;
+		int minX = width, minY = height, maxX = -1, maxY = -1, count = 0;
+		for (int y = 0, i = 0; y < height; y++) {
+			for (int x = 0; x < width; x++, i++) {
+				int d = ((frame[i] & 0xFF) << 8) - mean[i];
+				int ad = d < 0 ? -d : d;
+				boolean fg = ad > Math.max(minDiffQ, k * dev[i]);
+				int shift;
+				if (fg) {
+					mask[i] = (byte) 255;
+					shift = fgShift;
+					count++;
+					if (x < minX) {
+						minX = x;
+					}
+					if (x > maxX) {
+						maxX = x;
+					}
+					if (y < minY) {
+						minY = y;
+					}
+					maxY = y;
+				} else {
+					mask[i] = 0;
+					shift = bgShift;
+				}
+				mean[i] += d >> shift;
+				dev[i] += (ad - dev[i]) >> shift;
+			}
+		}
+		fgMinX = minX;
+		fgMinY = minY;
+		fgMaxX = maxX;
+		fgMaxY = maxY;
+		fgCount = count;
+	}
+
+	/**
+	 * @param frame
+	 *            CV_8UC1 or CV_8UC3 (BGR) frame of the model size
+	 * @param mask
+	 *            filled with the CV_8UC1 foreground mask
+	 * @return mask
+	 */
+	public Mat apply(Mat frame, Mat mask) {
+		if (frame.cols() != width || frame.rows() != height) {
+			throw new IllegalArgumentException("Frame size " + frame.cols() + "x" + frame.rows()
+					+ " does not match model size " + width + "x" + height);
+		}
+		Mat src = frame;
+		if (gray == null) {
+			gray = new Mat();
+		}
+		if (frame.channels() == 3) {
+			Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGR2GRAY);
+			src = gray;
+		} else if (!frame.isContinuous()) {
+			frame.copyTo(gray);
+			src = gray;
+		}
+		src.get(0, 0, frameBuf);
+		update(frameBuf, maskBuf);
+		mask.create(height, width, CvType.CV_8UC1);
+		mask.put(0, 0, maskBuf);
+		return mask;
+	}
+
+	/**
+	 * @param dst
+	 *            filled with the current background estimate, CV_8UC1
+	 * @return dst
+	 */
+	public Mat background(Mat dst) {
+		byte[] out = new byte[width * height];
+		for (int i = 0; i < out.length; i++) {
+			out[i] = (byte) ((mean[i] + 128) >> 8);
+		}
+		dst.create(height, width, CvType.CV_8UC1);
+		dst.put(0, 0, out);
+		return dst;
+	}
+
+	/**
+	 * @return number of foreground pixels in the last update
+	 */
+	public int foregroundCount() {
+		return fgCount;
+	}
+
+	/**
+	 * @return bounding box of the foreground in the last update, or null when
+	 *         there was none
+	 */
+	public Rect foregroundRect() {
+		if (fgCount == 0) {
+			return null;
+		}
+		return new Rect(fgMinX, fgMinY, fgMaxX - fgMinX + 1, fgMaxY - fgMinY + 1);
+	}
+}
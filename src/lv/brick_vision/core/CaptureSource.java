@@ -0,0 +1,79 @@
+package lv.brick_vision.core;
+
+import java.io.IOException;
+
+import org.opencv.core.Mat;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+
+/**
+ * @description Frame source backed by a VideoCapture: a camera by index or a
+ *              video file by path. A camera blocks in {@link #read(Mat)}
+ *              until its next frame, so it is always real time.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class CaptureSource implements FrameSource {
+
+	private final VideoCapture capture;
+	private final String name;
+
+	private CaptureSource(VideoCapture capture, String name) throws IOException {
+		if (!capture.isOpened()) {
+			throw new IOException("Cannot open " + name);
+		}
+		this.capture = capture;
+		this.name = name;
+	}
+
+	/**
+	 * @param device
+	 *            camera index
+	 * @return opened camera
+	 * @throws IOException
+	 *             the camera can not be opened
+	 */
+	public static CaptureSource camera(int device) throws IOException {
+		VideoCapture capture = new VideoCapture();
+		capture.open(device);
+		return new CaptureSource(capture, "camera " + device);
+	}
+
+	/**
+	 * @param video
+	 *            video file readable by VideoCapture
+	 * @return opened video
+	 * @throws IOException
+	 *             the video can not be opened
+	 */
+	public static CaptureSource file(String video) throws IOException {
+		return new CaptureSource(new VideoCapture(video), video);
+	}
+
+	@Override
+	public boolean read(Mat dst) {
+		return capture.isOpened() && capture.read(dst) && !dst.empty();
+	}
+
+	@Override
+	public double fps() {
+		return capture.isOpened() ? Math.max(0, capture.get(Videoio.CAP_PROP_FPS)) : 0;
+	}
+
+	@Override
+	public int length() {
+		double frames = capture.isOpened() ? capture.get(Videoio.CAP_PROP_FRAME_COUNT) : 0;
+		return frames > 0 ? (int) frames : -1;
+	}
+
+	@Override
+	public void close() {
+		capture.release();
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
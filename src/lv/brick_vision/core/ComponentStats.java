@@ -0,0 +1,326 @@
+package lv.brick_vision.core;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+/**
+ * @description Per-component statistics (area, centroid, bounding box and
+ *              pixel coordinate sums) of a labeled mat, as produced by
+ *              Imgproc.connectedComponents. The label mat is copied into an
+ *              int[] once and all statistics are collected in a single pass.
+ *              Frames larger than the parallel threshold are split into
+ *              horizontal stripes which are reduced with fork-join.
+ *
+ *              One instance can be reused frame after frame; internal buffers
+ *              are only reallocated when the frame or label count grows.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class ComponentStats {
+
+	/** Frames with more pixels than this are processed in parallel stripes. */
+	public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 20;
+
+	private final int parallelThreshold;
+
+	private int count;
+	private int[] area = new int[0];
+	private long[] xSum = new long[0];
+	private long[] ySum = new long[0];
+	private int[] minX = new int[0];
+	private int[] minY = new int[0];
+	private int[] maxX = new int[0];
+	private int[] maxY = new int[0];
+
+	// reusable copy of the label mat and serial accumulators
+	private int[] labels = new int[0];
+	private Mat converted;
+	private Partial serial;
+
+	public ComponentStats() {
+		this(DEFAULT_PARALLEL_THRESHOLD);
+	}
+
+	/**
+	 * @param parallelThreshold
+	 *            pixel count above which the frame is split into stripes
+	 */
+	public ComponentStats(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	/**
+	 * @param matLeb
+	 *            labeled mat (CV_32S from connectedComponents, 8U and 16U are
+	 *            converted)
+	 * @param objNum
+	 *            number of labels including background
+	 * @return this, filled with statistics for labels 0..objNum-1
+	 */
+	public ComponentStats compute(Mat matLeb, int objNum) {
+		int w = matLeb.cols();
+		int h = matLeb.rows();
+		Mat src = matLeb;
+		if (matLeb.type() != CvType.CV_32SC1) {
+			if (converted == null) {
+				converted = new Mat();
+			}
+			matLeb.convertTo(converted, CvType.CV_32S);
+			src = converted;
+		} else if (!matLeb.isContinuous()) {
+			if (converted == null) {
+				converted = new Mat();
+			}
+			matLeb.copyTo(converted);
+			src = converted;
+		}
+		if (labels.length < w * h) {
+			labels = new int[w * h];
+		}
+		src.get(0, 0, labels);
+
+		return compute(labels, w, h, objNum);
+	}
+
+	/**
+	 * @param lab
+	 *            row-major labels, at least w*h elements
+	 * @param w
+	 *            frame width
+	 * @param h
+	 *            frame height
+	 * @param objNum
+	 *            number of labels including background; labels outside
+	 *            0..objNum-1 are ignored
+	 * @return this
+	 */
+	public ComponentStats compute(int[] lab, int w, int h, int objNum) {
+		if ((long) w * h <= parallelThreshold) {
+			if (serial == null || serial.n != objNum) {
+				serial = new Partial(objNum);
+			} else {
+				serial.reset();
+			}
+			serial.scan(lab, w, 0, h);
+			serial.copyTo(this);
+		} else {
+			int stripes = Math.max(2, (int) Math.min(h, ((long) w * h) / parallelThreshold * 2));
+			int rowsPerStripe = (h + stripes - 1) / stripes;
+			Partial p = ForkJoinPool.commonPool().invoke(new StripeTask(lab, w, 0, h, rowsPerStripe, objNum));
+			p.copyTo(this);
+		}
+		return this;
+	}
+
+	/**
+	 * Fill with statistics merged elsewhere (tiled processing); the arrays are
+	 * copied, bounding boxes of empty labels are stored as 0.
+	 */
+	void load(int n, int[] area, long[] xSum, long[] ySum, int[] minX, int[] minY, int[] maxX, int[] maxY) {
+		ensureCapacity(n);
+		count = n;
+		System.arraycopy(area, 0, this.area, 0, n);
+		System.arraycopy(xSum, 0, this.xSum, 0, n);
+		System.arraycopy(ySum, 0, this.ySum, 0, n);
+		for (int i = 0; i < n; i++) {
+			boolean empty = area[i] == 0;
+			this.minX[i] = empty ? 0 : minX[i];
+			this.minY[i] = empty ? 0 : minY[i];
+			this.maxX[i] = empty ? 0 : maxX[i];
+			this.maxY[i] = empty ? 0 : maxY[i];
+		}
+	}
+
+	private void ensureCapacity(int n) {
+		if (area.length < n) {
+			area = new int[n];
+			xSum = new long[n];
+			ySum = new long[n];
+			minX = new int[n];
+			minY = new int[n];
+			maxX = new int[n];
+			maxY = new int[n];
+		}
+	}
+
+	/**
+	 * @return number of labels including background
+	 */
+	public int count() {
+		return count;
+	}
+
+	public int area(int label) {
+		return area[label];
+	}
+
+	public long xSum(int label) {
+		return xSum[label];
+	}
+
+	public long ySum(int label) {
+		return ySum[label];
+	}
+
+	/**
+	 * @return mean x of the component, or 0 when it has no pixels
+	 */
+	public double centroidX(int label) {
+		return area[label] == 0 ? 0 : (double) xSum[label] / area[label];
+	}
+
+	/**
+	 * @return mean y of the component, or 0 when it has no pixels
+	 */
+	public double centroidY(int label) {
+		return area[label] == 0 ? 0 : (double) ySum[label] / area[label];
+	}
+
+	public int minX(int label) {
+		return minX[label];
+	}
+
+	public int minY(int label) {
+		return minY[label];
+	}
+
+	public int maxX(int label) {
+		return maxX[label];
+	}
+
+	public int maxY(int label) {
+		return maxY[label];
+	}
+
+	/**
+	 * @return bounding box width, 0 when the component has no pixels
+	 */
+	public int width(int label) {
+		return area[label] == 0 ? 0 : maxX[label] - minX[label] + 1;
+	}
+
+	/**
+	 * @return bounding box height, 0 when the component has no pixels
+	 */
+	public int height(int label) {
+		return area[label] == 0 ? 0 : maxY[label] - minY[label] + 1;
+	}
+
+	/**
+	 * Accumulators for one stripe of rows.
+	 */
+	private static final class Partial {
+		final int n;
+		final int[] area;
+		final long[] xSum;
+		final long[] ySum;
+		final int[] minX;
+		final int[] minY;
+		final int[] maxX;
+		final int[] maxY;
+
+		Partial(int n) {
+			this.n = n;
+			area = new int[n];
+			xSum = new long[n];
+			ySum = new long[n];
+			minX = new int[n];
+			minY = new int[n];
+			maxX = new int[n];
+			maxY = new int[n];
+			reset();
+		}
+
+		void reset() {
+			Arrays.fill(area, 0);
+			Arrays.fill(xSum, 0);
+			Arrays.fill(ySum, 0);
+			Arrays.fill(minX, Integer.MAX_VALUE);
+			Arrays.fill(minY, Integer.MAX_VALUE);
+			Arrays.fill(maxX, -1);
+			Arrays.fill(maxY, -1);
+		}
+
+		void scan(int[] lab, int w, int fromRow, int toRow) {
+			for (int y = fromRow; y < toRow; y++) {
+				int off = y * w;
+				for (int x = 0; x < w; x++) {
+					int l = lab[off + x];
+					if (l < 0 || l >= n) {
+						continue;
+					}
+					area[l]++;
+					xSum[l] += x;
+					ySum[l] += y;
+					if (x < minX[l]) {
+						minX[l] = x;
+					}
+					if (x > maxX[l]) {
+						maxX[l] = x;
+					}
+					// rows are visited in order, so the first hit is minY
+					if (minY[l] == Integer.MAX_VALUE) {
+						minY[l] = y;
+					}
+					maxY[l] = y;
+				}
+			}
+		}
+
+		Partial merge(Partial o) {
+			for (int i = 0; i < n; i++) {
+				area[i] += o.area[i];
+				xSum[i] += o.xSum[i];
+				ySum[i] += o.ySum[i];
+				minX[i] = Math.min(minX[i], o.minX[i]);
+				minY[i] = Math.min(minY[i], o.minY[i]);
+				maxX[i] = Math.max(maxX[i], o.maxX[i]);
+				maxY[i] = Math.max(maxY[i], o.maxY[i]);
+			}
+			return this;
+		}
+
+		void copyTo(ComponentStats s) {
+			s.load(n, area, xSum, ySum, minX, minY, maxX, maxY);
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static final class StripeTask extends RecursiveTask<Partial> {
+		private final int[] lab;
+		private final int w;
+		private final int fromRow;
+		private final int toRow;
+		private final int rowsPerStripe;
+		private final int n;
+
+		StripeTask(int[] lab, int w, int fromRow, int toRow, int rowsPerStripe, int n) {
+			this.lab = lab;
+			this.w = w;
+			this.fromRow = fromRow;
+			this.toRow = toRow;
+			this.rowsPerStripe = rowsPerStripe;
+			this.n = n;
+		}
+
+		@Override
+		protected Partial compute() {
+			if (toRow - fromRow <= rowsPerStripe) {
+				Partial p = new Partial(n);
+				p.scan(lab, w, fromRow, toRow);
+				return p;
+			}
+			int mid = (fromRow + toRow) >>> 1;
+			StripeTask top = new StripeTask(lab, w, fromRow, mid, rowsPerStripe, n);
+			StripeTask bottom = new StripeTask(lab, w, mid, toRow, rowsPerStripe, n);
+			top.fork();
+			Partial b = bottom.compute();
+			return top.join().merge(b);
+		}
+	}
+}
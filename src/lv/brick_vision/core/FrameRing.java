@@ -0,0 +1,170 @@
+package lv.brick_vision.core;
+
+import org.opencv.core.Mat;
+
+/**
+ * @description Small ring of preallocated Mats between one capture thread
+ *              and one processing thread, latest frame wins. The writer
+ *              fills a free slot ({@link #beginWrite()}) outside the lock
+ *              and publishes it; a published frame that was not taken before
+ *              the next one is published counts as dropped. The reader
+ *              always takes the newest frame and holds its slot until the
+ *              next take, so neither side ever waits for the other to finish
+ *              a frame and no backlog can build up.
+ *
+ *              Three slots are enough: one being written, one published and
+ *              one held by the reader.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class FrameRing {
+
+	private final Mat[] slots;
+	// System.nanoTime() of the publish of every slot
+	private final long[] stamps;
+	private int writing = -1;
+	private int newest = -1;
+	private int reading = -1;
+	private int next;
+	private boolean closed;
+	private long published;
+	private long dropped;
+
+	/**
+	 * @param size
+	 *            number of slots, at least 3
+	 */
+	public FrameRing(int size) {
+		if (size < 3) {
+			throw new IllegalArgumentException("A frame ring needs at least 3 slots, got " + size);
+		}
+		slots = new Mat[size];
+		stamps = new long[size];
+		for (int i = 0; i < size; i++) {
+			slots[i] = new Mat();
+		}
+	}
+
+	public FrameRing() {
+		this(3);
+	}
+
+	/**
+	 * @return a slot that is neither published nor held by the reader, to be
+	 *         filled and then passed on with {@link #publish()}
+	 */
+	public synchronized Mat beginWrite() {
+		if (writing >= 0) {
+			throw new IllegalStateException("Previous write was neither published nor cancelled");
+		}
+		while (next == newest || next == reading) {
+			next = (next + 1) % slots.length;
+		}
+		writing = next;
+		next = (next + 1) % slots.length;
+		return slots[writing];
+	}
+
+	/**
+	 * Make the slot of the last {@link #beginWrite()} the newest frame.
+	 */
+	public synchronized void publish() {
+		if (writing < 0) {
+			throw new IllegalStateException("Nothing to publish");
+		}
+		if (newest >= 0) {
+			dropped++;
+		}
+		newest = writing;
+		stamps[newest] = System.nanoTime();
+		writing = -1;
+		published++;
+		notifyAll();
+	}
+
+	/**
+	 * Give the slot of the last {@link #beginWrite()} back, e.g. when the
+	 * camera returned no frame.
+	 */
+	public synchronized void cancelWrite() {
+		writing = -1;
+	}
+
+	/**
+	 * @param timeoutMillis
+	 *            longest wait for a new frame, 0 to not wait at all
+	 * @return newest frame not taken yet, owned by the ring and valid until
+	 *         the next take; the reader may modify it. Null when no new frame
+	 *         arrived in time or the ring is closed.
+	 * @throws InterruptedException
+	 *             when interrupted while waiting
+	 */
+	public synchronized Mat take(long timeoutMillis) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while (newest < 0 && !closed) {
+			long left = deadline - System.currentTimeMillis();
+			if (left <= 0) {
+				return null;
+			}
+			wait(left);
+		}
+		if (newest < 0) {
+			return null;
+		}
+		reading = newest;
+		newest = -1;
+		return slots[reading];
+	}
+
+	/**
+	 * @return System.nanoTime() when the frame returned by the last take was
+	 *         published, 0 before the first take
+	 */
+	public synchronized long takenTimestamp() {
+		return reading < 0 ? 0 : stamps[reading];
+	}
+
+	/**
+	 * @return true when a frame was published that was not taken yet
+	 */
+	public synchronized boolean hasNewFrame() {
+		return newest >= 0;
+	}
+
+	/**
+	 * No more frames will be published, wake up a waiting reader.
+	 */
+	public synchronized void close() {
+		closed = true;
+		notifyAll();
+	}
+
+	public synchronized boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * @return frames published so far
+	 */
+	public synchronized long published() {
+		return published;
+	}
+
+	/**
+	 * @return frames replaced by a newer one before the reader took them
+	 */
+	public synchronized long dropped() {
+		return dropped;
+	}
+
+	/**
+	 * Release the native memory of all slots; the ring must not be used by
+	 * either thread anymore.
+	 */
+	public synchronized void release() {
+		for (Mat slot : slots) {
+			slot.release();
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package lv.brick_vision.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.opencv.core.Mat;
+
+/**
+ * @description A sequence of frames: a camera, a video file, an image
+ *              directory or a recorded {@link FrameStore}. The controllers
+ *              and headless runs read every frame source the same way, so a
+ *              recording can stand in for the camera when reproducing an
+ *              issue or load testing. {@link PacedSource} adds real time
+ *              pacing or throughput reporting to any source.
+ *
+ *              A source is read by one thread at a time.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public interface FrameSource extends Closeable {
+
+	/**
+	 * @param dst
+	 *            filled with the next frame, reallocated only when size or
+	 *            type differ
+	 * @return false at the end of the sequence
+	 * @throws IOException
+	 *             the frame could not be read
+	 */
+	boolean read(Mat dst) throws IOException;
+
+	/**
+	 * @return nominal frame rate of the sequence, 0 when unknown
+	 */
+	double fps();
+
+	/**
+	 * @return number of frames, -1 for an endless or unknown length
+	 */
+	int length();
+
+	/**
+	 * Release the device or file; reading afterwards returns false.
+	 */
+	@Override
+	void close();
+}
@@ -0,0 +1,66 @@
+package lv.brick_vision.core;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * @description Opens a frame source from a short text spec, as given on the
+ *              command line or in the {@link #PROPERTY} system property:
+ *
+ *              a number is a camera index, a directory is read as images, a
+ *              file ending in {@link #STORE_SUFFIX} is replayed from a
+ *              {@link FrameStore}, anything else is opened as a video file.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public final class FrameSources {
+
+	/** System property the GUI applications read their source spec from. */
+	public static final String PROPERTY = "brick_vision.source";
+	/** File name suffix of recorded frame containers. */
+	public static final String STORE_SUFFIX = ".bvrf";
+	/** Frame rate of directories and recordings, which do not store one. */
+	public static final double DEFAULT_FPS = 30;
+
+	private FrameSources() {
+	}
+
+	/**
+	 * @param spec
+	 *            camera index, image directory, recording or video file
+	 * @param mode
+	 *            pacing of the returned source
+	 * @return opened source
+	 * @throws IOException
+	 *             the source can not be opened
+	 */
+	public static PacedSource open(String spec, PacedSource.Mode mode) throws IOException {
+		return new PacedSource(openRaw(spec), mode, DEFAULT_FPS);
+	}
+
+	/**
+	 * @param defaultSpec
+	 *            spec used when {@link #PROPERTY} is not set, e.g. "0"
+	 * @return source of the GUI applications, paced in real time
+	 * @throws IOException
+	 *             the source can not be opened
+	 */
+	public static PacedSource openConfigured(String defaultSpec) throws IOException {
+		return open(System.getProperty(PROPERTY, defaultSpec), PacedSource.Mode.REAL_TIME);
+	}
+
+	private static FrameSource openRaw(String spec) throws IOException {
+		if (spec.matches("\\d+")) {
+			return CaptureSource.camera(Integer.parseInt(spec));
+		}
+		File file = new File(spec);
+		if (file.isDirectory()) {
+			return new ImageDirectorySource(file, DEFAULT_FPS);
+		}
+		if (spec.endsWith(STORE_SUFFIX)) {
+			return new FrameStoreSource(spec, DEFAULT_FPS);
+		}
+		return CaptureSource.file(spec);
+	}
+}
@@ -0,0 +1,217 @@
+package lv.brick_vision.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+/**
+ * @description Reader for the raw frame container written by
+ *              {@link FrameStoreWriter}. The file holds a fixed header, the
+ *              pixel rows of every frame (8-bit mats, stored at their Mat
+ *              step, each frame starting on a page boundary) and an index
+ *              with offset, size and type of every frame. Frames are memory
+ *              mapped on first access, so replaying a data set costs a bulk
+ *              copy per frame instead of a PNG/JPG decode.
+ *
+ *              {@link #buffer(int)} gives the mapped pixels without any copy.
+ *              {@link #read(int, Mat)} fills a reusable Mat through a reused
+ *              array, as Mat.put only takes arrays. The last
+ *              {@link #MAPPED_FRAMES} mappings are kept, older ones are
+ *              dropped and unmapped by the garbage collector, so replaying a
+ *              long recording does not pin the whole file.
+ *
+ *              Every read updates the recently used mappings, so an instance
+ *              is not thread-safe; use one per thread.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class FrameStore implements Closeable {
+
+	static final int MAGIC = 0x42565246; // "BVRF"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 64;
+	static final int INDEX_ENTRY_SIZE = 24;
+	static final int FRAME_ALIGN = 4096;
+	static final int MAPPED_FRAMES = 8;
+
+	private final FileChannel channel;
+	private final int count;
+	private final long[] offsets;
+	private final int[] rows;
+	private final int[] cols;
+	private final int[] types;
+	private final int[] steps;
+	// most recently used mappings, by frame number
+	private final Map<Integer, MappedByteBuffer> maps = new LinkedHashMap<Integer, MappedByteBuffer>(16, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, MappedByteBuffer> eldest) {
+			return size() > MAPPED_FRAMES;
+		}
+	};
+
+	// reused by read()
+	private byte[] scratch = new byte[0];
+
+	/**
+	 * @param file
+	 *            container file
+	 * @throws IOException
+	 *             file is missing or is not a frame container
+	 */
+	public FrameStore(String file) throws IOException {
+		channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			channel.read(header, 0);
+			header.flip();
+			if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+				throw new IOException("Not a frame container: " + file);
+			}
+			int version = header.getInt();
+			if (version != VERSION) {
+				throw new IOException("Unsupported frame container version " + version);
+			}
+			count = header.getInt();
+			header.getInt();
+			long indexOffset = header.getLong();
+
+			offsets = new long[count];
+			rows = new int[count];
+			cols = new int[count];
+			types = new int[count];
+			steps = new int[count];
+			ByteBuffer index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, (long) count * INDEX_ENTRY_SIZE);
+			for (int i = 0; i < count; i++) {
+				offsets[i] = index.getLong();
+				rows[i] = index.getInt();
+				cols[i] = index.getInt();
+				types[i] = index.getInt();
+				steps[i] = index.getInt();
+			}
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @param dir
+	 *            directory with images, read in file name order
+	 * @param file
+	 *            container file to write
+	 * @return number of frames written
+	 * @throws IOException
+	 *             directory can not be listed or container can not be written
+	 */
+	public static int fromDirectory(String dir, String file) throws IOException {
+		try (FrameStoreWriter writer = new FrameStoreWriter(file)) {
+			return writer.appendDirectory(new File(dir));
+		}
+	}
+
+	/**
+	 * @param video
+	 *            video file readable by VideoCapture
+	 * @param file
+	 *            container file to write
+	 * @return number of frames written
+	 * @throws IOException
+	 *             video can not be opened or container can not be written
+	 */
+	public static int fromVideo(String video, String file) throws IOException {
+		try (FrameStoreWriter writer = new FrameStoreWriter(file)) {
+			return writer.appendVideo(video);
+		}
+	}
+
+	public int size() {
+		return count;
+	}
+
+	public int rows(int index) {
+		return rows[index];
+	}
+
+	public int cols(int index) {
+		return cols[index];
+	}
+
+	public int type(int index) {
+		return types[index];
+	}
+
+	/**
+	 * @param index
+	 *            frame number
+	 * @return read-only mapped pixel rows of the frame, rows(index) * step
+	 *         bytes, no copy is made
+	 * @throws IOException
+	 *             mapping failed
+	 */
+	public ByteBuffer buffer(int index) throws IOException {
+		MappedByteBuffer map = maps.get(index);
+		if (map == null) {
+			map = channel.map(FileChannel.MapMode.READ_ONLY, offsets[index], (long) rows[index] * steps[index]);
+			maps.put(index, map);
+		}
+		return map.duplicate();
+	}
+
+	/**
+	 * @param index
+	 *            frame number
+	 * @param dst
+	 *            mat to fill, reallocated only when size or type differ
+	 * @return dst
+	 * @throws IOException
+	 *             mapping failed
+	 */
+	public Mat read(int index, Mat dst) throws IOException {
+		int n = rows[index] * steps[index];
+		dst.create(rows[index], cols[index], types[index]);
+		if (scratch.length != n) {
+			scratch = new byte[n];
+		}
+		buffer(index).get(scratch);
+		dst.put(0, 0, scratch);
+		return dst;
+	}
+
+	/**
+	 * @param index
+	 *            frame number
+	 * @return new mat with the frame
+	 * @throws IOException
+	 *             mapping failed
+	 */
+	public Mat read(int index) throws IOException {
+		return read(index, new Mat());
+	}
+
+	@Override
+	public void close() throws IOException {
+		maps.clear();
+		channel.close();
+	}
+
+	static int checkType(int type) {
+		if (CvType.depth(type) != CvType.CV_8U) {
+			throw new IllegalArgumentException("Only 8-bit frames are supported, got " + CvType.typeToString(type));
+		}
+		return type;
+	}
+}
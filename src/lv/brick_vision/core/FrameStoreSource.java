@@ -0,0 +1,61 @@
+package lv.brick_vision.core;
+
+import java.io.IOException;
+
+import org.opencv.core.Mat;
+
+/**
+ * @description Frame source replaying a recorded {@link FrameStore}, one bulk
+ *              copy per frame.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class FrameStoreSource implements FrameSource {
+
+	private final FrameStore store;
+	private final double fps;
+	private int next;
+
+	/**
+	 * @param file
+	 *            container written by {@link FrameStoreWriter}
+	 * @param fps
+	 *            frame rate of the recording, for real time pacing
+	 * @throws IOException
+	 *             the container can not be opened
+	 */
+	public FrameStoreSource(String file, double fps) throws IOException {
+		this.store = new FrameStore(file);
+		this.fps = fps;
+	}
+
+	@Override
+	public boolean read(Mat dst) throws IOException {
+		if (next >= store.size()) {
+			return false;
+		}
+		store.read(next++, dst);
+		return true;
+	}
+
+	@Override
+	public double fps() {
+		return fps;
+	}
+
+	@Override
+	public int length() {
+		return store.size();
+	}
+
+	@Override
+	public void close() {
+		next = store.size();
+		try {
+			store.close();
+		} catch (IOException e) {
+			// nothing was written, the mapping is released with the channel
+		}
+	}
+}
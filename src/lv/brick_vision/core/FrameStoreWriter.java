@@ -0,0 +1,157 @@
+package lv.brick_vision.core;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.videoio.VideoCapture;
+
+/**
+ * @description Writes the raw frame container read by {@link FrameStore}.
+ *              Frames are appended one by one; the index and header are
+ *              written on close.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class FrameStoreWriter implements Closeable {
+
+	private final FileChannel channel;
+	private long position = FrameStore.HEADER_SIZE;
+	private int count;
+	private ByteBuffer index = ByteBuffer.allocate(64 * FrameStore.INDEX_ENTRY_SIZE);
+
+	// reused per frame
+	private byte[] scratch = new byte[0];
+
+	/**
+	 * @param file
+	 *            container file, replaced if it exists
+	 * @throws IOException
+	 *             file can not be created
+	 */
+	public FrameStoreWriter(String file) throws IOException {
+		channel = FileChannel.open(Paths.get(file), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * @param frame
+	 *            8-bit frame of any size and channel count
+	 * @throws IOException
+	 *             write failed
+	 */
+	public void append(Mat frame) throws IOException {
+		int type = FrameStore.checkType(frame.type());
+		Mat src = frame.isContinuous() ? frame : frame.clone();
+		int step = frame.cols() * (int) frame.elemSize();
+		int n = frame.rows() * step;
+		if (scratch.length != n) {
+			scratch = new byte[n];
+		}
+		src.get(0, 0, scratch);
+		if (src != frame) {
+			src.release();
+		}
+
+		long offset = align(position);
+		ByteBuffer data = ByteBuffer.wrap(scratch);
+		long at = offset;
+		while (data.hasRemaining()) {
+			at += channel.write(data, at);
+		}
+		position = at;
+
+		if (index.remaining() < FrameStore.INDEX_ENTRY_SIZE) {
+			ByteBuffer bigger = ByteBuffer.allocate(index.capacity() * 2);
+			index.flip();
+			bigger.put(index);
+			index = bigger;
+		}
+		index.putLong(offset).putInt(frame.rows()).putInt(frame.cols()).putInt(type).putInt(step);
+		count++;
+	}
+
+	/**
+	 * @param dir
+	 *            directory with png/jpg/bmp images, appended in file name order
+	 * @return number of frames appended
+	 * @throws IOException
+	 *             directory can not be listed or write failed
+	 */
+	public int appendDirectory(File dir) throws IOException {
+		File[] files = dir.listFiles((d, name) -> name.toLowerCase().matches(".*\\.(png|jpe?g|bmp|tiff?)$"));
+		if (files == null) {
+			throw new IOException("Cannot list directory " + dir);
+		}
+		Arrays.sort(files);
+		int appended = 0;
+		for (File file : files) {
+			Mat frame = Imgcodecs.imread(file.getAbsolutePath());
+			if (!frame.empty()) {
+				append(frame);
+				appended++;
+			}
+			frame.release();
+		}
+		return appended;
+	}
+
+	/**
+	 * @param video
+	 *            video file readable by VideoCapture
+	 * @return number of frames appended
+	 * @throws IOException
+	 *             video can not be opened or write failed
+	 */
+	public int appendVideo(String video) throws IOException {
+		VideoCapture capture = new VideoCapture(video);
+		if (!capture.isOpened()) {
+			throw new IOException("Cannot open video " + video);
+		}
+		Mat frame = new Mat();
+		int appended = 0;
+		try {
+			while (capture.read(frame) && !frame.empty()) {
+				append(frame);
+				appended++;
+			}
+		} finally {
+			capture.release();
+			frame.release();
+		}
+		return appended;
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			long indexOffset = align(position);
+			index.flip();
+			long at = indexOffset;
+			while (index.hasRemaining()) {
+				at += channel.write(index, at);
+			}
+			ByteBuffer header = ByteBuffer.allocate(FrameStore.HEADER_SIZE);
+			header.putInt(FrameStore.MAGIC).putInt(FrameStore.VERSION).putInt(count).putInt(0).putLong(indexOffset);
+			header.rewind();
+			at = 0;
+			while (header.hasRemaining()) {
+				at += channel.write(header, at);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	private static long align(long position) {
+		return (position + FrameStore.FRAME_ALIGN - 1) / FrameStore.FRAME_ALIGN * FrameStore.FRAME_ALIGN;
+	}
+}
@@ -0,0 +1,103 @@
+package lv.brick_vision.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+/**
+ * @description Frame source over the images of a directory in file name
+ *              order, the same files {@link FrameStoreWriter#appendDirectory}
+ *              takes. Every image is decoded when it is read; record the
+ *              directory into a {@link FrameStore} to replay it without
+ *              decoding.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class ImageDirectorySource implements FrameSource {
+
+	private final File[] files;
+	private final double fps;
+	private int next;
+
+	/**
+	 * @param dir
+	 *            directory with png/jpg/bmp/tiff images
+	 * @param fps
+	 *            nominal frame rate for real time pacing
+	 * @throws IOException
+	 *             the directory can not be listed
+	 */
+	public ImageDirectorySource(File dir, double fps) throws IOException {
+		this.files = list(dir);
+		this.fps = fps;
+	}
+
+	/**
+	 * @param dir
+	 *            directory to list
+	 * @return png/jpg/bmp/tiff files of the directory in file name order
+	 * @throws IOException
+	 *             the directory can not be listed
+	 */
+	public static File[] list(File dir) throws IOException {
+		File[] found = dir.listFiles((d, name) -> isImage(name));
+		if (found == null) {
+			throw new IOException("Cannot list directory " + dir);
+		}
+		Arrays.sort(found);
+		return found;
+	}
+
+	/**
+	 * @param name
+	 *            file name
+	 * @return true for the image types OpenCV reads
+	 */
+	public static boolean isImage(String name) {
+		return name.toLowerCase().matches(".*\\.(png|jpe?g|bmp|tiff?)$");
+	}
+
+	/**
+	 * @return file of the frame read last, null before the first read
+	 */
+	public File current() {
+		return next == 0 ? null : files[next - 1];
+	}
+
+	@Override
+	public boolean read(Mat dst) throws IOException {
+		if (next >= files.length) {
+			return false;
+		}
+		File file = files[next++];
+		Mat frame = Imgcodecs.imread(file.getAbsolutePath());
+		try {
+			if (frame.empty()) {
+				throw new IOException("Cannot read image " + file);
+			}
+			frame.copyTo(dst);
+		} finally {
+			frame.release();
+		}
+		return true;
+	}
+
+	@Override
+	public double fps() {
+		return fps;
+	}
+
+	@Override
+	public int length() {
+		return files.length;
+	}
+
+	@Override
+	public void close() {
+		next = files.length;
+	}
+}
@@ -12,6 +12,8 @@ import javax.imageio.ImageIO;
 import org.opencv.core.Core;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
 
 /**
@@ -24,8 +26,15 @@ import org.opencv.imgproc.Imgproc;
  */
 public class ImgTools {
 
+	// scratch buffers and mats reused by the buffImg2Mat conversions, so an
+	// instance is not thread-safe
+	private final MatConverter converter = new MatConverter();
 	
 	/**
+	 * Compatibility mode: decodes through ImageIO and keeps the original
+	 * output (CV_8UC3 for TYPE_INT_RGB images, 0.21/0.71/0.07 gray otherwise).
+	 * New code should use {@link #img2Mat(String, int)}.
+	 * 
 	 * @param file file path string. better method for any type of images
 	 * @return out Opencv Mat object 
 	 * @throws IOException
@@ -65,6 +74,108 @@ public class ImgTools {
     }
 	
 	
+	/**
+	 * @param file
+	 *            file path string
+	 * @param cvType
+	 *            output type. CV_8UC1, CV_8UC3 (BGR) and CV_8UC4 (BGRA) are
+	 *            decoded directly; other depths keep the depth of the file
+	 *            and are converted afterwards, 16-bit samples scaled to 8 bits
+	 *            and back
+	 * @return out Opencv Mat object decoded by Imgcodecs.imread, gray output
+	 *         uses OpenCV integer fixed-point conversion
+	 * @throws IOException
+	 *             file is missing or cannot be decoded
+	 * @throws IllegalArgumentException
+	 *             cvType has not 1, 3 or 4 channels
+	 */
+	public Mat img2Mat(String file, int cvType) throws IOException {
+		Mat out = Imgcodecs.imread(file, imreadFlags(cvType));
+		if (out.empty()) {
+			throw new IOException("Cannot decode image " + file);
+		}
+		return toType(out, cvType);
+	}
+
+	/**
+	 * @param data
+	 *            encoded image bytes (png, jpg, ...)
+	 * @param cvType
+	 *            output type, see {@link #img2Mat(String, int)}
+	 * @return out Opencv Mat object decoded by Imgcodecs.imdecode
+	 * @throws IOException
+	 *             data cannot be decoded
+	 */
+	public Mat bytes2Mat(byte[] data, int cvType) throws IOException {
+		MatOfByte buf = new MatOfByte(data);
+		Mat out = Imgcodecs.imdecode(buf, imreadFlags(cvType));
+		buf.release();
+		if (out.empty()) {
+			throw new IOException("Cannot decode image data");
+		}
+		return toType(out, cvType);
+	}
+
+	private static int imreadFlags(int cvType) {
+		// gray and color decoding is 8-bit unless the depth is kept
+		int depth = CvType.depth(cvType) == CvType.CV_8U ? 0 : Imgcodecs.IMREAD_ANYDEPTH;
+		switch (CvType.channels(cvType)) {
+		case 1:
+			return Imgcodecs.IMREAD_GRAYSCALE | depth;
+		case 4:
+			return Imgcodecs.IMREAD_UNCHANGED;
+		default:
+			return Imgcodecs.IMREAD_COLOR | depth;
+		}
+	}
+
+	/**
+	 * Channels are converted with cvtColor (gray, BGR, BGRA), the depth with
+	 * convertTo; 16-bit samples are scaled to 8 bit by 1/256 and back by 256,
+	 * other depths keep their values.
+	 *
+	 * @throws IllegalArgumentException
+	 *             the requested channel count is not 1, 3 or 4
+	 */
+	private static Mat toType(Mat decoded, int cvType) {
+		int channels = CvType.channels(cvType);
+		if (decoded.channels() != channels) {
+			Imgproc.cvtColor(decoded, decoded, colorConversion(decoded.channels(), channels));
+		}
+		int depth = CvType.depth(cvType);
+		if (decoded.depth() != depth) {
+			double scale = 1;
+			if (decoded.depth() == CvType.CV_16U && depth == CvType.CV_8U) {
+				scale = 1.0 / 256;
+			} else if (decoded.depth() == CvType.CV_8U && depth == CvType.CV_16U) {
+				scale = 256;
+			}
+			decoded.convertTo(decoded, cvType, scale);
+		}
+		if (decoded.type() != cvType) {
+			throw new IllegalArgumentException("Cannot convert " + CvType.typeToString(decoded.type()) + " to "
+					+ CvType.typeToString(cvType));
+		}
+		return decoded;
+	}
+
+	private static int colorConversion(int from, int to) {
+		if (from == 1 && to == 3) {
+			return Imgproc.COLOR_GRAY2BGR;
+		} else if (from == 1 && to == 4) {
+			return Imgproc.COLOR_GRAY2BGRA;
+		} else if (from == 3 && to == 1) {
+			return Imgproc.COLOR_BGR2GRAY;
+		} else if (from == 3 && to == 4) {
+			return Imgproc.COLOR_BGR2BGRA;
+		} else if (from == 4 && to == 1) {
+			return Imgproc.COLOR_BGRA2GRAY;
+		} else if (from == 4 && to == 3) {
+			return Imgproc.COLOR_BGRA2BGR;
+		}
+		throw new IllegalArgumentException("Cannot convert " + from + " channels to " + to);
+	}
+	
 	/**
 	 * @param imgName
 	 *            is jpg file name like dice.jpg
@@ -90,10 +201,9 @@ public class ImgTools {
 	 * @return bufferedImage type is set to TYPE_BYTE_GRAY
 	 */
 	public BufferedImage mat2BuffImgGray(Mat mat) {
-		byte[] data = new byte[mat.rows() * mat.cols() * (int) (mat.elemSize())];
-		mat.get(0, 0, data);
 		BufferedImage image = new BufferedImage(mat.cols(), mat.rows(), BufferedImage.TYPE_BYTE_GRAY);
-		image.getRaster().setDataElements(0, 0, mat.cols(), mat.rows(), data);
+		// copy straight into the raster, no intermediate array
+		mat.get(0, 0, ((DataBufferByte) image.getRaster().getDataBuffer()).getData());
 
 		return image;
 	}
@@ -113,46 +223,98 @@ public class ImgTools {
 
 	}
 
+	/**
+	 * @param img
+	 *            mat with background and objects, left unchanged
+	 * @param backGround
+	 *            mat only background, see {@link BackgroundModel} for a
+	 *            background that follows lighting changes
+	 * @param dst
+	 *            result mat
+	 * @return dst - backGround minus img at every pixel
+	 */
+	public Mat removeBackGround(Mat img, Mat backGround, Mat dst) {
+
+		Core.subtract(backGround, img, dst);
+
+		return dst;
+
+	}
+
 	/**
 	 * @param image
-	 *            buffered image
-	 * @return mat with CvType.CV_8UC3
+	 *            buffered image of any type, see {@link MatConverter}
+	 * @return new mat with CvType.CV_8UC3, copied from the pooled mat of
+	 *         the converter
 	 */
 	public Mat buffImg2Mat_CV_8UC3(BufferedImage image) {
 
-		byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
-		Mat matImg = new Mat(image.getHeight(), image.getWidth(), CvType.CV_8UC3);
-		matImg.put(0, 0, data);
-
-		return matImg;
+		return converter.toMat(image, CvType.CV_8UC3).clone();
 
 	}
 
 	/**
 	 * @param image
-	 *            buffered image
-	 * @return mat with CvType.CV_8UC1
+	 *            buffered image of any type, see {@link MatConverter}
+	 * @return new mat with CvType.CV_8UC1, copied from the pooled mat of
+	 *         the converter
 	 */
 	public Mat buffImg2Mat_CV_8UC1(BufferedImage image) {
 
-		byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
-		Mat matImg = new Mat(image.getHeight(), image.getWidth(), CvType.CV_8UC1);
-		matImg.put(0, 0, data);
-
-		return matImg;
+		return converter.toMat(image, CvType.CV_8UC1).clone();
 
 	}
 
 	/**
 	 * @param img
 	 *            buffered image
-	 * @return mat with threshold 1 set color 255 ant type is binary
+	 * @return mat with threshold 1 set color 255 ant type is binary;
+	 *         computed with {@link PixelKernels}, no mat or native call
 	 */
 	public BufferedImage makeBinaryImg(BufferedImage img) {
-		Mat mat = this.buffImg2Mat_CV_8UC1(img);
-		Imgproc.threshold(mat, mat, 1, 255, 0);
+		int n = img.getWidth() * img.getHeight();
+		BufferedImage out = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+		byte[] dst = ((DataBufferByte) out.getRaster().getDataBuffer()).getData();
+		if (img.getType() == BufferedImage.TYPE_BYTE_GRAY && img.getRaster().getDataBuffer().getSize() == n) {
+			byte[] src = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+			PixelKernels.threshold(src, dst, n, 1, 255);
+		} else if (img.getType() == BufferedImage.TYPE_3BYTE_BGR && img.getRaster().getDataBuffer().getSize() == n * 3) {
+			byte[] src = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+			PixelKernels.bgr2Gray(src, dst, n);
+			PixelKernels.threshold(dst, dst, n, 1, 255);
+		} else {
+			// let java2d convert any other type to gray first
+			out.getGraphics().drawImage(img, 0, 0, null);
+			PixelKernels.threshold(dst, dst, n, 1, 255);
+		}
+
+		return out;
+
+	}
 
-		return this.mat2BuffImgGray(mat);
+	/**
+	 * @param gray
+	 *            CV_8UC1 frame (CV_8UC3 is converted to gray)
+	 * @return summed-area tables of the frame for O(1) rectangle sum, mean,
+	 *         variance and foreground ratio queries
+	 */
+	public IntegralImage integral(Mat gray) {
+
+		return new IntegralImage().build(gray);
+
+	}
+
+	/**
+	 * @param objNum
+	 *            Number of objects in image including background
+	 * @param matLeb
+	 *            Labeled mat from methods that counts objects
+	 * @return stats - area, centroid, bounding box and pixel sums of every label,
+	 *         computed in one pass over the mat
+	 */
+	public ComponentStats getComponentStats(int objNum, Mat matLeb) {
+
+		return new ComponentStats().compute(matLeb, objNum);
 
 	}
 
@@ -163,10 +325,13 @@ public class ImgTools {
 	 *            Labeled mat from methods that counts objects
 	 * @return list
 	 * 			  0-area; 1-x; 2-y; 3-xsum; 4-ysum.
+	 * @deprecated use {@link #getComponentStats(int, Mat)}
 	 */
+	@Deprecated
 	@SuppressWarnings("rawtypes")
 	public List getLebelsArray(int objNum, Mat matLeb) {
 
+		ComponentStats stats = this.getComponentStats(objNum, matLeb);
 		List<int[]> list = new ArrayList<int[]>();
 		int[] area = new int[objNum];
 		int[] xsum = new int[objNum];
@@ -174,30 +339,14 @@ public class ImgTools {
 		int[] xcentr = new int[objNum];
 		int[] ycentr = new int[objNum];
 
-		double[] d;
-		int w = matLeb.cols();
-		int h = matLeb.rows();
-		for (int y = 0; y < h; y++) {
-			
-			for (int x = 0; x < w; x++) {
-				d = matLeb.get(y, x);
-				double pixel = d[0];
-
-				for (int i = 0; i <= objNum; i++) {
-					if (i == pixel) {
-						area[i]++;
-						xsum[i] = xsum[i] + x;
-						ysum[i] = ysum[i] + y;
-						break;
-					}
-
-				}
-			}
-		}
-
 		for (int i = 0; i < objNum; i++) {
-			xcentr[i] = xsum[i] / area[i];
-			ycentr[i] = ysum[i] / area[i];
+			area[i] = stats.area(i);
+			xsum[i] = (int) stats.xSum(i);
+			ysum[i] = (int) stats.ySum(i);
+			if (area[i] > 0) {
+				xcentr[i] = xsum[i] / area[i];
+				ycentr[i] = ysum[i] / area[i];
+			}
 		}
 		list.add(area);
 		list.add(xcentr);
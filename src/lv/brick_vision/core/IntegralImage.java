@@ -0,0 +1,236 @@
+package lv.brick_vision.core;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * @description Summed-area tables of an 8-bit gray frame: sum, squared sum
+ *              and count of non zero pixels, built in one pass into primitive
+ *              arrays. After that the sum, mean, variance and foreground
+ *              ratio of any rectangle is answered in O(1), and the batch
+ *              methods answer thousands of rectangles without allocating.
+ *
+ *              Tables have (w + 1) * (h + 1) entries with a zero first row and
+ *              column. An instance can be rebuilt for every frame; arrays are
+ *              only reallocated when the frame grows.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class IntegralImage {
+
+	private int width;
+	private int height;
+	private long[] sum = new long[0];
+	private long[] sqSum = new long[0];
+	private int[] nonZero = new int[0];
+
+	// reused by build(Mat)
+	private byte[] pixels = new byte[0];
+	private Mat gray;
+
+	/**
+	 * @param frame
+	 *            CV_8UC1 frame, CV_8UC3 (BGR) is converted to gray first
+	 * @return this
+	 */
+	public IntegralImage build(Mat frame) {
+		Mat src = frame;
+		if (frame.channels() == 3 || !frame.isContinuous()) {
+			if (gray == null) {
+				gray = new Mat();
+			}
+			if (frame.channels() == 3) {
+				Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGR2GRAY);
+			} else {
+				frame.copyTo(gray);
+			}
+			src = gray;
+		}
+		int n = src.rows() * src.cols();
+		if (pixels.length != n) {
+			pixels = new byte[n];
+		}
+		src.get(0, 0, pixels);
+		return build(pixels, src.cols(), src.rows());
+	}
+
+	/**
+	 * @param px
+	 *            gray pixels, row major
+	 * @param w
+	 *            frame width
+	 * @param h
+	 *            frame height
+	 * @return this
+	 */
+	public IntegralImage build(byte[] px, int w, int h) {
+		int stride = w + 1;
+		int n = stride * (h + 1);
+		if (sum.length < n) {
+			sum = new long[n];
+			sqSum = new long[n];
+			nonZero = new int[n];
+		}
+		width = w;
+		height = h;
+		for (int x = 0; x < stride; x++) {
+			sum[x] = 0;
+			sqSum[x] = 0;
+			nonZero[x] = 0;
+		}
+		for (int y = 0; y < h; y++) {
+			int row = (y + 1) * stride;
+			int above = y * stride;
+			sum[row] = 0;
+			sqSum[row] = 0;
+			nonZero[row] = 0;
+			long rs = 0;
+			long rsq = 0;
+			int rnz = 0;
+			for (int x = 0, i = y * w; x < w; x++, i++) {
+				int p = px[i] & 0xFF;
+				rs += p;
+				rsq += p * p;
+				rnz -= -p >> 31;
+				sum[row + x + 1] = sum[above + x + 1] + rs;
+				sqSum[row + x + 1] = sqSum[above + x + 1] + rsq;
+				nonZero[row + x + 1] = nonZero[above + x + 1] + rnz;
+			}
+		}
+		return this;
+	}
+
+	public int width() {
+		return width;
+	}
+
+	public int height() {
+		return height;
+	}
+
+	/**
+	 * @return sum of the pixels in the rectangle, which must lie inside the
+	 *         frame
+	 */
+	public long sum(int x, int y, int w, int h) {
+		return box(sum, x, y, w, h);
+	}
+
+	public long sum(Rect r) {
+		return sum(r.x, r.y, r.width, r.height);
+	}
+
+	/**
+	 * @return mean of the pixels in the rectangle, 0 for an empty rectangle
+	 */
+	public double mean(int x, int y, int w, int h) {
+		int area = w * h;
+		return area == 0 ? 0 : (double) box(sum, x, y, w, h) / area;
+	}
+
+	public double mean(Rect r) {
+		return mean(r.x, r.y, r.width, r.height);
+	}
+
+	/**
+	 * @return population variance of the pixels in the rectangle, 0 for an
+	 *         empty rectangle
+	 */
+	public double variance(int x, int y, int w, int h) {
+		int area = w * h;
+		if (area == 0) {
+			return 0;
+		}
+		double m = (double) box(sum, x, y, w, h) / area;
+		double v = (double) box(sqSum, x, y, w, h) / area - m * m;
+		return v < 0 ? 0 : v;
+	}
+
+	public double variance(Rect r) {
+		return variance(r.x, r.y, r.width, r.height);
+	}
+
+	/**
+	 * @return share of non zero pixels in the rectangle (0..1), 0 for an
+	 *         empty rectangle
+	 */
+	public double foregroundRatio(int x, int y, int w, int h) {
+		int area = w * h;
+		if (area == 0) {
+			return 0;
+		}
+		int stride = width + 1;
+		int a = y * stride + x;
+		int b = (y + h) * stride + x;
+		return (double) (nonZero[b + w] - nonZero[b] - nonZero[a + w] + nonZero[a]) / area;
+	}
+
+	public double foregroundRatio(Rect r) {
+		return foregroundRatio(r.x, r.y, r.width, r.height);
+	}
+
+	/**
+	 * @param rects
+	 *            n rectangles as x, y, width, height quadruples
+	 * @param n
+	 *            number of rectangles
+	 * @param out
+	 *            filled with the sum of every rectangle
+	 */
+	public void sums(int[] rects, int n, long[] out) {
+		for (int i = 0, j = 0; i < n; i++, j += 4) {
+			out[i] = box(sum, rects[j], rects[j + 1], rects[j + 2], rects[j + 3]);
+		}
+	}
+
+	/**
+	 * @param rects
+	 *            n rectangles as x, y, width, height quadruples
+	 * @param n
+	 *            number of rectangles
+	 * @param out
+	 *            filled with the mean of every rectangle
+	 */
+	public void means(int[] rects, int n, double[] out) {
+		for (int i = 0, j = 0; i < n; i++, j += 4) {
+			out[i] = mean(rects[j], rects[j + 1], rects[j + 2], rects[j + 3]);
+		}
+	}
+
+	/**
+	 * @param rects
+	 *            n rectangles as x, y, width, height quadruples
+	 * @param n
+	 *            number of rectangles
+	 * @param out
+	 *            filled with the variance of every rectangle
+	 */
+	public void variances(int[] rects, int n, double[] out) {
+		for (int i = 0, j = 0; i < n; i++, j += 4) {
+			out[i] = variance(rects[j], rects[j + 1], rects[j + 2], rects[j + 3]);
+		}
+	}
+
+	/**
+	 * @param rects
+	 *            n rectangles as x, y, width, height quadruples
+	 * @param n
+	 *            number of rectangles
+	 * @param out
+	 *            filled with the foreground ratio of every rectangle
+	 */
+	public void foregroundRatios(int[] rects, int n, double[] out) {
+		for (int i = 0, j = 0; i < n; i++, j += 4) {
+			out[i] = foregroundRatio(rects[j], rects[j + 1], rects[j + 2], rects[j + 3]);
+		}
+	}
+
+	private long box(long[] table, int x, int y, int w, int h) {
+		int stride = width + 1;
+		int a = y * stride + x;
+		int b = (y + h) * stride + x;
+		return table[b + w] - table[b] - table[a + w] + table[a];
+	}
+}
@@ -0,0 +1,335 @@
+package lv.brick_vision.core;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DataBufferUShort;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * @description Converts between BufferedImage and Mat by reading and writing
+ *              the backing raster arrays directly. Byte gray, 3 byte BGR, 4
+ *              byte ABGR, int RGB/ARGB/BGR and ushort gray rasters are
+ *              supported natively; any other raster goes through getRGB one
+ *              row at a time.
+ *
+ *              Destination Mats and images come from a small pool keyed by
+ *              size and type, so converting frames of the same size again and
+ *              again allocates nothing. A returned object stays owned by the
+ *              converter and is overwritten by the next conversion of the
+ *              same size and type. Not thread-safe, use one converter per
+ *              thread.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class MatConverter {
+
+	private static final int POOL_SIZE = 8;
+
+	private final long[] matKeys = new long[POOL_SIZE];
+	private final Mat[] mats = new Mat[POOL_SIZE];
+	private int matNext;
+
+	private final long[] imgKeys = new long[POOL_SIZE];
+	private final BufferedImage[] imgs = new BufferedImage[POOL_SIZE];
+	private int imgNext;
+
+	// scratch buffers for rasters that need repacking
+	private byte[] bytes = new byte[0];
+	private int[] row = new int[0];
+
+	/**
+	 * @param image
+	 *            buffered image of any type
+	 * @return pooled mat; CV_8UC1 for gray, CV_16UC1 for ushort gray and
+	 *         CV_8UC3 (BGR) for everything else
+	 */
+	public Mat toMat(BufferedImage image) {
+		int type = matType(image);
+		Mat dst = pooledMat(image.getWidth(), image.getHeight(), type);
+		fill(image, dst);
+		return dst;
+	}
+
+	/**
+	 * @param image
+	 *            buffered image of any type
+	 * @param cvType
+	 *            CV_8UC1 or CV_8UC3, gray/color conversion is done natively
+	 * @return pooled mat with the requested type
+	 */
+	public Mat toMat(BufferedImage image, int cvType) {
+		Mat natural = toMat(image);
+		if (natural.type() == cvType) {
+			return natural;
+		}
+		Mat dst = pooledMat(image.getWidth(), image.getHeight(), cvType);
+		convertChannels(natural, dst, cvType);
+		return dst;
+	}
+
+	/**
+	 * @param mat
+	 *            CV_8UC1, CV_8UC3 (BGR), CV_8UC4 (BGRA) or CV_16UC1
+	 * @return pooled image of TYPE_BYTE_GRAY, TYPE_3BYTE_BGR, TYPE_4BYTE_ABGR
+	 *         or TYPE_USHORT_GRAY
+	 */
+	public BufferedImage toBufferedImage(Mat mat) {
+		BufferedImage dst = pooledImage(mat.cols(), mat.rows(), imageType(mat));
+		fill(mat, dst);
+		return dst;
+	}
+
+	/**
+	 * Release all pooled mats.
+	 */
+	public void clear() {
+		for (int i = 0; i < POOL_SIZE; i++) {
+			if (mats[i] != null) {
+				mats[i].release();
+				mats[i] = null;
+			}
+			imgs[i] = null;
+			matKeys[i] = 0;
+			imgKeys[i] = 0;
+		}
+	}
+
+	/**
+	 * Non pooled conversion, the caller owns the returned mat.
+	 *
+	 * @param image
+	 *            buffered image of any type
+	 * @param cvType
+	 *            CV_8UC1 or CV_8UC3
+	 * @return new mat with the requested type
+	 */
+	public static Mat copyToMat(BufferedImage image, int cvType) {
+		MatConverter c = new MatConverter();
+		Mat natural = new Mat(image.getHeight(), image.getWidth(), matType(image));
+		c.fill(image, natural);
+		if (natural.type() == cvType) {
+			return natural;
+		}
+		Mat out = new Mat();
+		c.convertChannels(natural, out, cvType);
+		natural.release();
+		return out;
+	}
+
+	private void convertChannels(Mat src, Mat dst, int cvType) {
+		if (src.depth() != CvType.CV_8U) {
+			src.convertTo(dst, CvType.CV_8U, 1.0 / 256);
+			src = dst;
+		}
+		if (src.channels() == CvType.channels(cvType)) {
+			if (src != dst) {
+				src.copyTo(dst);
+			}
+		} else if (CvType.channels(cvType) == 1) {
+			Imgproc.cvtColor(src, dst, Imgproc.COLOR_BGR2GRAY);
+		} else {
+			Imgproc.cvtColor(src, dst, Imgproc.COLOR_GRAY2BGR);
+		}
+	}
+
+	private static int matType(BufferedImage image) {
+		switch (image.getType()) {
+		case BufferedImage.TYPE_BYTE_GRAY:
+			return CvType.CV_8UC1;
+		case BufferedImage.TYPE_USHORT_GRAY:
+			return CvType.CV_16UC1;
+		default:
+			return CvType.CV_8UC3;
+		}
+	}
+
+	private static int imageType(Mat mat) {
+		int type = mat.type();
+		if (type == CvType.CV_8UC1) {
+			return BufferedImage.TYPE_BYTE_GRAY;
+		} else if (type == CvType.CV_8UC3) {
+			return BufferedImage.TYPE_3BYTE_BGR;
+		} else if (type == CvType.CV_8UC4) {
+			return BufferedImage.TYPE_4BYTE_ABGR;
+		} else if (type == CvType.CV_16UC1) {
+			return BufferedImage.TYPE_USHORT_GRAY;
+		}
+		throw new IllegalArgumentException("Unsupported mat type " + CvType.typeToString(type));
+	}
+
+	/**
+	 * @return true when the raster data starts at 0 and has no row padding, so
+	 *         the backing array can be copied as one block
+	 */
+	private static boolean isTight(Raster raster, int pixelStride) {
+		if (raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0
+				|| raster.getDataBuffer().getOffset() != 0) {
+			return false;
+		}
+		if (raster.getSampleModel() instanceof ComponentSampleModel) {
+			return ((ComponentSampleModel) raster.getSampleModel()).getScanlineStride() == raster.getWidth()
+					* pixelStride;
+		}
+		if (raster.getSampleModel() instanceof SinglePixelPackedSampleModel) {
+			return ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride() == raster
+					.getWidth();
+		}
+		return false;
+	}
+
+	private void fill(BufferedImage image, Mat dst) {
+		int w = image.getWidth();
+		int h = image.getHeight();
+		Raster raster = image.getRaster();
+		DataBuffer buffer = raster.getDataBuffer();
+		int type = image.getType();
+
+		if ((type == BufferedImage.TYPE_BYTE_GRAY || type == BufferedImage.TYPE_3BYTE_BGR) && isTight(raster, dst.channels())) {
+			dst.put(0, 0, ((DataBufferByte) buffer).getData());
+		} else if (type == BufferedImage.TYPE_USHORT_GRAY && isTight(raster, 1)) {
+			dst.put(0, 0, ((DataBufferUShort) buffer).getData());
+		} else if ((type == BufferedImage.TYPE_4BYTE_ABGR || type == BufferedImage.TYPE_4BYTE_ABGR_PRE) && isTight(raster, 4)) {
+			byte[] src = ((DataBufferByte) buffer).getData();
+			byte[] out = bytes(w * h * 3);
+			for (int i = 0, j = 0, n = w * h * 3; j < n; i += 4, j += 3) {
+				out[j] = src[i + 1];
+				out[j + 1] = src[i + 2];
+				out[j + 2] = src[i + 3];
+			}
+			dst.put(0, 0, out);
+		} else if ((type == BufferedImage.TYPE_INT_RGB || type == BufferedImage.TYPE_INT_ARGB
+				|| type == BufferedImage.TYPE_INT_ARGB_PRE || type == BufferedImage.TYPE_INT_BGR) && isTight(raster, 1)) {
+			int[] src = ((DataBufferInt) buffer).getData();
+			byte[] out = bytes(w * h * 3);
+			// INT_BGR keeps red in the low byte, the others keep blue there
+			int lo = type == BufferedImage.TYPE_INT_BGR ? 16 : 0;
+			int hi = 16 - lo;
+			for (int i = 0, j = 0, n = w * h; i < n; i++, j += 3) {
+				int p = src[i];
+				out[j] = (byte) (p >> lo);
+				out[j + 1] = (byte) (p >> 8);
+				out[j + 2] = (byte) (p >> hi);
+			}
+			dst.put(0, 0, out);
+		} else if (dst.channels() == 1 && dst.depth() == CvType.CV_8U) {
+			// generic gray path, one row at a time
+			byte[] out = bytes(w * h);
+			int[] r = row(w);
+			for (int y = 0; y < h; y++) {
+				raster.getSamples(0, y, w, 1, 0, r);
+				for (int x = 0; x < w; x++) {
+					out[y * w + x] = (byte) r[x];
+				}
+			}
+			dst.put(0, 0, out);
+		} else if (dst.channels() == 1) {
+			short[] out = new short[w * h];
+			int[] r = row(w);
+			for (int y = 0; y < h; y++) {
+				raster.getSamples(0, y, w, 1, 0, r);
+				for (int x = 0; x < w; x++) {
+					out[y * w + x] = (short) r[x];
+				}
+			}
+			dst.put(0, 0, out);
+		} else {
+			// generic color path (indexed, binary, custom models)
+			byte[] out = bytes(w * h * 3);
+			int[] r = row(w);
+			for (int y = 0, j = 0; y < h; y++) {
+				image.getRGB(0, y, w, 1, r, 0, w);
+				for (int x = 0; x < w; x++, j += 3) {
+					int p = r[x];
+					out[j] = (byte) p;
+					out[j + 1] = (byte) (p >> 8);
+					out[j + 2] = (byte) (p >> 16);
+				}
+			}
+			dst.put(0, 0, out);
+		}
+	}
+
+	private void fill(Mat mat, BufferedImage dst) {
+		Mat src = mat.isContinuous() ? mat : mat.clone();
+		DataBuffer buffer = dst.getRaster().getDataBuffer();
+		if (dst.getType() == BufferedImage.TYPE_USHORT_GRAY) {
+			src.get(0, 0, ((DataBufferUShort) buffer).getData());
+		} else if (dst.getType() == BufferedImage.TYPE_4BYTE_ABGR) {
+			byte[] out = ((DataBufferByte) buffer).getData();
+			byte[] in = bytes(out.length);
+			src.get(0, 0, in);
+			// BGRA -> ABGR
+			for (int i = 0, n = out.length; i < n; i += 4) {
+				out[i] = in[i + 3];
+				out[i + 1] = in[i];
+				out[i + 2] = in[i + 1];
+				out[i + 3] = in[i + 2];
+			}
+		} else {
+			src.get(0, 0, ((DataBufferByte) buffer).getData());
+		}
+		if (src != mat) {
+			src.release();
+		}
+	}
+
+	private byte[] bytes(int n) {
+		// Mat.put copies the whole array, so the scratch must match exactly
+		if (bytes.length != n) {
+			bytes = new byte[n];
+		}
+		return bytes;
+	}
+
+	private int[] row(int n) {
+		if (row.length < n) {
+			row = new int[n];
+		}
+		return row;
+	}
+
+	private static long key(int w, int h, int type) {
+		return ((long) w << 40) | ((long) h << 16) | (type & 0xFFFF) | (1L << 63);
+	}
+
+	private Mat pooledMat(int w, int h, int type) {
+		long k = key(w, h, type);
+		for (int i = 0; i < POOL_SIZE; i++) {
+			if (matKeys[i] == k) {
+				return mats[i];
+			}
+		}
+		int slot = matNext;
+		matNext = (matNext + 1) % POOL_SIZE;
+		if (mats[slot] == null) {
+			mats[slot] = new Mat(h, w, type);
+		} else {
+			mats[slot].create(h, w, type);
+		}
+		matKeys[slot] = k;
+		return mats[slot];
+	}
+
+	private BufferedImage pooledImage(int w, int h, int type) {
+		long k = key(w, h, type);
+		for (int i = 0; i < POOL_SIZE; i++) {
+			if (imgKeys[i] == k) {
+				return imgs[i];
+			}
+		}
+		int slot = imgNext;
+		imgNext = (imgNext + 1) % POOL_SIZE;
+		imgs[slot] = new BufferedImage(w, h, type);
+		imgKeys[slot] = k;
+		return imgs[slot];
+	}
+}
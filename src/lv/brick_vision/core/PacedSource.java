@@ -0,0 +1,127 @@
+package lv.brick_vision.core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+import org.opencv.core.Mat;
+
+/**
+ * @description Wraps a frame source with a pacing mode. In real time mode a
+ *              frame is not returned before its time at the nominal frame
+ *              rate of the source, so a recording plays like the camera it
+ *              was taken with; a reader that falls behind gets the next
+ *              frame at once and the schedule restarts instead of bursting.
+ *              In fast mode frames are returned as fast as the reader takes
+ *              them. Both modes count frames and report the sustained
+ *              throughput.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class PacedSource implements FrameSource {
+
+	public enum Mode {
+		/** no frame before its time at the source frame rate */
+		REAL_TIME,
+		/** every frame as soon as it is read */
+		FAST
+	}
+
+	private final FrameSource source;
+	private final Mode mode;
+	private final double fps;
+	// first read, for the throughput
+	private long first;
+	// start of the schedule, restarted when the reader falls behind
+	private long start;
+	private long last;
+	private long frames;
+	// frames since the schedule was last restarted
+	private long scheduled;
+
+	/**
+	 * @param source
+	 *            source to pace, closed with this one
+	 * @param mode
+	 *            pacing mode
+	 * @param fallbackFps
+	 *            rate for real time mode when the source does not know its
+	 *            own
+	 */
+	public PacedSource(FrameSource source, Mode mode, double fallbackFps) {
+		this.source = source;
+		this.mode = mode;
+		this.fps = source.fps() > 0 ? source.fps() : fallbackFps;
+	}
+
+	public Mode mode() {
+		return mode;
+	}
+
+	@Override
+	public boolean read(Mat dst) throws IOException {
+		long now = System.nanoTime();
+		if (frames == 0) {
+			first = now;
+			start = now;
+		}
+		if (mode == Mode.REAL_TIME && fps > 0 && scheduled > 0) {
+			long due = start + (long) (scheduled * 1e9 / fps);
+			long wait = due - now;
+			if (wait > 0) {
+				try {
+					Thread.sleep(wait / 1000000, (int) (wait % 1000000));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while pacing");
+				}
+			} else if (-wait > 1e9 / fps) {
+				// more than a frame behind, restart the schedule
+				start = now;
+				scheduled = 0;
+			}
+		}
+		if (!source.read(dst)) {
+			return false;
+		}
+		last = System.nanoTime();
+		frames++;
+		scheduled++;
+		return true;
+	}
+
+	/**
+	 * @return frames read so far
+	 */
+	public long frames() {
+		return frames;
+	}
+
+	/**
+	 * @return frames per second from the first read to the last frame, 0
+	 *         before two frames were read
+	 */
+	public double throughput() {
+		return frames < 2 || last == first ? 0 : (frames - 1) * 1e9 / (last - first);
+	}
+
+	@Override
+	public double fps() {
+		return fps;
+	}
+
+	@Override
+	public int length() {
+		return source.length();
+	}
+
+	@Override
+	public void close() {
+		source.close();
+	}
+
+	@Override
+	public String toString() {
+		return source + (mode == Mode.FAST ? String.format(" (%d frames, %.1f fps)", frames, throughput()) : "");
+	}
+}
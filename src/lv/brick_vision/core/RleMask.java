@@ -0,0 +1,260 @@
+package lv.brick_vision.core;
+
+import java.util.Arrays;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+/**
+ * @description Run-length encoded binary mask. Every row is stored as a list
+ *              of foreground runs [x0, x1), so a sparse tray with a few
+ *              percent foreground takes a fraction of the memory of a byte
+ *              mask. Components are labeled with a union-find over runs and
+ *              their area, centroid and bounding box are accumulated per run,
+ *              without ever creating a dense label image.
+ *
+ *              Labels are numbered in raster order of their first pixel.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class RleMask {
+
+	private final int width;
+	private final int height;
+	// runs of row y are rowStart[y] .. rowStart[y + 1] - 1
+	private final int[] rowStart;
+	private int[] runX0 = new int[64];
+	private int[] runX1 = new int[64];
+	private int runs;
+
+	// union-find over runs, reused by label()
+	private int[] parent = new int[0];
+
+	private RleMask(int width, int height) {
+		this.width = width;
+		this.height = height;
+		this.rowStart = new int[height + 1];
+	}
+
+	/**
+	 * @param binary
+	 *            CV_8UC1 mask, every non zero pixel is foreground
+	 * @return encoded mask; the mat is read one row at a time
+	 */
+	public static RleMask fromMat(Mat binary) {
+		if (binary.type() != CvType.CV_8UC1) {
+			throw new IllegalArgumentException("Mask must be CV_8UC1, got " + CvType.typeToString(binary.type()));
+		}
+		int w = binary.cols();
+		int h = binary.rows();
+		RleMask mask = new RleMask(w, h);
+		byte[] row = new byte[w];
+		for (int y = 0; y < h; y++) {
+			binary.get(y, 0, row);
+			mask.encodeRow(y, row, 0);
+		}
+		mask.rowStart[h] = mask.runs;
+		return mask;
+	}
+
+	/**
+	 * @param px
+	 *            mask pixels, row major, every non zero byte is foreground
+	 * @param w
+	 *            mask width
+	 * @param h
+	 *            mask height
+	 * @return encoded mask
+	 */
+	public static RleMask fromBytes(byte[] px, int w, int h) {
+		RleMask mask = new RleMask(w, h);
+		for (int y = 0; y < h; y++) {
+			mask.encodeRow(y, px, y * w);
+		}
+		mask.rowStart[h] = mask.runs;
+		return mask;
+	}
+
+	private void encodeRow(int y, byte[] px, int off) {
+		rowStart[y] = runs;
+		int x = 0;
+		while (x < width) {
+			while (x < width && px[off + x] == 0) {
+				x++;
+			}
+			if (x == width) {
+				break;
+			}
+			int x0 = x;
+			while (x < width && px[off + x] != 0) {
+				x++;
+			}
+			addRun(x0, x);
+		}
+	}
+
+	private void addRun(int x0, int x1) {
+		if (runs == runX0.length) {
+			runX0 = Arrays.copyOf(runX0, runs * 2);
+			runX1 = Arrays.copyOf(runX1, runs * 2);
+		}
+		runX0[runs] = x0;
+		runX1[runs] = x1;
+		runs++;
+	}
+
+	public int width() {
+		return width;
+	}
+
+	public int height() {
+		return height;
+	}
+
+	/**
+	 * @return number of runs
+	 */
+	public int runCount() {
+		return runs;
+	}
+
+	/**
+	 * @return number of foreground pixels
+	 */
+	public long foregroundCount() {
+		long count = 0;
+		for (int i = 0; i < runs; i++) {
+			count += runX1[i] - runX0[i];
+		}
+		return count;
+	}
+
+	/**
+	 * @param connectivity
+	 *            4 or 8
+	 * @return component statistics; label 0 is the background (area and sums
+	 *         of all background pixels, bounding box of the whole mask)
+	 */
+	public ComponentStats label(int connectivity) {
+		if (connectivity != 4 && connectivity != 8) {
+			throw new IllegalArgumentException("connectivity must be 4 or 8");
+		}
+		// 8-connected runs may touch diagonally, 4-connected runs must overlap
+		int reach = connectivity == 8 ? 1 : 0;
+		if (parent.length < runs) {
+			parent = new int[runs];
+		}
+		for (int i = 0; i < runs; i++) {
+			parent[i] = i;
+		}
+		for (int y = 1; y < height; y++) {
+			int a = rowStart[y - 1];
+			int aEnd = rowStart[y];
+			int b = rowStart[y];
+			int bEnd = rowStart[y + 1];
+			while (a < aEnd && b < bEnd) {
+				if (runX0[a] < runX1[b] + reach && runX0[b] < runX1[a] + reach) {
+					union(a, b);
+				}
+				// advance the run that ends first
+				if (runX1[a] < runX1[b]) {
+					a++;
+				} else {
+					b++;
+				}
+			}
+		}
+
+		// compact roots to labels 1..n in raster order of their first run
+		int[] labelOf = new int[runs];
+		int n = 1;
+		for (int i = 0; i < runs; i++) {
+			int r = find(i);
+			if (r == i) {
+				labelOf[i] = n++;
+			}
+		}
+		int[] area = new int[n];
+		long[] xSum = new long[n];
+		long[] ySum = new long[n];
+		int[] minX = new int[n];
+		int[] minY = new int[n];
+		int[] maxX = new int[n];
+		int[] maxY = new int[n];
+		Arrays.fill(minX, Integer.MAX_VALUE);
+		Arrays.fill(minY, Integer.MAX_VALUE);
+		Arrays.fill(maxX, -1);
+		Arrays.fill(maxY, -1);
+		for (int y = 0; y < height; y++) {
+			for (int i = rowStart[y]; i < rowStart[y + 1]; i++) {
+				int l = labelOf[find(i)];
+				int x0 = runX0[i];
+				int x1 = runX1[i];
+				int len = x1 - x0;
+				area[l] += len;
+				xSum[l] += (long) len * (x0 + x1 - 1) / 2;
+				ySum[l] += (long) len * y;
+				minX[l] = Math.min(minX[l], x0);
+				maxX[l] = Math.max(maxX[l], x1 - 1);
+				minY[l] = Math.min(minY[l], y);
+				maxY[l] = y;
+			}
+		}
+
+		// background is everything else
+		long fgX = 0, fgY = 0, fgArea = 0;
+		for (int l = 1; l < n; l++) {
+			fgArea += area[l];
+			fgX += xSum[l];
+			fgY += ySum[l];
+		}
+		area[0] = (int) ((long) width * height - fgArea);
+		xSum[0] = (long) height * width * (width - 1) / 2 - fgX;
+		ySum[0] = (long) width * height * (height - 1) / 2 - fgY;
+		minX[0] = 0;
+		minY[0] = 0;
+		maxX[0] = width - 1;
+		maxY[0] = height - 1;
+
+		ComponentStats stats = new ComponentStats();
+		stats.load(n, area, xSum, ySum, minX, minY, maxX, maxY);
+		return stats;
+	}
+
+	/**
+	 * @param dst
+	 *            filled with the decoded CV_8UC1 mask, 255 foreground
+	 * @return dst
+	 */
+	public Mat toMat(Mat dst) {
+		byte[] px = new byte[width * height];
+		for (int y = 0; y < height; y++) {
+			for (int i = rowStart[y]; i < rowStart[y + 1]; i++) {
+				Arrays.fill(px, y * width + runX0[i], y * width + runX1[i], (byte) 255);
+			}
+		}
+		dst.create(height, width, CvType.CV_8UC1);
+		dst.put(0, 0, px);
+		return dst;
+	}
+
+	private int find(int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	private void union(int a, int b) {
+		int ra = find(a);
+		int rb = find(b);
+		// the smaller run index is first in raster order, keep it as root
+		if (ra < rb) {
+			parent[rb] = ra;
+		} else if (rb < ra) {
+			parent[ra] = rb;
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package lv.brick_vision.core;
+
+import java.util.Arrays;
+
+/**
+ * @description Tile based change detection for gray frames. The frame is
+ *              split into square tiles and every tile is compared with a
+ *              reference copy: a tile is dirty when more than minChanged of
+ *              its pixels differ by more than pixelThreshold gray levels.
+ *              The reference of a tile is only replaced when the tile is
+ *              dirty, so slow movement below the threshold between two
+ *              frames still adds up and is eventually reported.
+ *
+ *              The comparison is a branch free pass over byte arrays that
+ *              stops early in a tile as soon as it is known to be dirty, and
+ *              needs no native code.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class TileDiff {
+
+	private final int tileSize;
+	private int width;
+	private int height;
+	private int cols;
+	private int rows;
+	private byte[] reference = new byte[0];
+	private boolean[] dirty = new boolean[0];
+	private int dirtyCount;
+	private boolean initialized;
+
+	private int pixelThreshold = 25;
+	private int minChanged = 8;
+
+	/**
+	 * @param tileSize
+	 *            tile width and height in pixels
+	 */
+	public TileDiff(int tileSize) {
+		if (tileSize < 1) {
+			throw new IllegalArgumentException("tileSize must be positive");
+		}
+		this.tileSize = tileSize;
+	}
+
+	/**
+	 * @param pixelThreshold
+	 *            gray difference a pixel must exceed to count as changed
+	 *            (default 25)
+	 * @param minChanged
+	 *            changed pixels a tile must exceed to be dirty (default 8)
+	 */
+	public void setThresholds(int pixelThreshold, int minChanged) {
+		this.pixelThreshold = pixelThreshold;
+		this.minChanged = minChanged;
+	}
+
+	/**
+	 * Forget the reference, the next frame is completely dirty.
+	 */
+	public void reset() {
+		initialized = false;
+	}
+
+	/**
+	 * @param gray
+	 *            gray pixels, row major
+	 * @param w
+	 *            frame width
+	 * @param h
+	 *            frame height
+	 * @return number of dirty tiles; every tile is dirty for the first frame
+	 *         and after a size change
+	 */
+	public int update(byte[] gray, int w, int h) {
+		if (!initialized || w != width || h != height) {
+			width = w;
+			height = h;
+			cols = (w + tileSize - 1) / tileSize;
+			rows = (h + tileSize - 1) / tileSize;
+			if (reference.length != w * h) {
+				reference = new byte[w * h];
+			}
+			if (dirty.length != cols * rows) {
+				dirty = new boolean[cols * rows];
+			}
+			System.arraycopy(gray, 0, reference, 0, w * h);
+			Arrays.fill(dirty, true);
+			dirtyCount = cols * rows;
+			initialized = true;
+			return dirtyCount;
+		}
+
+		int count = 0;
+		for (int ty = 0; ty < rows; ty++) {
+			int y0 = ty * tileSize;
+			int y1 = Math.min(h, y0 + tileSize);
+			for (int tx = 0; tx < cols; tx++) {
+				int x0 = tx * tileSize;
+				int x1 = Math.min(w, x0 + tileSize);
+				boolean changed = changed(gray, x0, y0, x1, y1);
+				dirty[ty * cols + tx] = changed;
+				if (changed) {
+					count++;
+					for (int y = y0; y < y1; y++) {
+						System.arraycopy(gray, y * w + x0, reference, y * w + x0, x1 - x0);
+					}
+				}
+			}
+		}
+		dirtyCount = count;
+		return count;
+	}
+
+	private boolean changed(byte[] gray, int x0, int y0, int x1, int y1) {
+		int changed = 0;
+		int thr = pixelThreshold;
+		for (int y = y0; y < y1; y++) {
+			for (int i = y * width + x0, end = y * width + x1; i < end; i++) {
+				int d = (gray[i] & 0xFF) - (reference[i] & 0xFF);
+				int m = d >> 31;
+				d = (d ^ m) - m;
+				changed += (thr - d) >>> 31;
+			}
+			if (changed > minChanged) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public int tileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * @return tile columns of the last frame
+	 */
+	public int cols() {
+		return cols;
+	}
+
+	/**
+	 * @return tile rows of the last frame
+	 */
+	public int rows() {
+		return rows;
+	}
+
+	/**
+	 * @return dirty tiles of the last update
+	 */
+	public int dirtyCount() {
+		return dirtyCount;
+	}
+
+	/**
+	 * @return true when tile (tx, ty) changed in the last update
+	 */
+	public boolean isDirty(int tx, int ty) {
+		return dirty[ty * cols + tx];
+	}
+}
@@ -0,0 +1,341 @@
+package lv.brick_vision.core;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * @description Runs the RunLab chain (blur, erode, threshold,
+ *              connectedComponents, component statistics) over horizontal
+ *              bands of an image, so peak memory depends on the band height
+ *              instead of the image size. Every band is read with a margin
+ *              of extra rows above and below so the blur and erode results
+ *              on the band rows are exactly those of the full image; the
+ *              margin rows are dropped before thresholding and labeling.
+ *              Components that touch the seam between two bands are merged
+ *              with a union-find over global component ids.
+ *
+ *              Bands are read through ImageIO source regions, which is cheap
+ *              for stripped or tiled formats (TIFF). PNG and JPEG readers
+ *              have to inflate the preceding rows for every band, which costs
+ *              time but not memory.
+ *
+ * @version 1.0 (2026-10-18)
+ *
+ */
+public class TiledProcessor {
+
+	private final int bandHeight;
+	private final int margin;
+
+	private int blurSize = 7;
+	private int erodeSize = 10;
+	private double thresh = 20;
+	private int threshType = Imgproc.THRESH_BINARY_INV;
+
+	// reused per band
+	private final MatConverter converter = new MatConverter();
+	private final ComponentStats bandStats = new ComponentStats();
+	private final Mat work = new Mat();
+	private final Mat binary = new Mat();
+	private final Mat labels = new Mat();
+	private Mat element;
+	private int[] lab = new int[0];
+	private int[] prevRow = new int[0];
+
+	// global components, grown as bands are added
+	private int total;
+	private int[] parent = new int[16];
+	private int[] area = new int[16];
+	private long[] xSum = new long[16];
+	private long[] ySum = new long[16];
+	private int[] minX = new int[16];
+	private int[] minY = new int[16];
+	private int[] maxX = new int[16];
+	private int[] maxY = new int[16];
+
+	/**
+	 * @param bandHeight
+	 *            rows per band, without the margin
+	 * @param margin
+	 *            extra rows read above and below every band; must be at least
+	 *            blurSize / 2 + erodeSize for exact results
+	 */
+	public TiledProcessor(int bandHeight, int margin) {
+		if (bandHeight < 1 || margin < 0) {
+			throw new IllegalArgumentException("bandHeight must be positive and margin not negative");
+		}
+		this.bandHeight = bandHeight;
+		this.margin = margin;
+	}
+
+	/**
+	 * @param blurSize
+	 *            box blur kernel size, 0 to skip blurring (default 7)
+	 */
+	public void setBlurSize(int blurSize) {
+		this.blurSize = blurSize;
+	}
+
+	/**
+	 * @param erodeSize
+	 *            ellipse erosion radius, 0 to skip eroding (default 10)
+	 */
+	public void setErodeSize(int erodeSize) {
+		this.erodeSize = erodeSize;
+		this.element = null;
+	}
+
+	/**
+	 * @param thresh
+	 *            threshold value (default 20)
+	 * @param threshType
+	 *            Imgproc threshold type (default THRESH_BINARY_INV)
+	 */
+	public void setThreshold(double thresh, int threshType) {
+		this.thresh = thresh;
+		this.threshType = threshType;
+	}
+
+	/**
+	 * @return smallest margin that gives the same result as processing the
+	 *         whole image at once
+	 */
+	public int requiredMargin() {
+		return blurSize / 2 + erodeSize;
+	}
+
+	/**
+	 * @param file
+	 *            image file readable by ImageIO
+	 * @return merged statistics, label 0 (background) is left empty
+	 * @throws IOException
+	 *             file is missing or no reader is available
+	 */
+	public ComponentStats process(String file) throws IOException {
+		try (ImageInputStream in = ImageIO.createImageInputStream(new File(file))) {
+			if (in == null) {
+				throw new IOException("Cannot open image " + file);
+			}
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+			if (!readers.hasNext()) {
+				throw new IOException("No image reader for " + file);
+			}
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(in, true, true);
+				int w = reader.getWidth(0);
+				int h = reader.getHeight(0);
+				ImageTypeSpecifier spec = reader.getImageTypes(0).next();
+				// one destination big enough for any band, reused for all of them
+				BufferedImage dest = spec.createBufferedImage(w, Math.min(h, bandHeight + 2 * margin));
+				ImageReadParam param = reader.getDefaultReadParam();
+				param.setDestination(dest);
+
+				reset();
+				for (int y0 = 0; y0 < h; y0 += bandHeight) {
+					int y1 = Math.min(h, y0 + bandHeight);
+					int r0 = Math.max(0, y0 - margin);
+					int r1 = Math.min(h, y1 + margin);
+					param.setSourceRegion(new Rectangle(0, r0, w, r1 - r0));
+					reader.read(0, param);
+					Mat gray = converter.toMat(dest, CvType.CV_8UC1);
+					Mat band = gray.submat(0, r1 - r0, 0, w);
+					processBand(band, y0 - r0, y1 - y0, y0);
+					band.release();
+				}
+			} finally {
+				reader.dispose();
+			}
+		}
+		return result();
+	}
+
+	/**
+	 * @param image
+	 *            already loaded CV_8UC1 image, only band sized copies are made
+	 * @return merged statistics, label 0 (background) is left empty
+	 */
+	public ComponentStats process(Mat image) {
+		int h = image.rows();
+		reset();
+		for (int y0 = 0; y0 < h; y0 += bandHeight) {
+			int y1 = Math.min(h, y0 + bandHeight);
+			int r0 = Math.max(0, y0 - margin);
+			int r1 = Math.min(h, y1 + margin);
+			Mat band = image.submat(r0, r1, 0, image.cols());
+			processBand(band, y0 - r0, y1 - y0, y0);
+			band.release();
+		}
+		return result();
+	}
+
+	private void reset() {
+		total = 0;
+		Arrays.fill(prevRow, 0);
+	}
+
+	/**
+	 * @param band
+	 *            band rows including margins
+	 * @param top
+	 *            first row of the band proper inside band
+	 * @param rows
+	 *            number of rows of the band proper
+	 * @param y0
+	 *            image row of the band proper
+	 */
+	private void processBand(Mat band, int top, int rows, int y0) {
+		int w = band.cols();
+		band.copyTo(work);
+		if (blurSize > 0) {
+			Imgproc.blur(work, work, new Size(blurSize, blurSize));
+		}
+		if (erodeSize > 0) {
+			if (element == null) {
+				element = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE,
+						new Size(2 * erodeSize + 1, 2 * erodeSize + 1));
+			}
+			Imgproc.erode(work, work, element);
+		}
+		Mat core = work.submat(top, top + rows, 0, w);
+		Imgproc.threshold(core, binary, thresh, 255, threshType);
+		core.release();
+
+		int num = Imgproc.connectedComponents(binary, labels, 8, CvType.CV_32S);
+		if (lab.length < w * rows) {
+			lab = new int[w * rows];
+		}
+		labels.get(0, 0, lab);
+		bandStats.compute(lab, w, rows, num);
+
+		// band label l >= 1 becomes global id base + l - 1
+		int base = total;
+		grow(total + num - 1);
+		for (int l = 1; l < num; l++) {
+			int g = base + l - 1;
+			parent[g] = g;
+			area[g] = bandStats.area(l);
+			xSum[g] = bandStats.xSum(l);
+			ySum[g] = bandStats.ySum(l) + (long) y0 * bandStats.area(l);
+			minX[g] = bandStats.minX(l);
+			maxX[g] = bandStats.maxX(l);
+			minY[g] = bandStats.minY(l) + y0;
+			maxY[g] = bandStats.maxY(l) + y0;
+		}
+		total += num - 1;
+
+		// merge with the last row of the previous band, 8-connected
+		if (y0 > 0) {
+			for (int x = 0; x < w; x++) {
+				int l = lab[x];
+				if (l == 0) {
+					continue;
+				}
+				int g = base + l - 1;
+				for (int dx = -1; dx <= 1; dx++) {
+					int px = x + dx;
+					if (px >= 0 && px < w && prevRow[px] != 0) {
+						union(g, prevRow[px] - 1);
+					}
+				}
+			}
+		}
+		if (prevRow.length < w) {
+			prevRow = new int[w];
+		}
+		int last = (rows - 1) * w;
+		for (int x = 0; x < w; x++) {
+			int l = lab[last + x];
+			prevRow[x] = l == 0 ? 0 : base + l;
+		}
+	}
+
+	private void grow(int n) {
+		if (parent.length < n) {
+			int cap = Math.max(n, parent.length * 2);
+			parent = Arrays.copyOf(parent, cap);
+			area = Arrays.copyOf(area, cap);
+			xSum = Arrays.copyOf(xSum, cap);
+			ySum = Arrays.copyOf(ySum, cap);
+			minX = Arrays.copyOf(minX, cap);
+			minY = Arrays.copyOf(minY, cap);
+			maxX = Arrays.copyOf(maxX, cap);
+			maxY = Arrays.copyOf(maxY, cap);
+		}
+	}
+
+	private int find(int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	private void union(int a, int b) {
+		int ra = find(a);
+		int rb = find(b);
+		if (ra == rb) {
+			return;
+		}
+		// keep the older id as root so the merged component lives in the lower slot
+		int root = Math.min(ra, rb);
+		int child = Math.max(ra, rb);
+		parent[child] = root;
+		area[root] += area[child];
+		xSum[root] += xSum[child];
+		ySum[root] += ySum[child];
+		minX[root] = Math.min(minX[root], minX[child]);
+		minY[root] = Math.min(minY[root], minY[child]);
+		maxX[root] = Math.max(maxX[root], maxX[child]);
+		maxY[root] = Math.max(maxY[root], maxY[child]);
+	}
+
+	private ComponentStats result() {
+		// compact roots into labels 1..n, label 0 stays empty for the background
+		int n = 1;
+		for (int g = 0; g < total; g++) {
+			if (find(g) == g) {
+				n++;
+			}
+		}
+		int[] a = new int[n];
+		long[] xs = new long[n];
+		long[] ys = new long[n];
+		int[] x0 = new int[n];
+		int[] yy0 = new int[n];
+		int[] x1 = new int[n];
+		int[] yy1 = new int[n];
+		int k = 1;
+		for (int g = 0; g < total; g++) {
+			if (parent[g] == g) {
+				a[k] = area[g];
+				xs[k] = xSum[g];
+				ys[k] = ySum[g];
+				x0[k] = minX[g];
+				yy0[k] = minY[g];
+				x1[k] = maxX[g];
+				yy1[k] = maxY[g];
+				k++;
+			}
+		}
+		ComponentStats stats = new ComponentStats();
+		stats.load(n, a, xs, ys, x0, yy0, x1, yy1);
+		return stats;
+	}
+}
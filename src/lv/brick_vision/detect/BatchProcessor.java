@@ -0,0 +1,451 @@
+package lv.brick_vision.detect;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import lv.brick_vision.core.ImageDirectorySource;
+
+/**
+ * Headless pip counting and brick detection over many images. Every image is
+ * decoded and detected by one worker of a fixed pool: the pips with the
+ * {@link CircleDetector} and the dice parameters, the bricks as the
+ * rectangles of the {@link RectDetector} with the edge parameters, both on
+ * the same {@link FramePreprocessor}.
+ *
+ * OpenCV runs its own threads inside a call. With one Java worker per core
+ * those would compete for the same cores, so the OpenCV thread count is set
+ * to the cores left per worker while the processor runs, and restored by
+ * {@link #release()}. The setting is process wide, run one processor at a
+ * time.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class BatchProcessor {
+
+	/**
+	 * Detection result of one image.
+	 */
+	public static final class Result {
+
+		private final String file;
+		private final int width;
+		private final int height;
+		private final int pips;
+		private final int bricks;
+		private final long nanos;
+		private final String error;
+
+		Result(String file, int width, int height, int pips, int bricks, long nanos, String error) {
+			this.file = file;
+			this.width = width;
+			this.height = height;
+			this.pips = pips;
+			this.bricks = bricks;
+			this.nanos = nanos;
+			this.error = error;
+		}
+
+		public String file() {
+			return file;
+		}
+
+		public int width() {
+			return width;
+		}
+
+		public int height() {
+			return height;
+		}
+
+		public int pips() {
+			return pips;
+		}
+
+		public int bricks() {
+			return bricks;
+		}
+
+		/**
+		 * @return time to decode and detect the image in nanoseconds
+		 */
+		public long nanos() {
+			return nanos;
+		}
+
+		/**
+		 * @return why the image was not detected, null on success
+		 */
+		public String error() {
+			return error;
+		}
+	}
+
+	/**
+	 * Throughput and latency of a run.
+	 */
+	public static final class Summary {
+
+		private final int images;
+		private final int failed;
+		private final long wallNanos;
+		private final long p50;
+		private final long p99;
+
+		Summary(int images, int failed, long wallNanos, long p50, long p99) {
+			this.images = images;
+			this.failed = failed;
+			this.wallNanos = wallNanos;
+			this.p50 = p50;
+			this.p99 = p99;
+		}
+
+		public int images() {
+			return images;
+		}
+
+		public int failed() {
+			return failed;
+		}
+
+		/**
+		 * @return images per second of wall time
+		 */
+		public double imagesPerSecond() {
+			return wallNanos == 0 ? 0 : images * 1e9 / wallNanos;
+		}
+
+		/**
+		 * @return median time per image in nanoseconds
+		 */
+		public long p50() {
+			return p50;
+		}
+
+		/**
+		 * @return 99th percentile of the time per image in nanoseconds
+		 */
+		public long p99() {
+			return p99;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d images (%d failed) in %.2f s: %.1f images/s, p50 %.1f ms, p99 %.1f ms", images,
+					failed, wallNanos / 1e9, imagesPerSecond(), p50 / 1e6, p99 / 1e6);
+		}
+	}
+
+	// detectors and buffers of one pool thread
+	private static final class Worker {
+		final FramePreprocessor pre = new FramePreprocessor();
+		final CircleDetector circles = new CircleDetector();
+		final RectDetector rects = new RectDetector();
+	}
+
+	private final ExecutorService pool;
+	private final List<Worker> allWorkers = new ArrayList<>();
+	private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(this::newWorker);
+	private final int threads;
+	private final int previousOpenCvThreads;
+	private DetectorParams diceParams = DetectorParams.DICE_DEFAULTS;
+	private DetectorParams brickParams = DetectorParams.EDGE_DEFAULTS;
+	private int workingWidth;
+	private int workingHeight;
+	private long lastWallNanos;
+
+	/**
+	 * @param threads
+	 *            Java workers; OpenCV gets the remaining cores per worker
+	 */
+	public BatchProcessor(int threads) {
+		this.threads = threads;
+		this.pool = Executors.newFixedThreadPool(threads);
+		this.previousOpenCvThreads = Core.getNumThreads();
+		Core.setNumThreads(openCvThreads(threads, Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * One worker per core, OpenCV single threaded.
+	 */
+	public BatchProcessor() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param threads
+	 *            Java workers
+	 * @param cores
+	 *            available cores
+	 * @return OpenCV threads per call that keep the cores busy without
+	 *         oversubscribing them, at least 1
+	 */
+	static int openCvThreads(int threads, int cores) {
+		return Math.max(1, cores / Math.max(1, threads));
+	}
+
+	public int threads() {
+		return threads;
+	}
+
+	/**
+	 * @param dice
+	 *            parameters of the pip detection
+	 * @param bricks
+	 *            parameters of the brick detection
+	 */
+	public void setParams(DetectorParams dice, DetectorParams bricks) {
+		this.diceParams = dice;
+		this.brickParams = bricks;
+	}
+
+	/**
+	 * Images larger than the working size in both directions are shrunk with
+	 * {@link ParameterTuner#fit} before the detection, as the video
+	 * applications do, so radii tuned with their sliders hold here too.
+	 *
+	 * @param width
+	 *            working width, 0 keeps the size of the images
+	 * @param height
+	 *            working height
+	 */
+	public void setWorkingSize(int width, int height) {
+		this.workingWidth = width;
+		this.workingHeight = height;
+	}
+
+	/**
+	 * @param inputs
+	 *            image files, directories (their images in name order) or
+	 *            glob patterns such as "scans/*.png" or "scans/**.jpg"
+	 * @return image files in input order
+	 * @throws IOException
+	 *             an input does not exist or can not be listed
+	 */
+	public static List<File> collect(List<String> inputs) throws IOException {
+		List<File> files = new ArrayList<>();
+		for (String input : inputs) {
+			if (input.matches(".*[*?\\[{].*")) {
+				files.addAll(glob(input));
+				continue;
+			}
+			File file = new File(input);
+			if (file.isDirectory()) {
+				files.addAll(Arrays.asList(ImageDirectorySource.list(file)));
+			} else if (file.isFile()) {
+				files.add(file);
+			} else {
+				throw new IOException("No such file or directory: " + input);
+			}
+		}
+		return files;
+	}
+
+	private static List<File> glob(String pattern) throws IOException {
+		// walk from the deepest directory without wildcards
+		String[] parts = pattern.split("[/\\\\]");
+		StringBuilder base = new StringBuilder();
+		for (int i = 0; i < parts.length - 1 && !parts[i].matches(".*[*?\\[{].*"); i++) {
+			base.append(parts[i]).append(File.separator);
+		}
+		Path root = Paths.get(base.length() == 0 ? "." : base.toString());
+		PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+		List<File> files = new ArrayList<>();
+		if (!Files.isDirectory(root)) {
+			return files;
+		}
+		try (Stream<Path> walk = Files.walk(root)) {
+			walk.filter(Files::isRegularFile).map(p -> base.length() == 0 ? root.relativize(p) : p)
+					.filter(matcher::matches).sorted().forEach(p -> files.add(p.toFile()));
+		}
+		return files;
+	}
+
+	/**
+	 * @param files
+	 *            images to detect
+	 * @return one result per file in the same order, failed images with
+	 *         their error
+	 * @throws InterruptedException
+	 *             when interrupted while waiting for the workers
+	 */
+	public List<Result> process(List<File> files) throws InterruptedException {
+		List<Callable<Result>> tasks = new ArrayList<>(files.size());
+		for (File file : files) {
+			tasks.add(() -> detect(file));
+		}
+		long start = System.nanoTime();
+		List<Result> results = new ArrayList<>(files.size());
+		for (Future<Result> f : pool.invokeAll(tasks)) {
+			try {
+				results.add(f.get());
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Detection failed", e.getCause());
+			}
+		}
+		lastWallNanos = System.nanoTime() - start;
+		return results;
+	}
+
+	/**
+	 * @param results
+	 *            results of the last {@link #process(List)}
+	 * @return throughput over the wall time of that run and latency
+	 *         percentiles of the images
+	 */
+	public Summary summarize(List<Result> results) {
+		long[] nanos = new long[results.size()];
+		int failed = 0;
+		for (int i = 0; i < nanos.length; i++) {
+			nanos[i] = results.get(i).nanos();
+			if (results.get(i).error() != null) {
+				failed++;
+			}
+		}
+		Arrays.sort(nanos);
+		return new Summary(nanos.length, failed, lastWallNanos, percentile(nanos, 50), percentile(nanos, 99));
+	}
+
+	/**
+	 * @param sorted
+	 *            values in ascending order
+	 * @param p
+	 *            percentile, 0 to 100
+	 * @return nearest rank percentile, 0 for no values
+	 */
+	static long percentile(long[] sorted, double p) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(p / 100 * sorted.length);
+		return sorted[Math.min(sorted.length, Math.max(1, rank)) - 1];
+	}
+
+	private Result detect(File file) {
+		long start = System.nanoTime();
+		String name = file.getPath();
+		Mat frame = Imgcodecs.imread(file.getAbsolutePath());
+		try {
+			if (frame.empty()) {
+				return new Result(name, 0, 0, 0, 0, System.nanoTime() - start, "cannot read image");
+			}
+			if (workingWidth > 0) {
+				ParameterTuner.fit(frame, workingWidth, workingHeight);
+			}
+			Worker w = workers.get();
+			w.pre.reset(frame);
+			int pips = w.circles.detect(w.pre, diceParams).circles().size();
+			int bricks = 0;
+			for (DetectedShape shape : w.rects.detect(w.pre, brickParams).shapes()) {
+				if (shape.kind() == DetectedShape.Kind.RECTANGLE) {
+					bricks++;
+				}
+			}
+			return new Result(name, frame.width(), frame.height(), pips, bricks, System.nanoTime() - start, null);
+		} catch (RuntimeException e) {
+			return new Result(name, frame.width(), frame.height(), 0, 0, System.nanoTime() - start, e.toString());
+		} finally {
+			frame.release();
+		}
+	}
+
+	private Worker newWorker() {
+		Worker w = new Worker();
+		synchronized (allWorkers) {
+			allWorkers.add(w);
+		}
+		return w;
+	}
+
+	/**
+	 * @param results
+	 *            results to write
+	 * @param out
+	 *            CSV with a header line, one line per image
+	 */
+	public static void writeCsv(List<Result> results, PrintWriter out) {
+		out.println("file,width,height,pips,bricks,ms,error");
+		for (Result r : results) {
+			out.println(csv(r.file()) + "," + r.width() + "," + r.height() + "," + r.pips() + "," + r.bricks() + ","
+					+ String.format("%.3f", r.nanos() / 1e6) + "," + (r.error() == null ? "" : csv(r.error())));
+		}
+		out.flush();
+	}
+
+	/**
+	 * @param results
+	 *            results to write
+	 * @param out
+	 *            JSON array with one object per image
+	 */
+	public static void writeJson(List<Result> results, PrintWriter out) {
+		out.println("[");
+		for (int i = 0; i < results.size(); i++) {
+			Result r = results.get(i);
+			out.print("  {\"file\": " + json(r.file()) + ", \"width\": " + r.width() + ", \"height\": " + r.height()
+					+ ", \"pips\": " + r.pips() + ", \"bricks\": " + r.bricks() + ", \"ms\": "
+					+ String.format("%.3f", r.nanos() / 1e6) + ", \"error\": "
+					+ (r.error() == null ? "null" : json(r.error())) + "}");
+			out.println(i < results.size() - 1 ? "," : "");
+		}
+		out.println("]");
+		out.flush();
+	}
+
+	private static String csv(String value) {
+		if (value.matches("[^,\"\r\n]*")) {
+			return value;
+		}
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+	private static String json(String value) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+
+	/**
+	 * Stop the workers, release their buffers and restore the OpenCV thread
+	 * count.
+	 */
+	public void release() {
+		pool.shutdownNow();
+		synchronized (allWorkers) {
+			for (Worker w : allWorkers) {
+				w.pre.release();
+			}
+			allWorkers.clear();
+		}
+		Core.setNumThreads(previousOpenCvThreads);
+	}
+}
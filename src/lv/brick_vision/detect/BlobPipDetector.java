@@ -0,0 +1,100 @@
+package lv.brick_vision.detect;
+
+import java.util.Collections;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Range;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Finds pips as round dark blobs: the blurred gray frame is thresholded
+ * against the mean of a neighborhood twice the largest pip diameter, the
+ * dark parts are labeled with connectedComponentsWithStats, and
+ * every component whose area fits the radius range, whose bounding box is
+ * roughly square and which fills about the circle around it counts as a
+ * pip. Components are read in bulk like {@link lv.brick_vision.core.ComponentStats},
+ * so the cost is one threshold and one labeling pass, independent of the
+ * Hough parameters.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class BlobPipDetector implements PipDetector {
+
+	// component area relative to the circle around its bounding box; a disc
+	// is about 1, a filled square 1.27
+	private static final double MIN_FILL = 0.6;
+	private static final double MAX_FILL = 1.15;
+	// largest bounding box side ratio of a round blob
+	private static final double MAX_ASPECT = 1.5;
+
+	@Override
+	public DetectionResult detect(Mat frame, DetectorParams params) {
+		FramePreprocessor pre = new FramePreprocessor().reset(frame);
+		try {
+			DetectionResult result = detect(pre, params);
+			// keep the preview alive after the preprocessor is released
+			return new DetectionResult(result.circles(), result.shapes(), new Mat(result.preview(), Range.all()),
+					result.nanos());
+		} finally {
+			pre.release();
+		}
+	}
+
+	/**
+	 * @param pre
+	 *            preprocessor reset to the frame, shared with other detectors
+	 * @param params
+	 *            parameter snapshot, only the radii are used
+	 * @return circles found; the preview is the dark mask, owned by the
+	 *         preprocessor and valid until its next reset
+	 */
+	@Override
+	public DetectionResult detect(FramePreprocessor pre, DetectorParams params) {
+		long start = System.nanoTime();
+		// a pip covers about a fifth of its neighborhood, the mean stays
+		// close to the die face around it
+		Mat mask = pre.darkMask(4 * (int) Math.ceil(params.maxRadius()) + 1);
+		Mat labels = new Mat();
+		Mat stats = new Mat();
+		Mat centroids = new Mat();
+		int n = Imgproc.connectedComponentsWithStats(mask, labels, stats, centroids, 8, CvType.CV_32S);
+
+		// one bulk read of all statistics
+		int[] s = new int[n * 5];
+		double[] c = new double[n * 2];
+		stats.get(0, 0, s);
+		centroids.get(0, 0, c);
+		labels.release();
+		stats.release();
+		centroids.release();
+
+		double minArea = Math.PI * params.minRadius() * params.minRadius();
+		double maxArea = Math.PI * params.maxRadius() * params.maxRadius();
+		CircleList found = new CircleList();
+		// label 0 is the background
+		for (int l = 1; l < n; l++) {
+			int w = s[l * 5 + Imgproc.CC_STAT_WIDTH];
+			int h = s[l * 5 + Imgproc.CC_STAT_HEIGHT];
+			int area = s[l * 5 + Imgproc.CC_STAT_AREA];
+			if (area < minArea || area > maxArea || w > MAX_ASPECT * h || h > MAX_ASPECT * w) {
+				continue;
+			}
+			int d = Math.max(w, h);
+			double fill = area / (Math.PI * d * d / 4);
+			if (fill < MIN_FILL || fill > MAX_FILL) {
+				continue;
+			}
+			// a perfect disc fills its circle exactly
+			found.add(c[2 * l], c[2 * l + 1], Math.sqrt(area / Math.PI), 1 - Math.abs(1 - fill));
+		}
+		return new DetectionResult(found, Collections.<DetectedShape> emptyList(), mask, System.nanoTime() - start);
+	}
+
+	@Override
+	public String toString() {
+		return "Blob";
+	}
+}
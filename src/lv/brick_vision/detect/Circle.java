@@ -0,0 +1,33 @@
+package lv.brick_vision.detect;
+
+/**
+ * A circle found by the circle detector (a pip on a die).
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public final class Circle {
+
+	private final double x;
+	private final double y;
+	private final double r;
+
+	public Circle(double x, double y, double r) {
+		this.x = x;
+		this.y = y;
+		this.r = r;
+	}
+
+	public double x() {
+		return x;
+	}
+
+	public double y() {
+		return y;
+	}
+
+	public double r() {
+		return r;
+	}
+}
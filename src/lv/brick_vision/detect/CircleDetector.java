@@ -0,0 +1,100 @@
+package lv.brick_vision.detect;
+
+import java.util.Collections;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Range;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Hough engine of the {@link PipDetector}: finds circles (dice pips) in a
+ * frame with gray conversion, median blur, Canny
+ * edges, dilation and Hough circle transform. The preprocessing comes from a
+ * {@link FramePreprocessor}, which can be shared with other detectors.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class CircleDetector implements PipDetector {
+
+	// Canny thresholds used for the pip edges
+	public static final double CANNY_LOW = 240;
+	public static final double CANNY_HIGH = 255;
+
+	/**
+	 * @param frame
+	 *            BGR or gray frame, not modified
+	 * @param params
+	 *            parameter snapshot
+	 * @return circles found; the preview is the dilated edge image, owned by
+	 *         the caller
+	 */
+	@Override
+	public DetectionResult detect(Mat frame, DetectorParams params) {
+		FramePreprocessor pre = new FramePreprocessor().reset(frame);
+		try {
+			DetectionResult result = detect(pre, params);
+			// keep the preview alive after the preprocessor is released
+			return new DetectionResult(result.circles(), result.shapes(), new Mat(result.preview(), Range.all()),
+					result.nanos());
+		} finally {
+			pre.release();
+		}
+	}
+
+	/**
+	 * @param pre
+	 *            preprocessor reset to the frame, shared with other detectors
+	 * @param params
+	 *            parameter snapshot
+	 * @return circles found; the preview is the dilated edge image, owned by
+	 *         the preprocessor and valid until its next reset
+	 */
+	@Override
+	public DetectionResult detect(FramePreprocessor pre, DetectorParams params) {
+		long start = System.nanoTime();
+		Mat morph = pre.morph(CANNY_LOW, CANNY_HIGH, params);
+		CircleList found = hough(morph, params);
+		return new DetectionResult(found, Collections.<DetectedShape> emptyList(), morph, System.nanoTime() - start);
+	}
+
+	/**
+	 * @param morph
+	 *            dilated edge image, only read
+	 * @param params
+	 *            parameter snapshot, dilate and erode are not used
+	 * @return circles found by the Hough transform, in a new list: the
+	 *         detector is shared between threads and the caller owns the
+	 *         result
+	 */
+	static CircleList hough(Mat morph, DetectorParams params) {
+		return hough(morph, params, new CircleList());
+	}
+
+	/**
+	 * @param morph
+	 *            dilated edge image, only read
+	 * @param params
+	 *            parameter snapshot, dilate and erode are not used
+	 * @param found
+	 *            list cleared and filled with the circles, reused by callers
+	 *            that keep one per thread
+	 * @return found
+	 */
+	static CircleList hough(Mat morph, DetectorParams params, CircleList found) {
+		Mat circles = new Mat();
+		Imgproc.HoughCircles(morph, circles, Imgproc.CV_HOUGH_GRADIENT, params.dp(), params.minDist(), 255,
+				params.accumulator(), (int) params.minRadius(), (int) params.maxRadius());
+		// coordinates of circle center and circle radius
+		found.clear();
+		found.readHough(circles);
+		circles.release();
+		return found;
+	}
+
+	@Override
+	public String toString() {
+		return "Hough";
+	}
+}
@@ -0,0 +1,193 @@
+package lv.brick_vision.detect;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+/**
+ * Compact list of circles backed by primitive arrays (x, y, r, score). The
+ * Hough output of a frame is read with one bulk get, and the overlay, the
+ * counting and the tracker read the primitive accessors without going back
+ * through JNI. {@link #get(int)} creates a {@link Circle} on demand, so the
+ * list can be passed wherever a list of circles is expected.
+ *
+ * The arrays only grow, so a list that is cleared and refilled every frame
+ * allocates nothing once it has reached the largest circle count. A list
+ * returned in a {@link DetectionResult} must not be modified.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public final class CircleList extends AbstractList<Circle> {
+
+	private float[] x;
+	private float[] y;
+	private float[] r;
+	private float[] score;
+	private int size;
+	// reused by readHough
+	private float[] buffer = new float[0];
+
+	public CircleList() {
+		this(16);
+	}
+
+	/**
+	 * @param capacity
+	 *            initial number of circles
+	 */
+	public CircleList(int capacity) {
+		x = new float[capacity];
+		y = new float[capacity];
+		r = new float[capacity];
+		score = new float[capacity];
+	}
+
+	/**
+	 * @param circles
+	 *            any list of circles
+	 * @return the list itself if it is a CircleList, a new CircleList of the
+	 *         same circles otherwise; use {@link #copy()} for a list that
+	 *         must outlive its source
+	 */
+	public static CircleList of(List<Circle> circles) {
+		if (circles instanceof CircleList) {
+			return (CircleList) circles;
+		}
+		CircleList list = new CircleList(circles.size());
+		for (Circle c : circles) {
+			list.add(c.x(), c.y(), c.r(), 1);
+		}
+		return list;
+	}
+
+	/**
+	 * @return new list of the same circles, not changed by a later clear of
+	 *         this one
+	 */
+	public CircleList copy() {
+		CircleList list = new CircleList(size);
+		System.arraycopy(x, 0, list.x, 0, size);
+		System.arraycopy(y, 0, list.y, 0, size);
+		System.arraycopy(r, 0, list.r, 0, size);
+		System.arraycopy(score, 0, list.score, 0, size);
+		list.size = size;
+		return list;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	public float x(int i) {
+		return x[i];
+	}
+
+	public float y(int i) {
+		return y[i];
+	}
+
+	public float r(int i) {
+		return r[i];
+	}
+
+	/**
+	 * @return detector confidence in [0, 1]; 1 for detectors that do not rate
+	 *         their circles (Hough)
+	 */
+	public float score(int i) {
+		return score[i];
+	}
+
+	@Override
+	public Circle get(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", size: " + size);
+		}
+		return new Circle(x[i], y[i], r[i]);
+	}
+
+	@Override
+	public boolean add(Circle c) {
+		add(c.x(), c.y(), c.r(), 1);
+		return true;
+	}
+
+	public void add(double cx, double cy, double cr, double confidence) {
+		if (size == x.length) {
+			int capacity = Math.max(16, size * 2);
+			x = Arrays.copyOf(x, capacity);
+			y = Arrays.copyOf(y, capacity);
+			r = Arrays.copyOf(r, capacity);
+			score = Arrays.copyOf(score, capacity);
+		}
+		x[size] = (float) cx;
+		y[size] = (float) cy;
+		r[size] = (float) cr;
+		score[size] = (float) confidence;
+		size++;
+		modCount++;
+	}
+
+	/**
+	 * @param i
+	 *            index of the circle to copy from list
+	 */
+	public void add(CircleList list, int i) {
+		add(list.x[i], list.y[i], list.r[i], list.score[i]);
+	}
+
+	@Override
+	public void clear() {
+		size = 0;
+		modCount++;
+	}
+
+	/**
+	 * Append the output of HoughCircles with one bulk get. The radius is
+	 * truncated to whole pixels.
+	 *
+	 * @param circles
+	 *            1xN CV_32FC3 mat of x, y, r; may be empty
+	 * @return this
+	 */
+	public CircleList readHough(Mat circles) {
+		int n = (int) circles.total();
+		if (n == 0) {
+			return this;
+		}
+		if (circles.type() != CvType.CV_32FC3) {
+			throw new IllegalArgumentException("Hough output must be CV_32FC3, got " + CvType.typeToString(circles.type()));
+		}
+		if (buffer.length < n * 3) {
+			buffer = new float[n * 3];
+		}
+		circles.get(0, 0, buffer);
+		for (int i = 0; i < n; i++) {
+			add(buffer[3 * i], buffer[3 * i + 1], (int) buffer[3 * i + 2], 1);
+		}
+		return this;
+	}
+
+	/**
+	 * Move the circles from index from to the end.
+	 *
+	 * @param from
+	 *            first circle to move
+	 * @param dx
+	 *            added to x
+	 * @param dy
+	 *            added to y
+	 */
+	public void translate(int from, double dx, double dy) {
+		for (int i = from; i < size; i++) {
+			x[i] += dx;
+			y[i] += dy;
+		}
+	}
+}
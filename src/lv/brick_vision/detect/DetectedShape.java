@@ -0,0 +1,45 @@
+package lv.brick_vision.detect;
+
+import org.opencv.core.Point;
+
+/**
+ * A polygon found by the rectangle detector: a triangle, a rectangle (die
+ * face or brick) or a five/six sided polygon.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public final class DetectedShape {
+
+	public enum Kind {
+		TRIANGLE, RECTANGLE, POLYGON
+	}
+
+	private final Kind kind;
+	private final Point[] corners;
+
+	public DetectedShape(Kind kind, Point[] corners) {
+		this.kind = kind;
+		this.corners = corners.clone();
+	}
+
+	public Kind kind() {
+		return kind;
+	}
+
+	/**
+	 * @return copy of the approximated polygon corners
+	 */
+	public Point[] corners() {
+		return corners.clone();
+	}
+
+	public int cornerCount() {
+		return corners.length;
+	}
+
+	public Point corner(int i) {
+		return corners[i];
+	}
+}
@@ -0,0 +1,56 @@
+package lv.brick_vision.detect;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.opencv.core.Mat;
+
+/**
+ * Result of one detection run: the circles and shapes found, the
+ * preprocessed image the detector worked on (for the "canny" preview) and
+ * the time the run took.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public final class DetectionResult {
+
+	private final CircleList circles;
+	private final List<DetectedShape> shapes;
+	private final Mat preview;
+	private final long nanos;
+
+	public DetectionResult(CircleList circles, List<DetectedShape> shapes, Mat preview, long nanos) {
+		this.circles = circles;
+		this.shapes = Collections.unmodifiableList(shapes);
+		this.preview = preview;
+		this.nanos = nanos;
+	}
+
+	/**
+	 * @return circles found, read only
+	 */
+	public CircleList circles() {
+		return circles;
+	}
+
+	public List<DetectedShape> shapes() {
+		return shapes;
+	}
+
+	/**
+	 * @return morphology output the circles were searched in, owned by the
+	 *         caller; may be null
+	 */
+	public Mat preview() {
+		return preview;
+	}
+
+	/**
+	 * @return detection time in nanoseconds
+	 */
+	public long nanos() {
+		return nanos;
+	}
+}
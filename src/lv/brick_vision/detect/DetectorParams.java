@@ -0,0 +1,116 @@
+package lv.brick_vision.detect;
+
+/**
+ * Immutable snapshot of the detection parameters that the GUI sliders
+ * control. The controllers publish a new snapshot whenever a slider moves, so
+ * any number of worker threads can run detections with a consistent set of
+ * values.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public final class DetectorParams {
+
+	/** Default slider values of the dice application. */
+	public static final DetectorParams DICE_DEFAULTS = new DetectorParams(1.6, 25, 22, 8, 20, 4, 1);
+	/** Default slider values of the edge (dice and bricks) application. */
+	public static final DetectorParams EDGE_DEFAULTS = new DetectorParams(1.59, 18, 21, 8, 20, 6, 1);
+
+	private final double dp;
+	private final double minDist;
+	private final double accumulator;
+	private final double minRadius;
+	private final double maxRadius;
+	private final double dilate;
+	private final double erode;
+
+	/**
+	 * @param dp
+	 *            inverse ratio of the accumulator resolution to the image
+	 *            resolution
+	 * @param minDist
+	 *            min distance between circle centers
+	 * @param accumulator
+	 *            threshold for the circle centers at the detection stage
+	 * @param minRadius
+	 *            min circle radius
+	 * @param maxRadius
+	 *            max circle radius
+	 * @param dilate
+	 *            dilate element size
+	 * @param erode
+	 *            erode element size
+	 */
+	public DetectorParams(double dp, double minDist, double accumulator, double minRadius, double maxRadius,
+			double dilate, double erode) {
+		this.dp = dp;
+		this.minDist = minDist;
+		this.accumulator = accumulator;
+		this.minRadius = minRadius;
+		this.maxRadius = maxRadius;
+		this.dilate = dilate;
+		this.erode = erode;
+	}
+
+	public double dp() {
+		return dp;
+	}
+
+	public double minDist() {
+		return minDist;
+	}
+
+	public double accumulator() {
+		return accumulator;
+	}
+
+	public double minRadius() {
+		return minRadius;
+	}
+
+	public double maxRadius() {
+		return maxRadius;
+	}
+
+	public double dilate() {
+		return dilate;
+	}
+
+	public double erode() {
+		return erode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof DetectorParams)) {
+			return false;
+		}
+		DetectorParams o = (DetectorParams) obj;
+		return dp == o.dp && minDist == o.minDist && accumulator == o.accumulator && minRadius == o.minRadius
+				&& maxRadius == o.maxRadius && dilate == o.dilate && erode == o.erode;
+	}
+
+	@Override
+	public int hashCode() {
+		long h = Double.doubleToLongBits(dp);
+		h = 31 * h + Double.doubleToLongBits(minDist);
+		h = 31 * h + Double.doubleToLongBits(accumulator);
+		h = 31 * h + Double.doubleToLongBits(minRadius);
+		h = 31 * h + Double.doubleToLongBits(maxRadius);
+		h = 31 * h + Double.doubleToLongBits(dilate);
+		h = 31 * h + Double.doubleToLongBits(erode);
+		return (int) (h ^ (h >>> 32));
+	}
+
+	@Override
+	public String toString() {
+		return "dp: " + String.format("%.1f", dp) + "\tmin Dist: " + String.format("%.1f", minDist) + "\tdilate: "
+				+ String.format("%.0f", dilate) + "\terode: " + String.format("%.0f", erode) + "\taccumulator: "
+				+ String.format("%.1f", accumulator) + "\tmin Radius: " + String.format("%.1f", minRadius)
+				+ "\tmax Radius: " + String.format("%.1f", maxRadius);
+	}
+}
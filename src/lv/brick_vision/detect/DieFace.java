@@ -0,0 +1,49 @@
+package lv.brick_vision.detect;
+
+import org.opencv.core.Rect;
+
+/**
+ * A die face (or brick top) found by the region detector together with the
+ * pips found inside it. Pip coordinates are frame coordinates.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public final class DieFace {
+
+	private final DetectedShape shape;
+	private final Rect region;
+	private final CircleList pips;
+
+	public DieFace(DetectedShape shape, Rect region, CircleList pips) {
+		this.shape = shape;
+		this.region = region;
+		this.pips = pips;
+	}
+
+	/**
+	 * @return outline of the face
+	 */
+	public DetectedShape shape() {
+		return shape;
+	}
+
+	/**
+	 * @return part of the frame searched for pips
+	 */
+	public Rect region() {
+		return region.clone();
+	}
+
+	/**
+	 * @return pips in frame coordinates, read only
+	 */
+	public CircleList pips() {
+		return pips;
+	}
+
+	public int pipCount() {
+		return pips.size();
+	}
+}
@@ -0,0 +1,218 @@
+package lv.brick_vision.detect;
+
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Per-frame cache of the preprocessing products the detectors work on: gray
+ * image, median blurred image, adaptive dark mask, Canny edges and
+ * eroded/dilated edges. A product is
+ * computed the first time a detector asks for it and reused by every other
+ * detector working on the same frame, so running the circle and rectangle
+ * detectors on one frame converts and blurs it only once.
+ *
+ * Call {@link #reset(Mat)} for every new frame; the Mats are kept and
+ * reused between frames. An instance is not thread-safe, use one per thread.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class FramePreprocessor {
+
+	// edge products kept per frame, one per Canny threshold pair
+	private static final int MAX_EDGES = 4;
+	// gray levels a pixel must be below the mean of its neighborhood to be
+	// dark
+	private static final double DARK_OFFSET = 10;
+
+	private Mat frame;
+	private final Mat gray = new Mat();
+	private final Mat blurred = new Mat();
+	private boolean hasGray;
+	private boolean hasBlurred;
+
+	private final Mat darkMask = new Mat();
+	private int darkBlock;
+	private boolean hasDarkMask;
+
+	private final Edges[] edges = new Edges[MAX_EDGES];
+	private int edgeCount;
+
+	private final MorphologyStage morphology = new MorphologyStage();
+
+	private static final class Edges {
+		double low;
+		double high;
+		final Mat edges = new Mat();
+		boolean hasEdges;
+		double dilate;
+		double erode;
+		final Mat morph = new Mat();
+		boolean hasMorph;
+	}
+
+	/**
+	 * @param frame
+	 *            new BGR or gray frame, not modified
+	 * @return this
+	 */
+	public FramePreprocessor reset(Mat frame) {
+		this.frame = frame;
+		hasGray = false;
+		hasBlurred = false;
+		hasDarkMask = false;
+		for (int i = 0; i < edgeCount; i++) {
+			edges[i].hasEdges = false;
+			edges[i].hasMorph = false;
+		}
+		return this;
+	}
+
+	/**
+	 * @return current frame
+	 */
+	public Mat frame() {
+		return frame;
+	}
+
+	/**
+	 * @return 8-bit single-channel frame
+	 */
+	public Mat gray() {
+		if (!hasGray) {
+			if (frame.channels() == 3) {
+				Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGR2GRAY);
+			} else if (frame.channels() == 4) {
+				Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGRA2GRAY);
+			} else {
+				frame.copyTo(gray);
+			}
+			hasGray = true;
+		}
+		return gray;
+	}
+
+	/**
+	 * @return gray frame after a 3x3 median blur
+	 */
+	public Mat blurred() {
+		if (!hasBlurred) {
+			Imgproc.medianBlur(gray(), blurred, 3);
+			hasBlurred = true;
+		}
+		return blurred;
+	}
+
+	/**
+	 * Adaptive threshold: every pixel is compared with the mean of its own
+	 * neighborhood instead of one threshold for the whole frame, so unevenly
+	 * lit dice and dark backgrounds do not move it, and a window of the
+	 * frame gets the same mask as the whole frame.
+	 *
+	 * @param blockSize
+	 *            odd side of the neighborhood, larger than a pip
+	 * @return blurred frame with the pixels clearly darker than their
+	 *         neighborhood (pips on a light die) at 255
+	 */
+	public Mat darkMask(int blockSize) {
+		if (!hasDarkMask || darkBlock != blockSize) {
+			Imgproc.adaptiveThreshold(blurred(), darkMask, 255, Imgproc.ADAPTIVE_THRESH_MEAN_C,
+					Imgproc.THRESH_BINARY_INV, blockSize, DARK_OFFSET);
+			darkBlock = blockSize;
+			hasDarkMask = true;
+		}
+		return darkMask;
+	}
+
+	/**
+	 * @param low
+	 *            first Canny threshold
+	 * @param high
+	 *            second Canny threshold
+	 * @return Canny edges of the blurred frame
+	 */
+	public Mat edges(double low, double high) {
+		Edges e = entry(low, high);
+		if (!e.hasEdges) {
+			Imgproc.Canny(blurred(), e.edges, low, high);
+			e.hasEdges = true;
+		}
+		return e.edges;
+	}
+
+	/**
+	 * @param low
+	 *            first Canny threshold
+	 * @param high
+	 *            second Canny threshold
+	 * @param params
+	 *            parameter snapshot, the erode and dilate sizes are used
+	 * @return Canny edges dilated and then eroded with elliptic elements
+	 */
+	public Mat morph(double low, double high, DetectorParams params) {
+		Edges e = entry(low, high);
+		if (!e.hasMorph || e.dilate != params.dilate() || e.erode != params.erode()) {
+			morphology.apply(edges(low, high), e.morph, params);
+			e.dilate = params.dilate();
+			e.erode = params.erode();
+			e.hasMorph = true;
+		}
+		return e.morph;
+	}
+
+	/**
+	 * @return morphology stage used by {@link #morph}, for its iterations and
+	 *         timings
+	 */
+	public MorphologyStage morphology() {
+		return morphology;
+	}
+
+	/**
+	 * Release all native memory, the instance can still be reset and used
+	 * afterwards.
+	 */
+	public void release() {
+		gray.release();
+		blurred.release();
+		darkMask.release();
+		for (int i = 0; i < edgeCount; i++) {
+			edges[i].edges.release();
+			edges[i].morph.release();
+		}
+		edgeCount = 0;
+		morphology.release();
+		frame = null;
+		hasGray = false;
+		hasBlurred = false;
+		hasDarkMask = false;
+	}
+
+	private Edges entry(double low, double high) {
+		Edges free = null;
+		for (int i = 0; i < edgeCount; i++) {
+			Edges e = edges[i];
+			if (e.low == low && e.high == high) {
+				return e;
+			}
+			if (free == null && !e.hasEdges) {
+				free = e;
+			}
+		}
+		if (free == null) {
+			if (edgeCount < MAX_EDGES) {
+				free = new Edges();
+				edges[edgeCount++] = free;
+			} else {
+				// every slot is used for this frame, recompute in the last one
+				free = edges[MAX_EDGES - 1];
+			}
+		}
+		free.low = low;
+		free.high = high;
+		free.hasEdges = false;
+		free.hasMorph = false;
+		return free;
+	}
+}
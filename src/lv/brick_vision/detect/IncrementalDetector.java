@@ -0,0 +1,280 @@
+package lv.brick_vision.detect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.imgproc.Imgproc;
+
+import lv.brick_vision.core.TileDiff;
+
+/**
+ * Change driven detection for mostly static camera scenes. Every frame is
+ * compared tile by tile with the last processed one ({@link TileDiff}); a
+ * frame without changed tiles is not processed at all and the last result
+ * is returned. Otherwise the changed tiles are grouped, and circles are only
+ * searched in every group plus a margin of one pip; circles outside the
+ * changed areas are kept from the last result. Shapes span many tiles, they
+ * are detected on the whole frame whenever anything changed.
+ *
+ * Changing the parameters, the pip detector or the frame size forces a full detection. An
+ * instance keeps the last result and is not thread-safe, use one per camera.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class IncrementalDetector {
+
+	// above this share of changed area a full detection is cheaper
+	private static final double FULL_FRAME_SHARE = 0.6;
+
+	private final RectDetector rectDetector = new RectDetector();
+	private final FramePreprocessor preprocessor = new FramePreprocessor();
+	private final TileDiff diff;
+	private final boolean shapes;
+
+	private PipDetector pipDetector = new CircleDetector();
+	private Mat gray;
+	private byte[] pixels = new byte[0];
+	private DetectorParams lastParams;
+	// the result of the last frame and the list the next result is filled
+	// into; they are swapped after every detected frame
+	private CircleList circles = new CircleList();
+	private CircleList spare = new CircleList();
+	private List<DetectedShape> lastShapes = Collections.emptyList();
+	private boolean skipped;
+	private int regions;
+
+	/**
+	 * @param tileSize
+	 *            tile width and height in pixels
+	 * @param shapes
+	 *            detect shapes as well as circles
+	 */
+	public IncrementalDetector(int tileSize, boolean shapes) {
+		this.diff = new TileDiff(tileSize);
+		this.shapes = shapes;
+	}
+
+	/**
+	 * @param pixelThreshold
+	 *            gray difference a pixel must exceed to count as changed
+	 * @param minChanged
+	 *            changed pixels a tile must exceed to be re-detected
+	 */
+	public void setThresholds(int pixelThreshold, int minChanged) {
+		diff.setThresholds(pixelThreshold, minChanged);
+	}
+
+	/**
+	 * @param pipDetector
+	 *            engine used for the circles, Hough by default; a different
+	 *            engine forces a full detection of the next frame
+	 */
+	public void setPipDetector(PipDetector pipDetector) {
+		if (pipDetector != this.pipDetector) {
+			this.pipDetector = pipDetector;
+			reset();
+		}
+	}
+
+	/**
+	 * Forget the last result, the next frame is detected completely.
+	 */
+	public void reset() {
+		diff.reset();
+		lastParams = null;
+	}
+
+	/**
+	 * @param frame
+	 *            BGR or gray frame, not modified
+	 * @param params
+	 *            parameter snapshot
+	 * @return circles and shapes of the whole frame; the circle list is
+	 *         owned by this detector and valid until the next call, the
+	 *         preview is the one of the pip detector, owned by this detector,
+	 *         when the whole frame was detected, null otherwise
+	 */
+	public DetectionResult detect(Mat frame, DetectorParams params) {
+		long start = System.nanoTime();
+		if (gray == null) {
+			gray = new Mat();
+		}
+		if (frame.channels() == 3) {
+			Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGR2GRAY);
+		} else {
+			frame.copyTo(gray);
+		}
+		int w = gray.cols();
+		int h = gray.rows();
+		if (pixels.length != w * h) {
+			pixels = new byte[w * h];
+		}
+		gray.get(0, 0, pixels);
+		int dirty = diff.update(pixels, w, h);
+
+		boolean full = !params.equals(lastParams) || dirty == diff.cols() * diff.rows();
+		lastParams = params;
+		skipped = !full && dirty == 0;
+		if (skipped) {
+			regions = 0;
+			return new DetectionResult(circles, lastShapes, null, System.nanoTime() - start);
+		}
+
+		List<Rect> changed = full ? null : changedRegions(params, w, h);
+		if (changed != null) {
+			long area = 0;
+			for (Rect r : changed) {
+				area += (long) r.width * r.height;
+			}
+			full = area > FULL_FRAME_SHARE * w * h;
+		}
+
+		Mat preview = null;
+		preprocessor.reset(frame);
+		if (full) {
+			regions = 1;
+			DetectionResult result = pipDetector.detect(preprocessor, params);
+			CircleList found = result.circles();
+			CircleList out = spare;
+			out.clear();
+			for (int i = 0; i < found.size(); i++) {
+				out.add(found, i);
+			}
+			spare = circles;
+			circles = out;
+			preview = result.preview();
+		} else {
+			regions = changed.size() / 2;
+			circles = redetect(frame, params, changed);
+		}
+		if (shapes) {
+			DetectionResult result = rectDetector.detect(preprocessor, params);
+			lastShapes = result.shapes();
+		}
+		return new DetectionResult(circles, lastShapes, preview, System.nanoTime() - start);
+	}
+
+	/**
+	 * @return true when the last frame had no changed tile and was not
+	 *         processed
+	 */
+	public boolean lastSkipped() {
+		return skipped;
+	}
+
+	/**
+	 * @return changed regions re-detected for the last frame, 1 for a full
+	 *         detection
+	 */
+	public int lastRegions() {
+		return regions;
+	}
+
+	/**
+	 * @return changed tiles of the last frame
+	 */
+	public int lastDirtyTiles() {
+		return diff.dirtyCount();
+	}
+
+	private CircleList redetect(Mat frame, DetectorParams params, List<Rect> changed) {
+		// the last circles are read while the spare list is filled
+		CircleList out = spare;
+		out.clear();
+		// keep the circles in unchanged areas
+		for (int i = 0; i < circles.size(); i++) {
+			if (!inAny(changed, circles.x(i), circles.y(i))) {
+				out.add(circles, i);
+			}
+		}
+		for (int i = 0; i < changed.size(); i += 2) {
+			Rect core = changed.get(i);
+			Rect window = changed.get(i + 1);
+			Mat view = frame.submat(window);
+			DetectionResult result = pipDetector.detect(view, params);
+			view.release();
+			result.preview().release();
+			CircleList found = result.circles();
+			for (int j = 0; j < found.size(); j++) {
+				double x = found.x(j) + window.x;
+				double y = found.y(j) + window.y;
+				if (contains(core, x, y)) {
+					out.add(x, y, found.r(j), found.score(j));
+				}
+			}
+		}
+		spare = circles;
+		return out;
+	}
+
+	/**
+	 * @return changed regions as pairs: the bounding box of a group of
+	 *         connected dirty tiles, then that box grown by the search margin
+	 */
+	private List<Rect> changedRegions(DetectorParams params, int w, int h) {
+		int cols = diff.cols();
+		int rows = diff.rows();
+		int size = diff.tileSize();
+		int margin = (int) Math.ceil(params.maxRadius() + params.dilate()) + 4;
+		List<Rect> out = new ArrayList<>();
+		boolean[] seen = new boolean[cols * rows];
+		int[] stack = new int[cols * rows];
+		for (int start = 0; start < cols * rows; start++) {
+			if (seen[start] || !diff.isDirty(start % cols, start / cols)) {
+				continue;
+			}
+			// flood fill the 8-connected group of dirty tiles
+			int minTx = cols, minTy = rows, maxTx = -1, maxTy = -1;
+			int top = 0;
+			stack[top++] = start;
+			seen[start] = true;
+			while (top > 0) {
+				int t = stack[--top];
+				int tx = t % cols;
+				int ty = t / cols;
+				minTx = Math.min(minTx, tx);
+				minTy = Math.min(minTy, ty);
+				maxTx = Math.max(maxTx, tx);
+				maxTy = Math.max(maxTy, ty);
+				for (int ny = Math.max(0, ty - 1); ny <= Math.min(rows - 1, ty + 1); ny++) {
+					for (int nx = Math.max(0, tx - 1); nx <= Math.min(cols - 1, tx + 1); nx++) {
+						int n = ny * cols + nx;
+						if (!seen[n] && diff.isDirty(nx, ny)) {
+							seen[n] = true;
+							stack[top++] = n;
+						}
+					}
+				}
+			}
+			int x0 = minTx * size;
+			int y0 = minTy * size;
+			int x1 = Math.min(w, (maxTx + 1) * size);
+			int y1 = Math.min(h, (maxTy + 1) * size);
+			out.add(new Rect(x0, y0, x1 - x0, y1 - y0));
+			int wx0 = Math.max(0, x0 - margin);
+			int wy0 = Math.max(0, y0 - margin);
+			int wx1 = Math.min(w, x1 + margin);
+			int wy1 = Math.min(h, y1 + margin);
+			out.add(new Rect(wx0, wy0, wx1 - wx0, wy1 - wy0));
+		}
+		return out;
+	}
+
+	private static boolean inAny(List<Rect> changed, double x, double y) {
+		for (int i = 0; i < changed.size(); i += 2) {
+			if (contains(changed.get(i), x, y)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean contains(Rect r, double x, double y) {
+		return x >= r.x && x < r.x + r.width && y >= r.y && y < r.y + r.height;
+	}
+}
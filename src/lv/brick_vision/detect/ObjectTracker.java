@@ -0,0 +1,267 @@
+package lv.brick_vision.detect;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.opencv.core.Point;
+
+/**
+ * Associates detected circles and shapes across frames and gives every object
+ * a persistent id. Tracks move with a smoothed constant velocity; a detection
+ * is matched to the nearest track of the same kind around its predicted
+ * position, looked up in a spatial grid hash with cells of the match
+ * distance, so an update costs O(n log n) instead of comparing every
+ * detection with every track. Tracks without a match coast on their velocity
+ * and are dropped after maxMisses frames.
+ *
+ * Rectangles get the number of matched circles inside them as value, so a
+ * die that was turned over keeps its id and reports a value change.
+ *
+ * An instance is not thread-safe, use one per camera.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class ObjectTracker {
+
+	// grid cell coordinates are packed in 21 bits each, the track index in 22
+	private static final int CELL_BITS = 21;
+	private static final int INDEX_BITS = 22;
+	private static final int CELL_OFFSET = 1 << (CELL_BITS - 1);
+	private static final long INDEX_MASK = (1L << INDEX_BITS) - 1;
+
+	private final double maxDistance;
+	private final int maxMisses;
+	private final List<Track> tracks = new ArrayList<>();
+	private final List<Track> view = Collections.unmodifiableList(tracks);
+	private int nextId = 1;
+
+	// grid hash of the predicted track positions, sorted (cell << 22 | index)
+	private long[] grid = new long[0];
+	// candidate pairs, sorted (distance bits << 32 | pair index)
+	private long[] pairs = new long[16];
+	private int[] pairTrack = new int[16];
+	private int[] pairMeasure = new int[16];
+
+	/**
+	 * @param maxDistance
+	 *            largest distance in pixels a matched object may move between
+	 *            two frames (after prediction)
+	 * @param maxMisses
+	 *            frames a track survives without a match
+	 */
+	public ObjectTracker(double maxDistance, int maxMisses) {
+		if (maxDistance <= 0 || maxMisses < 0) {
+			throw new IllegalArgumentException("maxDistance must be positive and maxMisses not negative");
+		}
+		this.maxDistance = maxDistance;
+		this.maxMisses = maxMisses;
+	}
+
+	/**
+	 * @return live tracks, updated in place by {@link #update}
+	 */
+	public List<Track> tracks() {
+		return view;
+	}
+
+	/**
+	 * Drop all tracks, ids continue to count up.
+	 */
+	public void clear() {
+		tracks.clear();
+	}
+
+	/**
+	 * @param circles
+	 *            circles found in the frame
+	 * @param shapes
+	 *            shapes found in the frame
+	 * @return live tracks after the update
+	 */
+	public List<Track> update(List<Circle> circles, List<DetectedShape> shapes) {
+		CircleList found = CircleList.of(circles);
+		int m = circles.size() + shapes.size();
+		double[] mx = new double[m];
+		double[] my = new double[m];
+		double[] msize = new double[m];
+		Track.Kind[] mkind = new Track.Kind[m];
+		for (int i = 0; i < circles.size(); i++) {
+			mx[i] = found.x(i);
+			my[i] = found.y(i);
+			msize[i] = found.r(i);
+			mkind[i] = Track.Kind.CIRCLE;
+		}
+		for (int i = 0, j = circles.size(); i < shapes.size(); i++, j++) {
+			DetectedShape s = shapes.get(i);
+			double[] box = bounds(s);
+			mx[j] = (box[0] + box[2]) / 2;
+			my[j] = (box[1] + box[3]) / 2;
+			msize[j] = Math.hypot(box[2] - box[0], box[3] - box[1]) / 2;
+			mkind[j] = Track.Kind.valueOf(s.kind().name());
+		}
+
+		// candidate pairs from the 3x3 grid cells around every detection
+		buildGrid();
+		int pairCount = 0;
+		for (int j = 0; j < m; j++) {
+			long cx = cell(mx[j]);
+			long cy = cell(my[j]);
+			for (long gy = cy - 1; gy <= cy + 1; gy++) {
+				for (long gx = cx - 1; gx <= cx + 1; gx++) {
+					if (gx < 0 || gy < 0) {
+						continue;
+					}
+					long key = cellKey(gx, gy);
+					for (int g = lowerBound(key << INDEX_BITS); g < grid.length && grid[g] >>> INDEX_BITS == key; g++) {
+						int t = (int) (grid[g] & INDEX_MASK);
+						Track track = tracks.get(t);
+						if (track.kind() != mkind[j]) {
+							continue;
+						}
+						double d = Math.hypot(track.predictedX() - mx[j], track.predictedY() - my[j]);
+						if (d <= maxDistance) {
+							if (pairCount == pairs.length) {
+								pairs = Arrays.copyOf(pairs, pairCount * 2);
+								pairTrack = Arrays.copyOf(pairTrack, pairCount * 2);
+								pairMeasure = Arrays.copyOf(pairMeasure, pairCount * 2);
+							}
+							// non negative floats sort like their bits
+							pairs[pairCount] = ((long) Float.floatToIntBits((float) d) << 32) | pairCount;
+							pairTrack[pairCount] = t;
+							pairMeasure[pairCount] = j;
+							pairCount++;
+						}
+					}
+				}
+			}
+		}
+
+		// greedy assignment, nearest pairs first
+		Arrays.sort(pairs, 0, pairCount);
+		boolean[] trackMatched = new boolean[tracks.size()];
+		boolean[] measureMatched = new boolean[m];
+		for (int p = 0; p < pairCount; p++) {
+			int i = (int) pairs[p];
+			int t = pairTrack[i];
+			int j = pairMeasure[i];
+			if (trackMatched[t] || measureMatched[j]) {
+				continue;
+			}
+			trackMatched[t] = true;
+			measureMatched[j] = true;
+			Track track = tracks.get(t);
+			track.vx = (track.vx + mx[j] - track.x) / 2;
+			track.vy = (track.vy + my[j] - track.y) / 2;
+			track.x = mx[j];
+			track.y = my[j];
+			track.size = msize[j];
+			track.hits++;
+			track.misses = 0;
+			if (j >= circles.size()) {
+				track.shape = shapes.get(j - circles.size());
+			}
+		}
+
+		// coast or drop the unmatched tracks
+		List<Track> alive = new ArrayList<>(tracks.size() + m);
+		for (int t = 0; t < tracks.size(); t++) {
+			Track track = tracks.get(t);
+			if (!trackMatched[t]) {
+				track.misses++;
+				track.x += track.vx;
+				track.y += track.vy;
+				if (track.misses > maxMisses) {
+					continue;
+				}
+			}
+			alive.add(track);
+		}
+		// new tracks for the unmatched detections
+		for (int j = 0; j < m; j++) {
+			if (!measureMatched[j]) {
+				Track track = new Track(nextId++, mkind[j], mx[j], my[j], msize[j]);
+				track.hits = 1;
+				if (j >= circles.size()) {
+					track.shape = shapes.get(j - circles.size());
+				}
+				alive.add(track);
+			}
+		}
+		tracks.clear();
+		tracks.addAll(alive);
+		updateValues();
+		return view;
+	}
+
+	private void updateValues() {
+		for (Track rect : tracks) {
+			if (rect.kind() != Track.Kind.RECTANGLE) {
+				continue;
+			}
+			double[] box = bounds(rect.shape);
+			int value = 0;
+			for (Track c : tracks) {
+				if (c.kind() == Track.Kind.CIRCLE && c.misses == 0 && c.x >= box[0] && c.x <= box[2] && c.y >= box[1]
+						&& c.y <= box[3]) {
+					value++;
+				}
+			}
+			rect.previousValue = rect.value;
+			rect.value = value;
+		}
+	}
+
+	private void buildGrid() {
+		int n = tracks.size();
+		if (n > INDEX_MASK) {
+			throw new IllegalStateException("Too many tracks: " + n);
+		}
+		if (grid.length != n) {
+			grid = new long[n];
+		}
+		for (int t = 0; t < n; t++) {
+			Track track = tracks.get(t);
+			grid[t] = cellKey(cell(track.predictedX()), cell(track.predictedY())) << INDEX_BITS | t;
+		}
+		Arrays.sort(grid);
+	}
+
+	private int lowerBound(long value) {
+		int lo = 0;
+		int hi = grid.length;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (grid[mid] < value) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private long cell(double v) {
+		long c = (long) Math.floor(v / maxDistance) + CELL_OFFSET;
+		return Math.max(0, Math.min((1L << CELL_BITS) - 1, c));
+	}
+
+	private static long cellKey(long cx, long cy) {
+		return cx << CELL_BITS | cy;
+	}
+
+	private static double[] bounds(DetectedShape shape) {
+		double[] box = { Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE };
+		for (int i = 0; i < shape.cornerCount(); i++) {
+			Point p = shape.corner(i);
+			box[0] = Math.min(box[0], p.x);
+			box[1] = Math.min(box[1], p.y);
+			box[2] = Math.max(box[2], p.x);
+			box[3] = Math.max(box[3], p.y);
+		}
+		return box;
+	}
+}
@@ -0,0 +1,99 @@
+package lv.brick_vision.detect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Draws detection results on a frame the way the recognition applications
+ * show them: circle centers in green, circle outlines in red, triangle and
+ * rectangle outlines in light blue and track ids in green (red right after the
+ * value of a die changed).
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public final class Overlay {
+
+	private static final Scalar CENTER = new Scalar(0, 255, 0);
+	private static final Scalar OUTLINE = new Scalar(0, 0, 255);
+	private static final Scalar SHAPE = new Scalar(255, 255, 25);
+
+	private Overlay() {
+	}
+
+	/**
+	 * @param frame
+	 *            BGR frame to draw on
+	 * @param circles
+	 *            circles to outline
+	 */
+	public static void drawCircles(Mat frame, CircleList circles) {
+		Point center = new Point();
+		for (int i = 0; i < circles.size(); i++) {
+			center.x = circles.x(i);
+			center.y = circles.y(i);
+			// draw circle center
+			Imgproc.circle(frame, center, 3, CENTER, -1, 8, 0);
+			// draw circle outline
+			Imgproc.circle(frame, center, (int) circles.r(i), OUTLINE, 1, 16, 0);
+		}
+	}
+
+	/**
+	 * @param frame
+	 *            BGR frame to draw on
+	 * @param shapes
+	 *            shapes to outline, polygons are not drawn
+	 */
+	public static void drawShapes(Mat frame, List<DetectedShape> shapes) {
+		for (DetectedShape shape : shapes) {
+			if (shape.kind() == DetectedShape.Kind.POLYGON) {
+				continue;
+			}
+			int n = shape.cornerCount();
+			for (int i = 0; i < n; i++) {
+				Imgproc.line(frame, shape.corner(i), shape.corner((i + 1) % n), SHAPE, 5, 8, 0);
+			}
+		}
+	}
+
+	/**
+	 * @param frame
+	 *            BGR frame to draw on
+	 * @param faces
+	 *            die faces to outline together with their pips
+	 */
+	public static void drawFaces(Mat frame, List<DieFace> faces) {
+		List<DetectedShape> shapes = new ArrayList<>(faces.size());
+		for (DieFace face : faces) {
+			shapes.add(face.shape());
+			drawCircles(frame, face.pips());
+		}
+		drawShapes(frame, shapes);
+	}
+
+	/**
+	 * @param frame
+	 *            BGR frame to draw on
+	 * @param tracks
+	 *            tracks to label with their id, rectangles also with their
+	 *            value
+	 */
+	public static void drawTracks(Mat frame, List<Track> tracks) {
+		for (Track track : tracks) {
+			if (track.misses() > 0) {
+				continue;
+			}
+			String label = "#" + track.id() + (track.value() >= 0 ? ": " + track.value() : "");
+			Point at = new Point(track.x() + track.size() * 0.7, track.y() - track.size() * 0.7);
+			Imgproc.putText(frame, label, at, Core.FONT_HERSHEY_SIMPLEX, 0.5, track.valueChanged() ? OUTLINE : CENTER, 1);
+		}
+	}
+}
@@ -0,0 +1,490 @@
+package lv.brick_vision.detect;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Headless search for the circle detection parameters the sliders control.
+ * Every parameter set is scored against images with known pip counts: the
+ * share of images counted exactly, the mean count error and the detection
+ * time per frame. The search is a grid pass over the given axes followed by
+ * rounds of local refinement around the best sets, halving the step every
+ * round.
+ *
+ * Gray, blur and Canny edges are computed once per image and the dilated
+ * edges once per image and (dilate, erode) prefix; all parameter sets with
+ * the same prefix only run the Hough transform on the shared image.
+ * Parameter sets are evaluated in parallel on a fixed pool, one thread per
+ * core by default.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class ParameterTuner {
+
+	/** Name of the label file in an image directory: "file,pips" per line. */
+	public static final String LABELS = "labels.csv";
+
+	/**
+	 * Working size of the dice and edge apps; loaded images are fitted to it
+	 * so the tuned radii and distances hold for the sliders.
+	 */
+	public static final int WIDTH = 640;
+	public static final int HEIGHT = 480;
+
+	/**
+	 * Grid values of dp, min distance, accumulator, min radius, max radius
+	 * and dilate around the dice defaults.
+	 */
+	public static final double[][] DEFAULT_GRID = { { 1.2, 1.6, 2.0 }, { 15, 25, 35 }, { 15, 22, 30 },
+			{ 5, 8, 11 }, { 16, 20, 26 }, { 2, 4, 6 } };
+
+	// axes of the search, in DEFAULT_GRID order
+	private static final int DP = 0;
+	private static final int MIN_DIST = 1;
+	private static final int ACCUMULATOR = 2;
+	private static final int MIN_RADIUS = 3;
+	private static final int MAX_RADIUS = 4;
+	private static final int DILATE = 5;
+	private static final int AXES = 6;
+
+	/**
+	 * An image with its known pip count.
+	 */
+	public static final class Sample {
+
+		private final String name;
+		private final Mat frame;
+		private final int pips;
+
+		public Sample(String name, Mat frame, int pips) {
+			this.name = name;
+			this.frame = frame;
+			this.pips = pips;
+		}
+
+		public String name() {
+			return name;
+		}
+
+		/**
+		 * @return the image, fitted to the working size by {@link #load}
+		 */
+		public Mat frame() {
+			return frame;
+		}
+
+		public int pips() {
+			return pips;
+		}
+	}
+
+	/**
+	 * Result of one parameter set over all samples.
+	 */
+	public static final class Score {
+
+		private final DetectorParams params;
+		private final int exact;
+		private final int samples;
+		private final double meanError;
+		private final long nanos;
+
+		Score(DetectorParams params, int exact, int samples, double meanError, long nanos) {
+			this.params = params;
+			this.exact = exact;
+			this.samples = samples;
+			this.meanError = meanError;
+			this.nanos = nanos;
+		}
+
+		public DetectorParams params() {
+			return params;
+		}
+
+		/**
+		 * @return share of samples whose pips were counted exactly
+		 */
+		public double accuracy() {
+			return samples == 0 ? 0 : (double) exact / samples;
+		}
+
+		/**
+		 * @return mean absolute difference between found and known pips
+		 */
+		public double meanError() {
+			return meanError;
+		}
+
+		/**
+		 * @return mean detection time per frame in nanoseconds, preprocessing
+		 *         included
+		 */
+		public long nanosPerFrame() {
+			return nanos;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("accuracy: %.3f\terror: %.2f\t%.2f ms\t", accuracy(), meanError, nanos / 1e6) + params;
+		}
+	}
+
+	/** Best accuracy first, then the smaller error, then the faster set. */
+	public static final Comparator<Score> RANKING = Comparator.comparingDouble(Score::accuracy).reversed()
+			.thenComparingDouble(Score::meanError).thenComparingLong(Score::nanosPerFrame);
+
+	// preprocessing shared by all parameter sets of one image
+	private static final class Prepared {
+		final FramePreprocessor pre = new FramePreprocessor();
+		final long baseNanos;
+		final Map<DetectorParams, Mat> morph = new ConcurrentHashMap<>();
+		final Map<DetectorParams, Long> morphNanos = new ConcurrentHashMap<>();
+
+		Prepared(Mat frame) {
+			long start = System.nanoTime();
+			pre.reset(frame).edges(CircleDetector.CANNY_LOW, CircleDetector.CANNY_HIGH);
+			baseNanos = System.nanoTime() - start;
+		}
+
+		Mat morph(DetectorParams params) {
+			DetectorParams prefix = new DetectorParams(0, 0, 0, 0, 0, params.dilate(), params.erode());
+			return morph.computeIfAbsent(prefix, key -> {
+				// the preprocessor caches one morph image at a time
+				synchronized (pre) {
+					long start = System.nanoTime();
+					Mat m = pre.morph(CircleDetector.CANNY_LOW, CircleDetector.CANNY_HIGH, key).clone();
+					morphNanos.put(key, System.nanoTime() - start);
+					return m;
+				}
+			});
+		}
+
+		long morphNanos(DetectorParams params) {
+			return morphNanos.get(new DetectorParams(0, 0, 0, 0, 0, params.dilate(), params.erode()));
+		}
+
+		void release() {
+			for (Mat m : morph.values()) {
+				m.release();
+			}
+			pre.release();
+		}
+	}
+
+	private final List<Sample> samples;
+	private final List<Prepared> prepared = new ArrayList<>();
+	private final ExecutorService pool;
+	private final Map<DetectorParams, Score> scores = new ConcurrentHashMap<>();
+	// only the count is scored, every evaluation thread refills its own list
+	private final ThreadLocal<CircleList> found = ThreadLocal.withInitial(CircleList::new);
+	private double erode = 1;
+
+	/**
+	 * @param samples
+	 *            labeled images, not modified
+	 * @param threads
+	 *            evaluation threads
+	 */
+	public ParameterTuner(List<Sample> samples, int threads) {
+		this.samples = new ArrayList<>(samples);
+		for (Sample sample : samples) {
+			prepared.add(new Prepared(sample.frame));
+		}
+		this.pool = Executors.newFixedThreadPool(threads);
+	}
+
+	/**
+	 * @param samples
+	 *            labeled images, one evaluation thread per core
+	 */
+	public ParameterTuner(List<Sample> samples) {
+		this(samples, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param erode
+	 *            erode element size of all searched sets, 1 by default
+	 */
+	public void setErode(double erode) {
+		this.erode = erode;
+	}
+
+	/**
+	 * @param dir
+	 *            directory with the images and {@link #LABELS}
+	 * @return samples in label file order, fitted to {@link #WIDTH} x
+	 *         {@link #HEIGHT}
+	 * @throws IOException
+	 *             when the label file is missing or malformed, or an image
+	 *             cannot be read
+	 */
+	public static List<Sample> load(File dir) throws IOException {
+		return load(dir, WIDTH, HEIGHT);
+	}
+
+	/**
+	 * @param dir
+	 *            directory with the images and {@link #LABELS}
+	 * @param width
+	 *            working width, 0 keeps the decoded size
+	 * @param height
+	 *            working height
+	 * @return samples in label file order
+	 * @throws IOException
+	 *             when the label file is missing or malformed, or an image
+	 *             cannot be read
+	 */
+	public static List<Sample> load(File dir, int width, int height) throws IOException {
+		List<Sample> samples = new ArrayList<>();
+		try (BufferedReader in = new BufferedReader(new FileReader(new File(dir, LABELS)))) {
+			String line;
+			int n = 0;
+			while ((line = in.readLine()) != null) {
+				n++;
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				int comma = line.lastIndexOf(',');
+				if (comma < 0) {
+					throw new IOException(LABELS + ":" + n + ": expected file,pips");
+				}
+				String name = line.substring(0, comma).trim();
+				int pips;
+				try {
+					pips = Integer.parseInt(line.substring(comma + 1).trim());
+				} catch (NumberFormatException e) {
+					throw new IOException(LABELS + ":" + n + ": bad pip count", e);
+				}
+				Mat frame = Imgcodecs.imread(new File(dir, name).getPath());
+				if (frame.empty()) {
+					throw new IOException("Cannot read " + name);
+				}
+				if (width > 0) {
+					fit(frame, width, height);
+				}
+				samples.add(new Sample(name, frame, pips));
+			}
+		}
+		return samples;
+	}
+
+	/**
+	 * @param grid
+	 *            values of dp, min distance, accumulator, min radius, max
+	 *            radius and dilate, see {@link #DEFAULT_GRID}
+	 * @param keep
+	 *            best sets refined in every round
+	 * @param rounds
+	 *            refinement rounds after the grid pass
+	 * @return every evaluated set, best first
+	 * @throws InterruptedException
+	 *             when interrupted while waiting for the evaluations
+	 */
+	public List<Score> search(double[][] grid, int keep, int rounds) throws InterruptedException {
+		if (grid.length != AXES) {
+			throw new IllegalArgumentException("grid needs " + AXES + " axes, got " + grid.length);
+		}
+		List<DetectorParams> candidates = new ArrayList<>();
+		int[] index = new int[AXES];
+		double[] v = new double[AXES];
+		// dilate is the outermost axis, so sets sharing a prefix run together
+		do {
+			for (int a = 0; a < AXES; a++) {
+				v[a] = grid[a][index[a]];
+			}
+			if (valid(v)) {
+				candidates.add(params(v));
+			}
+		} while (next(index, grid));
+		evaluate(candidates);
+
+		double[] step = new double[AXES];
+		for (int a = 0; a < AXES; a++) {
+			step[a] = spacing(grid[a]) / 2;
+		}
+		for (int round = 0; round < rounds; round++) {
+			candidates.clear();
+			for (Score score : ranked().subList(0, Math.min(keep, scores.size()))) {
+				double[] base = values(score.params());
+				for (int a = 0; a < AXES; a++) {
+					for (int sign = -1; sign <= 1; sign += 2) {
+						double[] n = base.clone();
+						n[a] += sign * step[a];
+						if (valid(n)) {
+							DetectorParams p = params(n);
+							if (!scores.containsKey(p) && !candidates.contains(p)) {
+								candidates.add(p);
+							}
+						}
+					}
+				}
+			}
+			evaluate(candidates);
+			for (int a = 0; a < AXES; a++) {
+				step[a] /= 2;
+			}
+		}
+		return ranked();
+	}
+
+	/**
+	 * @return every set evaluated so far, best first
+	 */
+	public List<Score> ranked() {
+		List<Score> list = new ArrayList<>(scores.values());
+		Collections.sort(list, RANKING);
+		return list;
+	}
+
+	/**
+	 * @param params
+	 *            parameter set
+	 * @return score over all samples, from the cache if already evaluated
+	 */
+	public Score evaluate(DetectorParams params) {
+		Score score = scores.get(params);
+		if (score != null) {
+			return score;
+		}
+		int exact = 0;
+		long error = 0;
+		long nanos = 0;
+		for (int i = 0; i < prepared.size(); i++) {
+			Prepared p = prepared.get(i);
+			Mat morph = p.morph(params);
+			long start = System.nanoTime();
+			int found = CircleDetector.hough(morph, params, this.found.get()).size();
+			nanos += System.nanoTime() - start + p.baseNanos + p.morphNanos(params);
+			int pips = samples.get(i).pips;
+			error += Math.abs(found - pips);
+			if (found == pips) {
+				exact++;
+			}
+		}
+		int n = Math.max(1, prepared.size());
+		score = new Score(params, exact, prepared.size(), (double) error / n, nanos / n);
+		scores.put(params, score);
+		return score;
+	}
+
+	/**
+	 * @return dilated edge images cached over all samples
+	 */
+	public int cachedPrefixes() {
+		int count = 0;
+		for (Prepared p : prepared) {
+			count += p.morph.size();
+		}
+		return count;
+	}
+
+	/**
+	 * Stop the evaluation threads and release the cached images; the samples
+	 * are not released.
+	 */
+	public void release() {
+		pool.shutdownNow();
+		for (Prepared p : prepared) {
+			p.release();
+		}
+	}
+
+	private void evaluate(List<DetectorParams> candidates) throws InterruptedException {
+		List<Callable<Score>> tasks = new ArrayList<>();
+		for (DetectorParams p : candidates) {
+			tasks.add(() -> evaluate(p));
+		}
+		for (Future<Score> f : pool.invokeAll(tasks)) {
+			try {
+				f.get();
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Evaluation failed", e.getCause());
+			}
+		}
+	}
+
+	/**
+	 * Shrink a frame larger than width x height in both directions, like the
+	 * dice and edge apps do: landscape and square frames to the width,
+	 * portrait frames to the height, preserving the ratio.
+	 *
+	 * @param frame
+	 *            frame resized in place
+	 * @param width
+	 *            working width
+	 * @param height
+	 *            working height
+	 */
+	public static void fit(Mat frame, int width, int height) {
+		int originWidth = frame.width();
+		int originHeight = frame.height();
+		if (originWidth > width && originHeight > height) {
+			if (originWidth >= originHeight) {
+				Imgproc.resize(frame, frame, new Size(width, width * originHeight / originWidth));
+			} else {
+				Imgproc.resize(frame, frame, new Size(height * originWidth / originHeight, height));
+			}
+		}
+	}
+
+	// odometer over the grid, the last axis (dilate) changes slowest
+	private static boolean next(int[] index, double[][] grid) {
+		for (int a = 0; a < AXES; a++) {
+			if (++index[a] < grid[a].length) {
+				return true;
+			}
+			index[a] = 0;
+		}
+		return false;
+	}
+
+	private static double spacing(double[] values) {
+		double[] sorted = values.clone();
+		Arrays.sort(sorted);
+		double min = Double.MAX_VALUE;
+		for (int i = 1; i < sorted.length; i++) {
+			min = Math.min(min, sorted[i] - sorted[i - 1]);
+		}
+		return min == Double.MAX_VALUE ? 0 : min;
+	}
+
+	// rounds the radii and the kernel size in place, they are whole pixels in
+	// the detector
+	private static boolean valid(double[] v) {
+		v[MIN_RADIUS] = Math.round(v[MIN_RADIUS]);
+		v[MAX_RADIUS] = Math.round(v[MAX_RADIUS]);
+		v[DILATE] = Math.round(v[DILATE]);
+		return v[DP] >= 1 && v[MIN_DIST] >= 1 && v[ACCUMULATOR] >= 1 && v[MIN_RADIUS] >= 1 && v[DILATE] >= 1
+				&& v[MIN_RADIUS] < v[MAX_RADIUS];
+	}
+
+	private DetectorParams params(double[] v) {
+		return new DetectorParams(v[DP], v[MIN_DIST], v[ACCUMULATOR], v[MIN_RADIUS], v[MAX_RADIUS], v[DILATE], erode);
+	}
+
+	private static double[] values(DetectorParams p) {
+		return new double[] { p.dp(), p.minDist(), p.accumulator(), p.minRadius(), p.maxRadius(), p.dilate() };
+	}
+}
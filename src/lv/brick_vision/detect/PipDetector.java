@@ -0,0 +1,37 @@
+package lv.brick_vision.detect;
+
+import org.opencv.core.Mat;
+
+/**
+ * Strategy for finding pips (circles) in a frame. {@link CircleDetector} uses
+ * the Hough transform on dilated edges, {@link BlobPipDetector} counts round
+ * dark components. Implementations keep no state between calls, so one
+ * instance can be shared by any number of threads and swapped at runtime;
+ * the same holds for the {@link RectDetector}, {@link RegionPipDetector} and
+ * {@link PyramidDetector}.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public interface PipDetector {
+
+	/**
+	 * @param frame
+	 *            BGR or gray frame, not modified
+	 * @param params
+	 *            parameter snapshot
+	 * @return circles found; the preview is owned by the caller
+	 */
+	DetectionResult detect(Mat frame, DetectorParams params);
+
+	/**
+	 * @param pre
+	 *            preprocessor reset to the frame, shared with other detectors
+	 * @param params
+	 *            parameter snapshot
+	 * @return circles found; the preview is owned by the preprocessor and
+	 *         valid until its next reset
+	 */
+	DetectionResult detect(FramePreprocessor pre, DetectorParams params);
+}
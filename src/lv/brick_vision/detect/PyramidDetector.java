@@ -0,0 +1,242 @@
+package lv.brick_vision.detect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Coarse-to-fine detection for high resolution frames. Circles and shapes are
+ * located on a pyrDown level of the frame, then every candidate is refined at
+ * full resolution in a small neighborhood around it. The cost stays close to
+ * a detection on the small level while positions and radii keep the full
+ * resolution accuracy.
+ *
+ * The parameters are meant for the coarse level, the way the sliders are
+ * tuned for 640x480 frames; radii and distances are scaled up for the
+ * refinement. The number of pyrDown steps and the number of neighborhoods
+ * refined per frame are configurable; candidates over the budget are
+ * reported at their coarse position.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class PyramidDetector {
+
+	private final CircleDetector circleDetector = new CircleDetector();
+	private final RectDetector rectDetector = new RectDetector();
+	private final int levels;
+	private final int budget;
+
+	/**
+	 * @param levels
+	 *            pyrDown steps to the coarse level, every step halves the size
+	 * @param budget
+	 *            max neighborhoods refined at full resolution per frame
+	 */
+	public PyramidDetector(int levels, int budget) {
+		if (levels < 0 || budget < 0) {
+			throw new IllegalArgumentException("levels and budget must not be negative");
+		}
+		this.levels = levels;
+		this.budget = budget;
+	}
+
+	/**
+	 * @param width
+	 *            frame width
+	 * @param targetWidth
+	 *            largest coarse level width, e.g. 640
+	 * @return pyrDown steps needed to get the frame to the target width
+	 */
+	public static int levelsFor(int width, int targetWidth) {
+		int levels = 0;
+		while ((width >> levels) > targetWidth) {
+			levels++;
+		}
+		return levels;
+	}
+
+	public int levels() {
+		return levels;
+	}
+
+	public int budget() {
+		return budget;
+	}
+
+	/**
+	 * @param frame
+	 *            full resolution BGR or gray frame, not modified
+	 * @param params
+	 *            parameter snapshot for the coarse level
+	 * @return circles and shapes in full resolution coordinates; the preview
+	 *         is the coarse dilated edge image, owned by the caller
+	 */
+	public DetectionResult detect(Mat frame, DetectorParams params) {
+		long start = System.nanoTime();
+		int scale = 1 << levels;
+
+		Mat coarse = frame;
+		for (int i = 0; i < levels; i++) {
+			Mat down = new Mat();
+			Imgproc.pyrDown(coarse, down);
+			if (coarse != frame) {
+				coarse.release();
+			}
+			coarse = down;
+		}
+
+		FramePreprocessor pre = new FramePreprocessor().reset(coarse);
+		DetectionResult circleCandidates = circleDetector.detect(pre, params);
+		DetectionResult shapeCandidates = rectDetector.detect(pre, params);
+		Mat preview = circleCandidates.preview().clone();
+		pre.release();
+		if (coarse != frame) {
+			coarse.release();
+		}
+
+		int refined = 0;
+		CircleList candidates = circleCandidates.circles();
+		CircleList circles = new CircleList(candidates.size());
+		for (int i = 0; i < candidates.size(); i++) {
+			double cx = candidates.x(i) * scale;
+			double cy = candidates.y(i) * scale;
+			double r = candidates.r(i) * scale;
+			boolean found = false;
+			if (scale > 1 && refined < budget) {
+				found = refineCircle(frame, cx, cy, r, scale, params, circles);
+				refined++;
+			}
+			if (!found) {
+				circles.add(cx, cy, r, candidates.score(i));
+			}
+		}
+
+		List<DetectedShape> shapes = new ArrayList<>();
+		for (DetectedShape candidate : shapeCandidates.shapes()) {
+			DetectedShape shape = null;
+			if (scale > 1 && refined < budget) {
+				shape = refineShape(frame, candidate, scale, params);
+				refined++;
+			}
+			if (shape == null) {
+				shape = scaled(candidate, scale, 0, 0);
+			}
+			shapes.add(shape);
+		}
+		return new DetectionResult(circles, shapes, preview, System.nanoTime() - start);
+	}
+
+	/**
+	 * @return true when the circle was found around (cx, cy) and added to out
+	 */
+	private boolean refineCircle(Mat frame, double cx, double cy, double r, int scale, DetectorParams params,
+			CircleList out) {
+		// the coarse radius is only known to one coarse pixel, plus the
+		// inner edge of the dilated ring shifts it by half the dilate size
+		double slack = scale * (1 + params.dilate() / 2);
+		double minRadius = Math.max(1, r - slack);
+		double maxRadius = r + slack;
+		int half = (int) Math.ceil(maxRadius + 2 * scale + params.dilate());
+		Rect roi = clip(new Rect((int) cx - half, (int) cy - half, 2 * half, 2 * half), frame);
+		if (roi == null) {
+			return false;
+		}
+		// full accumulator resolution, the neighborhood is small
+		DetectorParams fine = new DetectorParams(1, r, params.accumulator(), minRadius, maxRadius, params.dilate(),
+				params.erode());
+		Mat view = frame.submat(roi);
+		DetectionResult result = circleDetector.detect(view, fine);
+		view.release();
+		result.preview().release();
+
+		// the circle nearest to the candidate center wins
+		CircleList found = result.circles();
+		int best = -1;
+		double bestDist = Math.max(2 * scale, r / 2);
+		for (int i = 0; i < found.size(); i++) {
+			double d = Math.hypot(found.x(i) + roi.x - cx, found.y(i) + roi.y - cy);
+			if (d <= bestDist) {
+				best = i;
+				bestDist = d;
+			}
+		}
+		if (best < 0) {
+			return false;
+		}
+		out.add(found.x(best) + roi.x, found.y(best) + roi.y, found.r(best), found.score(best));
+		return true;
+	}
+
+	private DetectedShape refineShape(Mat frame, DetectedShape candidate, int scale, DetectorParams params) {
+		Rect box = bounds(candidate, scale);
+		int margin = 2 * scale + (int) params.dilate();
+		Rect roi = clip(new Rect(box.x - margin, box.y - margin, box.width + 2 * margin, box.height + 2 * margin),
+				frame);
+		if (roi == null) {
+			return null;
+		}
+		Mat view = frame.submat(roi);
+		DetectionResult result = rectDetector.detect(view, params);
+		view.release();
+		result.preview().release();
+
+		// the largest shape of the same kind is the refined outline
+		DetectedShape best = null;
+		double bestArea = 0;
+		for (DetectedShape s : result.shapes()) {
+			if (s.kind() != candidate.kind()) {
+				continue;
+			}
+			Rect b = bounds(s, 1);
+			if (b.area() > bestArea) {
+				best = s;
+				bestArea = b.area();
+			}
+		}
+		// a shape much smaller than the candidate is a detail inside it
+		if (best == null || bestArea < box.area() / 2) {
+			return null;
+		}
+		return scaled(best, 1, roi.x, roi.y);
+	}
+
+	private static DetectedShape scaled(DetectedShape shape, int scale, int dx, int dy) {
+		Point[] corners = shape.corners();
+		for (Point p : corners) {
+			p.x = p.x * scale + dx;
+			p.y = p.y * scale + dy;
+		}
+		return new DetectedShape(shape.kind(), corners);
+	}
+
+	private static Rect bounds(DetectedShape shape, int scale) {
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < shape.cornerCount(); i++) {
+			Point p = shape.corner(i);
+			minX = Math.min(minX, p.x);
+			minY = Math.min(minY, p.y);
+			maxX = Math.max(maxX, p.x);
+			maxY = Math.max(maxY, p.y);
+		}
+		return new Rect((int) (minX * scale), (int) (minY * scale), (int) ((maxX - minX) * scale) + 1,
+				(int) ((maxY - minY) * scale) + 1);
+	}
+
+	private static Rect clip(Rect r, Mat frame) {
+		int x0 = Math.max(0, r.x);
+		int y0 = Math.max(0, r.y);
+		int x1 = Math.min(frame.cols(), r.x + r.width);
+		int y1 = Math.min(frame.rows(), r.y + r.height);
+		if (x1 - x0 < 8 || y1 - y0 < 8) {
+			return null;
+		}
+		return new Rect(x0, y0, x1 - x0, y1 - y0);
+	}
+}
@@ -0,0 +1,183 @@
+package lv.brick_vision.detect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.MatOfPoint2f;
+import org.opencv.core.Point;
+import org.opencv.core.Range;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Finds triangles, rectangles (die faces, bricks) and five/six sided polygons
+ * in a frame: gray conversion, median blur, Canny edges, dilation, external
+ * contours and polygon approximation classified by corner angles. Contour
+ * points, the hierarchy and the corners are read with one bulk get each and
+ * classified on primitive arrays; outlines smaller than a few pixels are
+ * dropped before the approximation. The preprocessing comes from a
+ * {@link FramePreprocessor}, which can be shared with other detectors.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class RectDetector {
+
+	// Canny thresholds used for the outlines
+	public static final double CANNY_LOW = 50;
+	public static final double CANNY_HIGH = 255;
+	// smallest bounding box side of an outline worth approximating
+	static final int MIN_SIDE = 4;
+
+	/**
+	 * @param frame
+	 *            BGR or gray frame, not modified
+	 * @param params
+	 *            parameter snapshot, only dilate is used
+	 * @return shapes found; the preview is the dilated edge image, owned by
+	 *         the caller
+	 */
+	public DetectionResult detect(Mat frame, DetectorParams params) {
+		FramePreprocessor pre = new FramePreprocessor().reset(frame);
+		try {
+			DetectionResult result = detect(pre, params);
+			// keep the preview alive after the preprocessor is released
+			return new DetectionResult(result.circles(), result.shapes(), new Mat(result.preview(), Range.all()),
+					result.nanos());
+		} finally {
+			pre.release();
+		}
+	}
+
+	/**
+	 * @param pre
+	 *            preprocessor reset to the frame, shared with other detectors
+	 * @param params
+	 *            parameter snapshot, only dilate is used
+	 * @return shapes found; the preview is the dilated edge image, owned by
+	 *         the preprocessor and valid until its next reset
+	 */
+	public DetectionResult detect(FramePreprocessor pre, DetectorParams params) {
+		long start = System.nanoTime();
+		Mat morph = pre.morph(CANNY_LOW, CANNY_HIGH, params);
+		Mat hierarchy = new Mat();
+
+		List<MatOfPoint> contours = new ArrayList<MatOfPoint>();
+		MatOfPoint2f matOfPoint2f = new MatOfPoint2f();
+		MatOfPoint2f approxCurve = new MatOfPoint2f();
+
+		// find contours on a copy, older OpenCV versions modify the source
+		Mat contourSrc = morph.clone();
+		Imgproc.findContours(contourSrc, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+		contourSrc.release();
+
+		// one bulk read of the hierarchy: next, previous, first child, parent
+		int[] links = new int[contours.size() * 4];
+		if (!contours.isEmpty()) {
+			hierarchy.get(0, 0, links);
+		}
+		int[] xy = new int[64];
+		float[] corners = new float[12];
+
+		List<DetectedShape> shapes = new ArrayList<>();
+		// Detect all angles from contours and try to stick them together
+		for (int idx = contours.isEmpty() ? -1 : 0; idx >= 0; idx = links[idx * 4]) {
+			MatOfPoint contour = contours.get(idx);
+			int n = (int) contour.total();
+			if (n >= 3) {
+				if (xy.length < n * 2) {
+					xy = new int[n * 2];
+				}
+				contour.get(0, 0, xy);
+				if (!isNoise(xy, n)) {
+					contour.convertTo(matOfPoint2f, CvType.CV_32F);
+					Imgproc.approxPolyDP(matOfPoint2f, approxCurve, Imgproc.arcLength(matOfPoint2f, true) * 0.02, true);
+					int total = (int) approxCurve.total();
+					if (total >= 3 && total <= 6) {
+						approxCurve.get(0, 0, corners);
+						DetectedShape.Kind kind = classify(corners, total);
+						if (kind != null) {
+							shapes.add(new DetectedShape(kind, toPoints(corners, total)));
+						}
+					}
+				}
+			}
+			contour.release();
+		}
+
+		hierarchy.release();
+		matOfPoint2f.release();
+		approxCurve.release();
+		return new DetectionResult(new CircleList(0), shapes, morph, System.nanoTime() - start);
+	}
+
+	// outlines with a bounding box side below MIN_SIDE are edge noise
+	private static boolean isNoise(int[] xy, int n) {
+		int minX = xy[0], maxX = xy[0], minY = xy[1], maxY = xy[1];
+		for (int i = 1; i < n; i++) {
+			int x = xy[2 * i];
+			int y = xy[2 * i + 1];
+			minX = Math.min(minX, x);
+			maxX = Math.max(maxX, x);
+			minY = Math.min(minY, y);
+			maxY = Math.max(maxY, y);
+		}
+		return maxX - minX < MIN_SIDE || maxY - minY < MIN_SIDE;
+	}
+
+	/**
+	 * @param xy
+	 *            x0, y0, x1, y1, ... of the approximated polygon
+	 * @param total
+	 *            number of corners, 3 to 6
+	 * @return kind by the min and max corner cosine, null when the corners
+	 *         match no kind
+	 */
+	static DetectedShape.Kind classify(float[] xy, int total) {
+		if (total == 3) {
+			return DetectedShape.Kind.TRIANGLE;
+		}
+		double minCos = Double.MAX_VALUE;
+		double maxCos = -Double.MAX_VALUE;
+		for (int j = 2; j < total + 1; j++) {
+			int a = j % total;
+			int b = j - 2;
+			int o = j - 1;
+			double cos = angle(xy[2 * a], xy[2 * a + 1], xy[2 * b], xy[2 * b + 1], xy[2 * o], xy[2 * o + 1]);
+			minCos = Math.min(minCos, cos);
+			maxCos = Math.max(maxCos, cos);
+		}
+		if (total == 4 && minCos >= -0.8 && maxCos <= 0.8) {
+			return DetectedShape.Kind.RECTANGLE;
+		}
+		if ((total == 5 && minCos >= -0.34 && maxCos <= -0.27) || (total == 6 && minCos >= -0.55 && maxCos <= -0.45)) {
+			return DetectedShape.Kind.POLYGON;
+		}
+		return null;
+	}
+
+	private static Point[] toPoints(float[] xy, int total) {
+		Point[] points = new Point[total];
+		for (int i = 0; i < total; i++) {
+			points[i] = new Point(xy[2 * i], xy[2 * i + 1]);
+		}
+		return points;
+	}
+
+	// Angle point calculation
+	static double angle(Point pt1, Point pt2, Point pt0) {
+		return angle(pt1.x, pt1.y, pt2.x, pt2.y, pt0.x, pt0.y);
+	}
+
+	// cosine of the corner at (x0, y0) between (x1, y1) and (x2, y2)
+	private static double angle(double x1, double y1, double x2, double y2, double x0, double y0) {
+		double dx1 = x1 - x0;
+		double dy1 = y1 - y0;
+		double dx2 = x2 - x0;
+		double dy2 = y2 - y0;
+		return (dx1 * dx2 + dy1 * dy2) / Math.sqrt((dx1 * dx1 + dy1 * dy1) * (dx2 * dx2 + dy2 * dy2) + 1e-10);
+	}
+}
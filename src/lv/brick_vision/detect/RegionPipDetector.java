@@ -0,0 +1,104 @@
+package lv.brick_vision.detect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Two-stage pip detection: die faces are found first as rectangles by the
+ * {@link RectDetector}, then the Hough transform runs only on a submat view of
+ * every face, with a radius range derived from the face size. Pips on the
+ * background are never reported and the Hough work shrinks to the area of
+ * the faces.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class RegionPipDetector {
+
+	// share of the face side cut off at every border, keeps the outline out
+	private static final double BORDER = 0.1;
+	// pip radius range as share of the face side
+	private static final double MIN_PIP = 0.05;
+	private static final double MAX_PIP = 0.14;
+	// smaller faces can not hold recognizable pips
+	private static final int MIN_FACE = 20;
+
+	private final RectDetector faceDetector = new RectDetector();
+
+	/**
+	 * @param pre
+	 *            preprocessor reset to the frame, shared with other detectors
+	 * @param params
+	 *            parameter snapshot; dp, accumulator, dilate and erode are
+	 *            used, distance and radii follow from the face size
+	 * @return every rectangular face with the pips found inside it
+	 */
+	public List<DieFace> detect(FramePreprocessor pre, DetectorParams params) {
+		List<DieFace> faces = new ArrayList<>();
+		DetectionResult shapes = faceDetector.detect(pre, params);
+		Mat morph = null;
+		Mat circles = new Mat();
+		for (DetectedShape shape : shapes.shapes()) {
+			if (shape.kind() != DetectedShape.Kind.RECTANGLE) {
+				continue;
+			}
+			Rect region = innerRegion(shape, pre.frame().cols(), pre.frame().rows());
+			if (region == null) {
+				continue;
+			}
+			if (morph == null) {
+				morph = pre.morph(CircleDetector.CANNY_LOW, CircleDetector.CANNY_HIGH, params);
+			}
+			int side = Math.min(region.width, region.height);
+			int minRadius = Math.max(2, (int) Math.round(side * MIN_PIP));
+			int maxRadius = Math.max(minRadius + 1, (int) Math.round(side * MAX_PIP));
+
+			// find circles in the face only
+			Mat view = morph.submat(region);
+			Imgproc.HoughCircles(view, circles, Imgproc.CV_HOUGH_GRADIENT, params.dp(), 2 * minRadius, 255,
+					params.accumulator(), minRadius, maxRadius);
+			view.release();
+
+			CircleList pips = new CircleList().readHough(circles);
+			pips.translate(0, region.x, region.y);
+			faces.add(new DieFace(shape, region, pips));
+		}
+		circles.release();
+		return faces;
+	}
+
+	/**
+	 * @return bounding box of the shape shrunk by the border and clipped to
+	 *         the frame, or null when it is too small
+	 */
+	static Rect innerRegion(DetectedShape shape, int cols, int rows) {
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < shape.cornerCount(); i++) {
+			Point p = shape.corner(i);
+			minX = Math.min(minX, p.x);
+			minY = Math.min(minY, p.y);
+			maxX = Math.max(maxX, p.x);
+			maxY = Math.max(maxY, p.y);
+		}
+		double side = Math.min(maxX - minX, maxY - minY);
+		if (side < MIN_FACE) {
+			return null;
+		}
+		int inset = (int) (side * BORDER);
+		int x0 = Math.max(0, (int) minX + inset);
+		int y0 = Math.max(0, (int) minY + inset);
+		int x1 = Math.min(cols, (int) maxX - inset + 1);
+		int y1 = Math.min(rows, (int) maxY - inset + 1);
+		if (x1 - x0 < MIN_FACE / 2 || y1 - y0 < MIN_FACE / 2) {
+			return null;
+		}
+		return new Rect(x0, y0, x1 - x0, y1 - y0);
+	}
+}
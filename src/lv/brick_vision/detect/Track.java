@@ -0,0 +1,147 @@
+package lv.brick_vision.detect;
+
+import org.opencv.core.Rect;
+
+/**
+ * An object followed by the {@link ObjectTracker} across frames: a circle
+ * (pip) or a shape (die face, brick). The id stays the same for the life of
+ * the track. For rectangles the value is the number of tracked circles
+ * inside, so a die that was turned over shows up as a value change of the
+ * same id.
+ *
+ * Tracks are updated by the tracker only; read them on the thread that
+ * updates the tracker.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public final class Track {
+
+	/** What is tracked. */
+	public enum Kind {
+		CIRCLE, TRIANGLE, RECTANGLE, POLYGON
+	}
+
+	private final int id;
+	private final Kind kind;
+	double x;
+	double y;
+	double size;
+	double vx;
+	double vy;
+	int hits;
+	int misses;
+	int value = -1;
+	int previousValue = -1;
+	DetectedShape shape;
+
+	Track(int id, Kind kind, double x, double y, double size) {
+		this.id = id;
+		this.kind = kind;
+		this.x = x;
+		this.y = y;
+		this.size = size;
+	}
+
+	public int id() {
+		return id;
+	}
+
+	public Kind kind() {
+		return kind;
+	}
+
+	/**
+	 * @return center x of the last match
+	 */
+	public double x() {
+		return x;
+	}
+
+	/**
+	 * @return center y of the last match
+	 */
+	public double y() {
+		return y;
+	}
+
+	/**
+	 * @return radius of a circle, half the bounding box diagonal of a shape
+	 */
+	public double size() {
+		return size;
+	}
+
+	/**
+	 * @return predicted center x in the next frame
+	 */
+	public double predictedX() {
+		return x + vx;
+	}
+
+	/**
+	 * @return predicted center y in the next frame
+	 */
+	public double predictedY() {
+		return y + vy;
+	}
+
+	/**
+	 * @return frames the track was matched in
+	 */
+	public int hits() {
+		return hits;
+	}
+
+	/**
+	 * @return frames in a row without a match
+	 */
+	public int misses() {
+		return misses;
+	}
+
+	/**
+	 * @return circles inside a rectangle, -1 for other kinds
+	 */
+	public int value() {
+		return value;
+	}
+
+	/**
+	 * @return true when the value changed in the last update
+	 */
+	public boolean valueChanged() {
+		return previousValue >= 0 && value != previousValue;
+	}
+
+	/**
+	 * @return value before the last update, -1 when there was none
+	 */
+	public int previousValue() {
+		return previousValue;
+	}
+
+	/**
+	 * @return outline of the last match, null for circles
+	 */
+	public DetectedShape shape() {
+		return shape;
+	}
+
+	/**
+	 * @param margin
+	 *            pixels added on every side
+	 * @return square around the predicted center where the object should be
+	 *         found in the next frame
+	 */
+	public Rect searchWindow(int margin) {
+		int half = (int) Math.ceil(size) + margin;
+		return new Rect((int) predictedX() - half, (int) predictedY() - half, 2 * half, 2 * half);
+	}
+
+	@Override
+	public String toString() {
+		return "#" + id + " " + kind + String.format(" (%.0f, %.0f)", x, y) + (value >= 0 ? " value " + value : "");
+	}
+}
@@ -0,0 +1,325 @@
+package lv.brick_vision.detect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Rect;
+
+/**
+ * Detection driven by an {@link ObjectTracker}. Between full detections every
+ * known object is only confirmed in a small search window around its
+ * predicted position. An object that is not confirmed in its window is
+ * searched again in a larger region around it; only that region is
+ * detected, the rest of the frame is not. A full detection of the frame runs
+ * every fullInterval frames to find new objects, and whenever the parameters
+ * change.
+ *
+ * The full detection is done by an {@link IncrementalDetector}, so a full
+ * frame in a still scene is cheap as well. Circles are found by the same
+ * {@link PipDetector} in the full frames and in the windows, so their radii
+ * agree between both. An instance keeps the tracker state and is not
+ * thread-safe, use one per camera.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class TrackingDetector {
+
+	// the region searched for a lost object, in search windows
+	private static final int LOST_REGION_SCALE = 3;
+
+	private final RectDetector rectDetector = new RectDetector();
+	// preprocessing of the current window, shared by the pip and rectangle
+	// detectors
+	private final FramePreprocessor preprocessor = new FramePreprocessor();
+	private PipDetector pipDetector = new CircleDetector();
+	private final ObjectTracker tracker;
+	private final IncrementalDetector fullDetector;
+	private final int fullInterval;
+	private final int margin;
+	private final CircleList circles = new CircleList();
+	private final List<DetectedShape> shapes = new ArrayList<>();
+	private final List<Rect> lost = new ArrayList<>();
+	private DetectorParams lastParams;
+	private DetectionResult lastResult;
+	private int frames;
+	private boolean lastFull;
+	private int regions;
+
+	/**
+	 * @param tracker
+	 *            tracker to feed
+	 * @param fullDetector
+	 *            detector of the full frames, circles and shapes
+	 * @param fullInterval
+	 *            frames between two full detections, 1 detects every frame
+	 *            completely
+	 * @param margin
+	 *            pixels added to every search window
+	 */
+	public TrackingDetector(ObjectTracker tracker, IncrementalDetector fullDetector, int fullInterval, int margin) {
+		if (fullInterval < 1) {
+			throw new IllegalArgumentException("fullInterval must be positive");
+		}
+		this.tracker = tracker;
+		this.fullDetector = fullDetector;
+		this.fullInterval = fullInterval;
+		this.margin = margin;
+		fullDetector.setPipDetector(pipDetector);
+	}
+
+	/**
+	 * Full detections with a Hough pip detector of its own.
+	 */
+	public TrackingDetector(ObjectTracker tracker, int fullInterval, int margin) {
+		this(tracker, new IncrementalDetector(32, true), fullInterval, margin);
+	}
+
+	/**
+	 * @param pipDetector
+	 *            engine for the circles of the full frames and of the search
+	 *            windows, Hough by default; a different engine forces a full
+	 *            detection of the next frame
+	 */
+	public void setPipDetector(PipDetector pipDetector) {
+		if (pipDetector != this.pipDetector) {
+			this.pipDetector = pipDetector;
+			fullDetector.setPipDetector(pipDetector);
+			lastParams = null;
+		}
+	}
+
+	/**
+	 * Forget the tracks and the last frame when the scene is replaced, by
+	 * another picture or camera; the next frame is detected completely.
+	 */
+	public void reset() {
+		tracker.clear();
+		fullDetector.reset();
+		lastParams = null;
+		frames = 0;
+	}
+
+	public ObjectTracker tracker() {
+		return tracker;
+	}
+
+	/**
+	 * @return true when the last frame was detected completely
+	 */
+	public boolean lastFull() {
+		return lastFull;
+	}
+
+	/**
+	 * @return regions around lost objects detected in the last frame, 0
+	 *         after a full detection
+	 */
+	public int lastRegions() {
+		return regions;
+	}
+
+	/**
+	 * @return circles and shapes of the last frame, copies that stay valid
+	 *         after the next call; the preview is the one of the full
+	 *         detector, null when the frame was not detected completely
+	 */
+	public DetectionResult lastResult() {
+		return lastResult;
+	}
+
+	/**
+	 * @param frame
+	 *            BGR or gray frame, not modified
+	 * @param params
+	 *            parameter snapshot
+	 * @return live tracks after the frame
+	 */
+	public List<Track> detect(Mat frame, DetectorParams params) {
+		long start = System.nanoTime();
+		circles.clear();
+		shapes.clear();
+		regions = 0;
+		Mat preview = null;
+		boolean full = frames++ % fullInterval == 0 || tracker.tracks().isEmpty() || !params.equals(lastParams);
+		lastParams = params;
+		if (full) {
+			DetectionResult result = fullDetector.detect(frame, params);
+			CircleList found = result.circles();
+			for (int i = 0; i < found.size(); i++) {
+				circles.add(found, i);
+			}
+			shapes.addAll(result.shapes());
+			preview = result.preview();
+		} else {
+			confirm(frame, params);
+			for (Rect region : lost) {
+				redetect(frame, params, region);
+				regions++;
+			}
+		}
+		lastFull = full;
+		lastResult = new DetectionResult(circles.copy(), new ArrayList<>(shapes), preview,
+				System.nanoTime() - start);
+		return tracker.update(circles, shapes);
+	}
+
+	/**
+	 * Search every track in its window; the regions of the tracks not found
+	 * are collected in {@link #lost}.
+	 */
+	private void confirm(Mat frame, DetectorParams params) {
+		lost.clear();
+		for (Track track : tracker.tracks()) {
+			Rect window = clip(track.searchWindow(margin), frame);
+			if (window == null || !confirm(frame, params, track, window)) {
+				Rect region = clip(track.searchWindow(LOST_REGION_SCALE * margin + (int) track.size()), frame);
+				if (region != null) {
+					lost.add(region);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return false when the track is not found in its window
+	 */
+	private boolean confirm(Mat frame, DetectorParams params, Track track, Rect window) {
+		Mat view = frame.submat(window);
+		preprocessor.reset(view);
+		DetectionResult result;
+		if (track.kind() == Track.Kind.CIRCLE) {
+			// the radius is known, search only around it; detected radii
+			// jitter by a few pixels between frames
+			double slack = 2 + track.size() * 0.3;
+			DetectorParams local = new DetectorParams(params.dp(), params.minDist(), params.accumulator(),
+					Math.max(1, track.size() - slack), track.size() + slack, params.dilate(), params.erode());
+			result = pipDetector.detect(preprocessor, local);
+		} else {
+			result = rectDetector.detect(preprocessor, params);
+		}
+		view.release();
+
+		if (track.kind() == Track.Kind.CIRCLE) {
+			// a circle further away than the margin belongs to another track
+			CircleList candidates = result.circles();
+			int best = -1;
+			double bestDist = margin;
+			for (int i = 0; i < candidates.size(); i++) {
+				double d = Math.hypot(candidates.x(i) + window.x - track.predictedX(),
+						candidates.y(i) + window.y - track.predictedY());
+				if (d < bestDist) {
+					best = i;
+					bestDist = d;
+				}
+			}
+			if (best >= 0) {
+				circles.add(candidates.x(best) + window.x, candidates.y(best) + window.y, candidates.r(best),
+						candidates.score(best));
+				return true;
+			}
+			return false;
+		}
+		DetectedShape best = null;
+		double bestDist = margin;
+		for (DetectedShape s : result.shapes()) {
+			if (!s.kind().name().equals(track.kind().name())) {
+				continue;
+			}
+			double d = Math.hypot(center(s, 0) + window.x - track.predictedX(),
+					center(s, 1) + window.y - track.predictedY());
+			if (d < bestDist) {
+				best = s;
+				bestDist = d;
+			}
+		}
+		if (best != null) {
+			shapes.add(moved(best, window.x, window.y));
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Detect circles and shapes in the region of a lost object; objects
+	 * already found in their own windows are not added twice.
+	 */
+	private void redetect(Mat frame, DetectorParams params, Rect region) {
+		Mat view = frame.submat(region);
+		preprocessor.reset(view);
+		DetectionResult found = pipDetector.detect(preprocessor, params);
+		DetectionResult foundShapes = rectDetector.detect(preprocessor, params);
+		view.release();
+
+		CircleList candidates = found.circles();
+		for (int i = 0; i < candidates.size(); i++) {
+			double x = candidates.x(i) + region.x;
+			double y = candidates.y(i) + region.y;
+			if (!nearCircle(x, y, Math.max(candidates.r(i), 1))) {
+				circles.add(x, y, candidates.r(i), candidates.score(i));
+			}
+		}
+		for (DetectedShape s : foundShapes.shapes()) {
+			double x = center(s, 0) + region.x;
+			double y = center(s, 1) + region.y;
+			if (!nearShape(x, y)) {
+				shapes.add(moved(s, region.x, region.y));
+			}
+		}
+	}
+
+	private boolean nearCircle(double x, double y, double distance) {
+		for (int i = 0; i < circles.size(); i++) {
+			if (Math.hypot(circles.x(i) - x, circles.y(i) - y) < distance) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean nearShape(double x, double y) {
+		for (DetectedShape s : shapes) {
+			if (Math.hypot(center(s, 0) - x, center(s, 1) - y) < margin) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return bounding box center x (axis 0) or y (axis 1)
+	 */
+	private static double center(DetectedShape shape, int axis) {
+		double min = Double.MAX_VALUE;
+		double max = -Double.MAX_VALUE;
+		for (int i = 0; i < shape.cornerCount(); i++) {
+			double v = axis == 0 ? shape.corner(i).x : shape.corner(i).y;
+			min = Math.min(min, v);
+			max = Math.max(max, v);
+		}
+		return (min + max) / 2;
+	}
+
+	private static DetectedShape moved(DetectedShape shape, int dx, int dy) {
+		Point[] corners = shape.corners();
+		for (Point p : corners) {
+			p.x += dx;
+			p.y += dy;
+		}
+		return new DetectedShape(shape.kind(), corners);
+	}
+
+	private static Rect clip(Rect r, Mat frame) {
+		int x0 = Math.max(0, r.x);
+		int y0 = Math.max(0, r.y);
+		int x1 = Math.min(frame.cols(), r.x + r.width);
+		int y1 = Math.min(frame.rows(), r.y + r.height);
+		if (x1 - x0 < 8 || y1 - y0 < 8) {
+			return null;
+		}
+		return new Rect(x0, y0, x1 - x0, y1 - y0);
+	}
+}
@@ -0,0 +1,264 @@
+package lv.brick_vision.video;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.opencv.core.Mat;
+
+import lv.brick_vision.core.FrameRing;
+import lv.brick_vision.core.FrameSource;
+import lv.brick_vision.core.FrameSources;
+import lv.brick_vision.core.PacedSource;
+
+/**
+ * Capture and processing lane of one camera, or of any other
+ * {@link FrameSources frame source} paced in real time. The camera is read on the
+ * lane's own {@link CaptureThread} into a {@link FrameRing}; every new frame
+ * schedules the processing of the newest frame on a worker pool shared by
+ * all lanes. A lane has at most one frame in processing, so its processor
+ * needs no synchronization, and a slow lane only drops its own frames
+ * instead of taking workers from the others.
+ *
+ * The statistics are updated by the worker after every frame and may be
+ * read from any thread.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class CameraLane {
+
+	/**
+	 * Work done on every frame of a lane, called by one worker at a time.
+	 */
+	public interface Processor {
+
+		/**
+		 * @param frame
+		 *            newest frame, owned by the lane and valid until the
+		 *            method returns; may be modified
+		 * @return image to show, may be the frame itself
+		 */
+		Mat process(Mat frame);
+	}
+
+	/**
+	 * Receives every processed frame, on the worker thread.
+	 */
+	public interface Listener {
+
+		/**
+		 * @param lane
+		 *            lane the frame belongs to
+		 * @param shown
+		 *            result of the processor, valid until the method returns
+		 */
+		void processed(CameraLane lane, Mat shown);
+	}
+
+	// weight of the newest frame in the moving averages
+	private static final double SMOOTHING = 0.1;
+
+	private final String source;
+	private final Processor processor;
+	private final FrameRing ring = new FrameRing();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+	private FrameSource frames;
+	private CaptureThread captureThread;
+	private volatile Executor pool;
+	private volatile Listener listener;
+
+	private volatile long processed;
+	private volatile long failed;
+	private volatile double fps;
+	private volatile double latencyMillis;
+	private long lastDone;
+
+	/**
+	 * @param device
+	 *            camera index
+	 * @param processor
+	 *            work done on every frame
+	 */
+	public CameraLane(int device, Processor processor) {
+		this(String.valueOf(device), processor);
+	}
+
+	/**
+	 * @param source
+	 *            frame source spec for {@link FrameSources#open}
+	 * @param processor
+	 *            work done on every frame
+	 */
+	public CameraLane(String source, Processor processor) {
+		this.source = source;
+		this.processor = processor;
+	}
+
+	/**
+	 * @return frame source spec of the lane
+	 */
+	public String source() {
+		return source;
+	}
+
+	/**
+	 * @param listener
+	 *            receives every processed frame; may be null
+	 */
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Open the camera and start reading it.
+	 *
+	 * @param pool
+	 *            workers shared by all lanes
+	 * @return false when the source could not be opened
+	 */
+	public boolean start(Executor pool) {
+		this.pool = pool;
+		try {
+			frames = FrameSources.open(source, PacedSource.Mode.REAL_TIME);
+		} catch (IOException e) {
+			return false;
+		}
+		captureThread = new CaptureThread(frames, ring, this::frameArrived);
+		captureThread.setName("capture " + source);
+		captureThread.start();
+		return true;
+	}
+
+	/**
+	 * Stop reading and release the camera; a frame in processing is
+	 * finished by its worker.
+	 *
+	 * @throws InterruptedException
+	 *             when interrupted while waiting for the capture thread
+	 */
+	public void stop() throws InterruptedException {
+		if (captureThread != null) {
+			captureThread.shutdown();
+			captureThread = null;
+		}
+		if (frames != null) {
+			frames.close();
+			frames = null;
+		}
+	}
+
+	/**
+	 * @return ring the camera frames are published to
+	 */
+	FrameRing ring() {
+		return ring;
+	}
+
+	/**
+	 * Schedule the processing of the newest frame unless it is already
+	 * scheduled; called by the capture thread after every frame.
+	 */
+	void frameArrived() {
+		Executor workers = pool;
+		if (workers != null && scheduled.compareAndSet(false, true)) {
+			try {
+				workers.execute(this::processNewest);
+			} catch (RejectedExecutionException e) {
+				// the station is shutting down
+				scheduled.set(false);
+			}
+		}
+	}
+
+	/**
+	 * @param pool
+	 *            workers the frames are processed on
+	 */
+	void setPool(Executor pool) {
+		this.pool = pool;
+	}
+
+	private void processNewest() {
+		try {
+			Mat frame = ring.take(0);
+			if (frame != null) {
+				long captured = ring.takenTimestamp();
+				try {
+					Mat shown = processor.process(frame);
+					Listener l = listener;
+					if (l != null) {
+						l.processed(this, shown);
+					}
+				} catch (RuntimeException e) {
+					failed++;
+					System.err.println("Camera " + source + ": " + e);
+				}
+				long done = System.nanoTime();
+				updateStats(captured, done);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			scheduled.set(false);
+		}
+		// a frame published while this one was processed
+		if (ring.hasNewFrame()) {
+			frameArrived();
+		}
+	}
+
+	private void updateStats(long captured, long done) {
+		double latency = (done - captured) / 1e6;
+		latencyMillis = processed == 0 ? latency : latencyMillis + SMOOTHING * (latency - latencyMillis);
+		if (lastDone != 0) {
+			double rate = 1e9 / Math.max(1, done - lastDone);
+			fps = fps == 0 ? rate : fps + SMOOTHING * (rate - fps);
+		}
+		lastDone = done;
+		processed++;
+	}
+
+	/**
+	 * @return processed frames per second, moving average
+	 */
+	public double fps() {
+		return fps;
+	}
+
+	/**
+	 * @return time from the capture of a frame to the end of its processing
+	 *         in milliseconds, moving average
+	 */
+	public double latencyMillis() {
+		return latencyMillis;
+	}
+
+	/**
+	 * @return frames processed so far
+	 */
+	public long processed() {
+		return processed;
+	}
+
+	/**
+	 * @return frames replaced by a newer one before a worker took them
+	 */
+	public long dropped() {
+		return ring.dropped();
+	}
+
+	/**
+	 * @return frames whose processing threw an exception
+	 */
+	public long failed() {
+		return failed;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("camera %s: %.1f fps, %.0f ms, %d dropped", source, fps, latencyMillis, dropped());
+	}
+}
@@ -0,0 +1,113 @@
+package lv.brick_vision.video;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives any number of cameras in one process: every camera has its own
+ * {@link CameraLane} (capture thread and frame ring), and all lanes share one
+ * fixed pool of workers, one per core by default. Each lane keeps at most one
+ * frame on the pool, so the pool queue is bounded by the number of lanes and
+ * adding cameras scales until every core is busy; beyond that every lane
+ * drops frames instead of falling behind.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class CameraStation {
+
+	private final int threads;
+	private final List<CameraLane> lanes = new ArrayList<>();
+	private ExecutorService pool;
+
+	/**
+	 * @param threads
+	 *            workers shared by all lanes
+	 */
+	public CameraStation(int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("A station needs at least one worker, got " + threads);
+		}
+		this.threads = threads;
+	}
+
+	/**
+	 * One worker per core.
+	 */
+	public CameraStation() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * @param device
+	 *            camera index
+	 * @param processor
+	 *            work done on every frame of the camera
+	 * @return the new lane, started with the station
+	 */
+	public CameraLane addLane(int device, CameraLane.Processor processor) {
+		return addLane(String.valueOf(device), processor);
+	}
+
+	/**
+	 * @param source
+	 *            camera index, video file, image directory or recording
+	 * @param processor
+	 *            work done on every frame of the source
+	 * @return the new lane, started with the station
+	 */
+	public CameraLane addLane(String source, CameraLane.Processor processor) {
+		CameraLane lane = new CameraLane(source, processor);
+		lanes.add(lane);
+		return lane;
+	}
+
+	/**
+	 * @return lanes in the order they were added
+	 */
+	public List<CameraLane> lanes() {
+		return Collections.unmodifiableList(lanes);
+	}
+
+	/**
+	 * Open all cameras and start reading them.
+	 *
+	 * @return lanes whose camera could not be opened
+	 */
+	public List<CameraLane> start() {
+		pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "lane worker");
+			t.setDaemon(true);
+			return t;
+		});
+		List<CameraLane> failed = new ArrayList<>();
+		for (CameraLane lane : lanes) {
+			if (!lane.start(pool)) {
+				failed.add(lane);
+			}
+		}
+		return failed;
+	}
+
+	/**
+	 * Stop all cameras and wait shortly for the frames in processing.
+	 *
+	 * @throws InterruptedException
+	 *             when interrupted while waiting
+	 */
+	public void stop() throws InterruptedException {
+		for (CameraLane lane : lanes) {
+			lane.stop();
+		}
+		if (pool != null) {
+			pool.shutdown();
+			pool.awaitTermination(1, TimeUnit.SECONDS);
+			pool = null;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package lv.brick_vision.video;
+
+import java.io.IOException;
+
+import org.opencv.core.Mat;
+
+import lv.brick_vision.core.FrameRing;
+import lv.brick_vision.core.FrameSource;
+
+/**
+ * Reads an opened frame source as fast as it delivers frames and publishes
+ * them to a {@link FrameRing}, so a slow detection never delays the next
+ * camera read and no stale frames pile up in the driver buffer. The
+ * processing side takes the newest frame from the ring whenever it is ready.
+ *
+ * An endless source (a camera) that has no frame is retried; a finite one
+ * ends the thread at its end, as does a read error.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class CaptureThread extends Thread {
+
+	private final FrameSource source;
+	private final FrameRing ring;
+	private final Runnable onFrame;
+	private volatile boolean running = true;
+
+	/**
+	 * @param source
+	 *            opened source, read only by this thread until
+	 *            {@link #shutdown()} returns
+	 * @param ring
+	 *            ring the frames are published to, closed when the thread
+	 *            ends
+	 */
+	public CaptureThread(FrameSource source, FrameRing ring) {
+		this(source, ring, null);
+	}
+
+	/**
+	 * @param source
+	 *            opened source, read only by this thread until
+	 *            {@link #shutdown()} returns
+	 * @param ring
+	 *            ring the frames are published to, closed when the thread
+	 *            ends
+	 * @param onFrame
+	 *            called on this thread after every published frame, must not
+	 *            block; may be null
+	 */
+	public CaptureThread(FrameSource source, FrameRing ring, Runnable onFrame) {
+		super("capture");
+		this.source = source;
+		this.ring = ring;
+		this.onFrame = onFrame;
+		setDaemon(true);
+	}
+
+	@Override
+	public void run() {
+		try {
+			boolean endless = source.length() < 0;
+			while (running) {
+				Mat slot = ring.beginWrite();
+				if (read(slot)) {
+					ring.publish();
+					if (onFrame != null) {
+						onFrame.run();
+					}
+				} else {
+					ring.cancelWrite();
+					if (!endless) {
+						break;
+					}
+					// no frame yet, do not spin on a camera that is warming up
+					try {
+						Thread.sleep(10);
+					} catch (InterruptedException e) {
+						break;
+					}
+				}
+			}
+		} finally {
+			ring.close();
+		}
+	}
+
+	private boolean read(Mat slot) {
+		try {
+			return source.read(slot) && !slot.empty();
+		} catch (IOException e) {
+			System.err.println("Capture from " + source + " stopped: " + e.getMessage());
+			running = false;
+			return false;
+		}
+	}
+
+	/**
+	 * Stop reading and wait for the current read to finish; the source can
+	 * be closed afterwards.
+	 *
+	 * @throws InterruptedException
+	 *             when interrupted while waiting
+	 */
+	public void shutdown() throws InterruptedException {
+		running = false;
+		join();
+	}
+
+	/**
+	 * @return the ring the frames are published to
+	 */
+	public FrameRing ring() {
+		return ring;
+	}
+}
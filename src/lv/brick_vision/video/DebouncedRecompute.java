@@ -0,0 +1,103 @@
+package lv.brick_vision.video;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Runs a computation on its own thread when its inputs change, instead of
+ * polling on a timer. Requests closer together than the delay, such as the
+ * events of a dragged slider, are merged into one run after the last of them.
+ * A request during a run supersedes it: the run is told so through its
+ * {@link BooleanSupplier}, skips its remaining steps and does not show its
+ * result, and the new run starts right after it. Without requests no thread
+ * is busy.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class DebouncedRecompute {
+
+	private final Consumer<BooleanSupplier> job;
+	private final long delayMillis;
+	private final ScheduledExecutorService executor;
+	private final AtomicLong generation = new AtomicLong();
+	private final AtomicLong completed = new AtomicLong();
+	private ScheduledFuture<?> pending;
+
+	/**
+	 * @param job
+	 *            computation, given a supplier that turns true once a newer
+	 *            request supersedes the run
+	 * @param delayMillis
+	 *            quiet time after the last request before the job runs
+	 */
+	public DebouncedRecompute(Consumer<BooleanSupplier> job, long delayMillis) {
+		this.job = job;
+		this.delayMillis = delayMillis;
+		this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread thread = new Thread(r, "recompute");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Run the job after the delay, superseding a waiting or running one; may
+	 * be called from any thread.
+	 */
+	public synchronized void request() {
+		long g = generation.incrementAndGet();
+		if (pending != null) {
+			pending.cancel(false);
+		}
+		if (!executor.isShutdown()) {
+			pending = executor.schedule(() -> run(g), delayMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void run(long g) {
+		BooleanSupplier superseded = () -> g != generation.get();
+		if (superseded.getAsBoolean()) {
+			return;
+		}
+		try {
+			job.accept(superseded);
+			if (!superseded.getAsBoolean()) {
+				completed.incrementAndGet();
+			}
+		} catch (RuntimeException e) {
+			System.err.println("Recompute failed: " + e);
+		}
+	}
+
+	/**
+	 * @return runs that were not superseded
+	 */
+	public long completed() {
+		return completed.get();
+	}
+
+	/**
+	 * Drop a waiting request and wait for a running job to finish, however
+	 * long it takes; the job's inputs can be released or used by another
+	 * thread afterwards.
+	 *
+	 * @throws InterruptedException
+	 *             when interrupted while waiting, the job may still run then
+	 */
+	public void shutdown() throws InterruptedException {
+		synchronized (this) {
+			generation.incrementAndGet();
+			executor.shutdownNow();
+		}
+		while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+			// the job is told it is superseded and returns after its current step
+		}
+	}
+}
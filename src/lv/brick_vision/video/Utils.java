@@ -1,9 +1,13 @@
 package lv.brick_vision.video;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferByte;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.opencv.core.Mat;
 
+import lv.brick_vision.core.MatConverter;
+
 import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.embed.swing.SwingFXUtils;
@@ -41,6 +45,30 @@ public final class Utils
 		}
 	}
 	
+	/**
+	 * Convert a Mat object (OpenCV) in the corresponding Image for JavaFX,
+	 * going through the pooled image of the converter; only the JavaFX image
+	 * is new for every frame
+	 *
+	 * @param frame
+	 *            the {@link Mat} representing the current frame
+	 * @param converter
+	 *            converter owned by the calling thread
+	 * @return the {@link Image} to show
+	 */
+	public static Image mat2Image(Mat frame, MatConverter converter)
+	{
+		try
+		{
+			return SwingFXUtils.toFXImage(converter.toBufferedImage(frame), null);
+		}
+		catch (Exception e)
+		{
+			System.err.println("Cannot convert the Mat obejct: " + e);
+			return null;
+		}
+	}
+	
 	/**
 	 * Generic method for putting element running on a non-JavaFX thread on the
 	 * JavaFX thread, to properly update the UI
@@ -57,6 +85,34 @@ public final class Utils
 		});
 	}
 	
+	/**
+	 * Wait until a shut down executor has finished its running task, also
+	 * when interrupted; the interrupt is kept for the caller. Whatever the
+	 * task used can be released or handed to another thread afterwards.
+	 * 
+	 * @param executor
+	 *            the executor, already shut down
+	 */
+	public static void awaitTermination(ExecutorService executor)
+	{
+		boolean interrupted = false;
+		while (!executor.isTerminated())
+		{
+			try
+			{
+				executor.awaitTermination(1, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException e)
+			{
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
 	/**
 	 * Support for the {@link mat2image()} method
 	 * 
@@ -10,7 +10,6 @@ import javax.imageio.ImageIO;
 
 import org.opencv.core.Mat;
 import org.opencv.imgproc.Imgproc;
-import org.opencv.videoio.VideoCapture;
 
 
 import javafx.embed.swing.SwingFXUtils;
@@ -19,6 +18,11 @@ import javafx.fxml.FXML;
 import javafx.scene.control.Button;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
+import lv.brick_vision.core.FrameRing;
+import lv.brick_vision.core.FrameSource;
+import lv.brick_vision.core.FrameSources;
+import lv.brick_vision.core.MatConverter;
+import lv.brick_vision.video.CaptureThread;
 import lv.brick_vision.video.Utils;
 
 /**
@@ -48,8 +52,15 @@ public class FXController
 	
 	// a timer for acquiring the video stream
 	private ScheduledExecutorService timer;
-	// the OpenCV object that realizes the video capture
-	private VideoCapture capture = new VideoCapture();
+	// the camera, or the recording set with -Dbrick_vision.source; set on the
+	// JavaFX thread, read by the timer thread
+	private volatile FrameSource source;
+	// reads the camera into a ring of frames, the timer only processes them
+	private volatile CaptureThread captureThread;
+	// pooled image for the frames shown by the timer
+	private final MatConverter converter = new MatConverter();
+	// longest wait for a new camera frame in milliseconds
+	private static final long FRAME_WAIT = 100;
 	// a flag to change the button behavior
 	private boolean cameraActive = false;
 	// the id of the camera to be used
@@ -74,12 +85,21 @@ public class FXController
 		if (!this.cameraActive)
 		{
 			// start the video capture
-			this.capture.open(cameraId);
+			try
+			{
+				this.source = FrameSources.openConfigured(String.valueOf(cameraId));
+			}
+			catch (IOException e)
+			{
+				System.err.println(e.getMessage());
+			}
 			
 			// is the video stream available?
-			if (this.capture.isOpened())
+			if (this.source != null)
 			{
 				this.cameraActive = true;
+				this.captureThread = new CaptureThread(this.source, new FrameRing());
+				this.captureThread.start();
 				
 				// grab a frame every 33 ms (30 frames/sec)
 				Runnable frameGrabber = new Runnable() {
@@ -89,9 +109,13 @@ public class FXController
 					{
 						// effectively grab and process a single frame
 						Mat frame = grabFrame();
-						// convert and show the frame
-						Image imageToShow = Utils.mat2Image(frame);
-						updateImageView(currentFrame, imageToShow);
+						// keep the last image when no new frame arrived
+						if (frame != null)
+						{
+							// convert and show the frame
+							Image imageToShow = Utils.mat2Image(frame, converter);
+							updateImageView(currentFrame, imageToShow);
+						}
 					}
 				};
 				
@@ -123,24 +147,24 @@ public class FXController
 	 * @author Janis Karklins
 	 * Get a frame from the opened video stream (if any) and save img at set period.
 	 *
-	 * @return the {@link Mat} to show
+	 * @return the {@link Mat} to show, null when no new frame arrived
 	 */
 	private Mat grabFrame()
 	{
-		// init everything
-		Mat frame = new Mat();
+		Mat frame = null;
+		CaptureThread captureThread = this.captureThread;
 		
 		// check if the capture is open
-		if (this.capture.isOpened())
+		if (captureThread != null)
 		{
 			try
 			{
-				// read the current frame
-				this.capture.read(frame);
+				// newest frame of the capture thread, the ones in between are dropped
+				frame = captureThread.ring().take(FRAME_WAIT);
 				
-				// if the frame is not empty, process it
+				// if a new frame arrived, process it
 				
-				if (!frame.empty())
+				if (frame != null)
 				{
 					
 					Imgproc.cvtColor(frame, frame, Imgproc.COLOR_BGR2GRAY);
@@ -180,24 +204,31 @@ public class FXController
 	private void stopAcquisition()
 	{
 		if (this.timer!=null && !this.timer.isShutdown())
+		{
+			// stop the timer and wait for a frame still being read
+			this.timer.shutdown();
+			Utils.awaitTermination(this.timer);
+		}
+		
+		if (this.captureThread != null)
 		{
 			try
 			{
-				// stop the timer
-				this.timer.shutdown();
-				this.timer.awaitTermination(33, TimeUnit.MILLISECONDS);
+				// the camera must not be read anymore when it is released
+				this.captureThread.shutdown();
 			}
 			catch (InterruptedException e)
 			{
-				// log any exception
-				System.err.println("Exception in stopping the frame capture, trying to release the camera now... " + e);
+				System.err.println("Exception in stopping the capture thread, trying to release the camera now... " + e);
 			}
+			this.captureThread = null;
 		}
 		
-		if (this.capture.isOpened())
+		if (this.source != null)
 		{
 			// release the camera
-			this.capture.release();
+			this.source.close();
+			this.source = null;
 		}
 	}
 	
@@ -1,27 +1,43 @@
 package lv.brick_vision.video.dice;
 
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.util.Vector;
+import java.io.IOException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 
 import org.opencv.core.Mat;
-import org.opencv.core.MatOfByte;
-import org.opencv.core.Point;
-import org.opencv.core.Scalar;
 import org.opencv.core.Size;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
-import org.opencv.videoio.VideoCapture;
+
+import lv.brick_vision.core.FrameRing;
+import lv.brick_vision.core.FrameSource;
+import lv.brick_vision.core.FrameSources;
+import lv.brick_vision.core.MatConverter;
+import lv.brick_vision.detect.BlobPipDetector;
+import lv.brick_vision.detect.CircleDetector;
+import lv.brick_vision.detect.DetectionResult;
+import lv.brick_vision.detect.DetectorParams;
+import lv.brick_vision.detect.IncrementalDetector;
+import lv.brick_vision.detect.Overlay;
+import lv.brick_vision.detect.PipDetector;
+import lv.brick_vision.detect.PyramidDetector;
+import lv.brick_vision.video.CaptureThread;
+import lv.brick_vision.video.DebouncedRecompute;
+import lv.brick_vision.video.Utils;
 
 import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
 import javafx.scene.image.Image;
@@ -64,6 +80,12 @@ public class ObjRecognitionController {
 	private Slider minRadiusSlider;
 	@FXML
 	private Slider maxRadiusSlider;
+	// FXML check box for the coarse-to-fine full resolution detection
+	@FXML
+	private CheckBox fullResolutionCheckBox;
+	// FXML choice box for the pip detection engine
+	@FXML
+	private ChoiceBox<PipDetector> engineChoiceBox;
 	// FXML label to show the current values set with the sliders
 	@FXML
 	private Label parameterValues;
@@ -72,15 +94,46 @@ public class ObjRecognitionController {
 	
 	// a timer for acquiring the video stream
 	private ScheduledExecutorService timer;
-	// the OpenCV object that performs the video capture
-	private VideoCapture capture = new VideoCapture();
+	// the camera, or the recording set with -Dbrick_vision.source; set on the
+	// JavaFX thread, read by the timer thread
+	private volatile FrameSource source;
+	// reads the camera into a ring of frames, the timer only processes them
+	private volatile CaptureThread captureThread;
 	// a flag to change the button behavior
 	private boolean cameraActive;
 	private boolean imageActive;
+	// the selected image, decoded once, and its copy at the working size
+	private Mat still;
+	private Mat stillResized;
+	// detects the image again when a parameter changes
+	private DebouncedRecompute stillRecompute;
 	
 	// property for object binding
 	private ObjectProperty<String> parameterValuesProp;
 	private ObjectProperty<String> resultValueProp;
+	
+	// last parameter snapshot published by the sliders, read by the timer thread
+	private final AtomicReference<DetectorParams> params = new AtomicReference<>(DetectorParams.DICE_DEFAULTS);
+	// circles re-detected in the changed 32x32 tiles only; used by the camera
+	// timer or the image recompute thread, never both: a mode is stopped and
+	// its thread has terminated before the other one starts
+	private final IncrementalDetector incrementalDetector = new IncrementalDetector(32, false);
+	// pooled images for the frames shown, used by the same threads as the
+	// detector above
+	private final MatConverter converter = new MatConverter();
+	// camera frame at the working size; the ring slots keep the camera size
+	// and are not reallocated for every frame
+	private final Mat working = new Mat();
+	// detect without downsizing, set on the JavaFX thread
+	private volatile boolean fullResolution;
+	// pip detection engine of the incremental detection, set on the JavaFX thread
+	private volatile PipDetector pipDetector = new CircleDetector();
+	// max circles refined at full resolution per frame
+	private static final int REFINE_BUDGET = 64;
+	// longest wait for a new camera frame in milliseconds
+	private static final long FRAME_WAIT = 100;
+	// quiet time after a slider change before the image is detected again
+	private static final long RECOMPUTE_DELAY = 50;
 		
 	/**
 	 * The action triggered by pushing the button "Select Camera" on the GUI
@@ -99,11 +152,15 @@ public class ObjRecognitionController {
 		
 		if (!this.cameraActive) {
 			// start the video capture
-			this.capture.open(0);
+			this.source = this.openSource();
 			
 			// is the video stream available?
-			if (this.capture.isOpened()) {
+			if (this.source != null) {
+				// the image mode shares the detector, stop it first
+				this.stopImage();
 				this.cameraActive = true;
+				this.captureThread = new CaptureThread(this.source, new FrameRing());
+				this.captureThread.start();
 				
 				// grab a frame
 				Runnable frameGrabber = new Runnable() {
@@ -111,7 +168,10 @@ public class ObjRecognitionController {
 					@Override
 					public void run() {
 						Image imageToShow = grabFrame();
-						originalFrame.setImage(imageToShow);
+						// keep the last image when no new frame arrived
+						if (imageToShow != null) {
+							originalFrame.setImage(imageToShow);
+						}
 					}
 				};
 				this.timer = Executors.newSingleThreadScheduledExecutor();
@@ -126,22 +186,7 @@ public class ObjRecognitionController {
 			}
 		}
 		else {
-			// the camera is not active at this point
-			this.cameraActive = false;
-			// update again the button content
-			this.cameraButton.setText("Start Camera");
-			
-			
-			// stop the timer
-			try {
-				this.timer.shutdown();
-				this.timer.awaitTermination(33, TimeUnit.MILLISECONDS);
-			}
-			catch (InterruptedException e) {
-				System.err.println("Exception in stopping the frame capture, trying to release the camera now... " + e);
-			}
-			// release the camera
-			this.capture.release();
+			this.stopCamera();
 		}
 	}
 	
@@ -161,6 +206,8 @@ public class ObjRecognitionController {
 		this.imageViewProperties(this.cannyImage, 400);
 		
 		if (!this.imageActive) {
+			// the camera shares the detector, stop it first
+			this.stopCamera();
 			this.imageActive = true;
 			
 			FileChooser chooser = new FileChooser();
@@ -168,80 +215,126 @@ public class ObjRecognitionController {
 			chooser.getExtensionFilters().addAll(filterPNG);
 			final File file = chooser.showOpenDialog(null);
 			
-			if (!(file == null)) {
-				// grab a frame
-				Runnable frameGrabber = new Runnable() {
-					
-					@Override
-					public void run() {
-						Image imageToShow = grabImg(file);
-						originalFrame.setImage(imageToShow);
-					}
-				};
-				this.timer = Executors.newSingleThreadScheduledExecutor();
-				this.timer.scheduleAtFixedRate(frameGrabber, 0, 1000, TimeUnit.MILLISECONDS);
+			if (file != null && this.loadImage(file)) {
+				// detect once now and again whenever a parameter changes
+				this.stillRecompute = new DebouncedRecompute(this::showImage, RECOMPUTE_DELAY);
+				this.stillRecompute.request();
 				
 				// update the button content
 				this.imageButton.setText("Pause");
 			}
-			else if (file == null) {
-				// the camera is not active at this point
+			else {
+				// no image is active at this point
 				this.imageActive = false;
 				// update again the button content
 				this.imageButton.setText("Select Image");
-				this.timer.shutdown();
-				// release the camera
-				this.capture.release();
 			}
 		}
 		else {
-			// the camera is not active at this point
-			this.imageActive = false;
-			// update again the button content
-			this.imageButton.setText("Select Image");
-			// stop the timer
-			try {
-				this.timer.shutdown();
-				this.timer.awaitTermination(33, TimeUnit.MILLISECONDS);
-			}
-			catch (InterruptedException e) {
-				System.err.println("Exception in stopping the frame capture, trying to release the camera now... " + e);
-			}
-			// release the camera
-			this.capture.release();
-		}		
+			this.stopImage();
+		}
+	}
+	
+	/**
+	 * stop the camera and its timer, release the camera
+	 */
+	private void stopCamera() {
+		if (!this.cameraActive) {
+			return;
+		}
+		// the camera is not active at this point
+		this.cameraActive = false;
+		// update again the button content
+		this.cameraButton.setText("Start Camera");
+		
+		// stop the timer and wait for a frame still being detected, the
+		// detector and the working Mat are free only afterwards
+		this.timer.shutdown();
+		Utils.awaitTermination(this.timer);
+		try {
+			// the camera must not be read anymore when it is released
+			this.captureThread.shutdown();
+			this.onFXThread(this.resultValueProp, "dropped frames: " + this.captureThread.ring().dropped() + " of "
+					+ this.captureThread.ring().published());
+		}
+		catch (InterruptedException e) {
+			System.err.println("Exception in stopping the frame capture, trying to release the camera now... " + e);
+		}
+		// release the camera
+		this.closeSource();
+	}
+	
+	/**
+	 * stop detecting the selected image and release it
+	 */
+	private void stopImage() {
+		if (!this.imageActive) {
+			return;
+		}
+		// the image is not active at this point
+		this.imageActive = false;
+		// update again the button content
+		this.imageButton.setText("Select Image");
+		// stop detecting the image
+		try {
+			this.stillRecompute.shutdown();
+		}
+		catch (InterruptedException e) {
+			System.err.println("Exception in stopping the image detection, releasing the image now... " + e);
+		}
+		this.stillRecompute = null;
+		this.still.release();
+		this.stillResized.release();
+	}
+	
+	/**
+	 * open the camera 0, or the frame source given with -Dbrick_vision.source
+	 * @return
+	 *            source paced in real time, null when it can not be opened
+	 */
+	private FrameSource openSource() {
+		try {
+			return FrameSources.openConfigured("0");
+		}
+		catch (IOException e) {
+			System.err.println(e.getMessage());
+			return null;
+		}
+	}
+	
+	/**
+	 * close the frame source if one is open
+	 */
+	private void closeSource() {
+		if (this.source != null) {
+			this.source.close();
+			this.source = null;
+		}
 	}
 	
 	/**
-	 * change frame width and height, call method to find circles in frame
+	 * read a frame, change its width and height, call method to find circles in frame
 	 * @return
 	 *            frame with found circles
 	 */
 	private Image grabFrame() {
 		Image imageToShow = null;
-		Mat frame = new Mat();
+		CaptureThread captureThread = this.captureThread;
 		
-		int originWidth = frame.width();
-		int originHeight = frame.height();
-		
-		if (originWidth > 640 && originHeight > 480){
-			if (originWidth > originHeight || originWidth == originHeight) {
-				Imgproc.resize(frame, frame, new Size(640, 640*originHeight/originWidth));
-			}
-			else if (originWidth < originHeight) {
-				Imgproc.resize(frame, frame, new Size(480*originWidth/originHeight, 480));
-			}
-		}
-		
-		if (this.capture.isOpened()) {
+		if (captureThread != null) {
 			try {
-				// read the current frame
-				this.capture.read(frame);
+				// newest frame of the capture thread, the ones in between are dropped
+				Mat frame = captureThread.ring().take(FRAME_WAIT);
 				
-				// if the frame is not empty, process it
-				if (!frame.empty()) {
+				// if a new frame arrived, process it
+				if (frame != null) {
+					// keep full resolution for the pyramid detection
+					boolean fullResolution = this.fullResolution;
+					if (!fullResolution) {
+						frame = this.resize(frame, this.working);
+					}
 					// count circles and show them
-					frame = this.findCircles(frame);
+					frame = this.findCircles(frame, fullResolution, () -> false);
 					
 					// convert the Mat object (OpenCV) to Image (JavaFX)
 					imageToShow = mat2Image(frame);
@@ -256,127 +349,175 @@ public class ObjRecognitionController {
 	}
 	
 	/**
-	 * change image width and height, call method to find circles in image
+	 * decode the selected image once and keep it with a copy at the working
+	 * size
 	 * @param file
 	 *            input file selected png image
 	 * @return
-	 *            image with found circles
+	 *            false when the image can not be read
 	 */
-	private Image grabImg(File file) {
-		Mat frame = new Mat();
-		Image imageToShow = null;
-		
+	private boolean loadImage(File file) {
+		Mat frame = Imgcodecs.imread(file.getAbsolutePath());
+		if (frame.empty()) {
+			System.err.println("Cannot read " + file);
+			return false;
+		}
+		this.still = frame;
+		this.stillResized = this.resize(frame, new Mat());
+		if (this.stillResized == frame) {
+			this.stillResized = frame.clone();
+		}
+		return true;
+	}
+	
+	/**
+	 * find circles in a copy of the selected image and show it, called by
+	 * the recompute thread
+	 * @param superseded
+	 *            true once newer parameters wait, the result is not shown
+	 *            then
+	 */
+	private void showImage(BooleanSupplier superseded) {
+		// keep full resolution for the pyramid detection
+		boolean fullResolution = this.fullResolution;
+		Mat frame = (fullResolution ? this.still : this.stillResized).clone();
 		try {
-			String path = file.getAbsolutePath();
-			frame = Imgcodecs.imread(path);
-			
-			int originWidth = frame.width();
-			int originHeight = frame.height();
-			
-			if (originWidth > 640 && originHeight > 480){
-				if (originWidth > originHeight || originWidth == originHeight) {
-					Imgproc.resize(frame, frame, new Size(640, 640*originHeight/originWidth));
-				}
-				else if (originWidth < originHeight) {
-					Imgproc.resize(frame, frame, new Size(480*originWidth/originHeight, 480));
-				}
-			}
 			// find circles and show them
-			frame = this.findCircles(frame);
-			
-			// convert the Mat object (OpenCV) to Image (JavaFX)
-			imageToShow = mat2Image(frame);
-		} catch (Exception e) {
-			System.err.print("ERROR");
-			e.printStackTrace();
+			frame = this.findCircles(frame, fullResolution, superseded);
+			if (!superseded.getAsBoolean()) {
+				this.onFXThread(this.originalFrame.imageProperty(), mat2Image(frame));
+			}
+		}
+		finally {
+			frame.release();
+		}
+	}
+	
+	/**
+	 * detect the selected image again, if there is one
+	 */
+	private void requestRecompute() {
+		if (this.stillRecompute != null) {
+			this.stillRecompute.request();
 		}
-		return imageToShow;
 	}
 	
 	/**
-	 * method controls parameters with GUI sliders; finds circles after given parameters,
-	 * count all found circles and draw them on the original frame/image
+	 * change frame width and height to fit 640x480, preserving the ratio
+	 * @param frame
+	 *            frame/image to resize, not modified
+	 * @param dst
+	 *            destination of the resized frame, reused between frames
+	 * @return
+	 *            dst, or frame when it already fits
+	 */
+	private Mat resize(Mat frame, Mat dst) {
+		int originWidth = frame.width();
+		int originHeight = frame.height();
+		
+		if (originWidth > 640 && originHeight > 480){
+			if (originWidth > originHeight || originWidth == originHeight) {
+				Imgproc.resize(frame, dst, new Size(640, 640*originHeight/originWidth));
+				return dst;
+			}
+			else if (originWidth < originHeight) {
+				Imgproc.resize(frame, dst, new Size(480*originWidth/originHeight, 480));
+				return dst;
+			}
+		}
+		return frame;
+	}
+	
+	/**
+	 * Register slider listeners, every slider change publishes a new parameter
+	 * snapshot
+	 */
+	@FXML
+	private void initialize() {
+		ChangeListener<Number> publish = (observable, oldValue, newValue) -> this.publishParams();
+		for (Slider slider : new Slider[] { this.dilateSlider, this.dpSlider, this.minDistSlider,
+				this.accumulatorSlider, this.minRadiusSlider, this.maxRadiusSlider }) {
+			slider.valueProperty().addListener(publish);
+		}
+		this.publishParams();
+		this.fullResolutionCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
+			this.fullResolution = newValue;
+			// the pyramid detection always uses Hough circles
+			this.engineChoiceBox.setDisable(newValue);
+			this.requestRecompute();
+		});
+		this.engineChoiceBox.getItems().addAll(this.pipDetector, new BlobPipDetector());
+		this.engineChoiceBox.getSelectionModel().selectFirst();
+		this.engineChoiceBox.valueProperty().addListener((observable, oldValue, newValue) -> {
+			this.pipDetector = newValue;
+			this.requestRecompute();
+		});
+	}
+	
+	/**
+	 * read the sliders on the JavaFX thread and publish them as one immutable
+	 * snapshot for the frame grabbing thread; a selected image is detected
+	 * again when the snapshot differs from the last one
+	 */
+	private void publishParams() {
+		DetectorParams params = new DetectorParams(this.dpSlider.getValue(), this.minDistSlider.getValue(),
+				this.accumulatorSlider.getValue(), this.minRadiusSlider.getValue(), this.maxRadiusSlider.getValue(),
+				this.dilateSlider.getValue(), DetectorParams.DICE_DEFAULTS.erode());
+		if (!params.equals(this.params.getAndSet(params))) {
+			this.requestRecompute();
+		}
+	}
+	
+	/**
+	 * finds circles with the last published parameters, count all found
+	 * circles and draw them on the original frame/image
 	 * @param frame
 	 *            frame/image to analyze
+	 * @param fullResolution
+	 *            locate circles on a pyramid level of about 640 pixels and
+	 *            refine them at the full resolution of the frame
+	 * @param superseded
+	 *            true once newer parameters wait; nothing is shown or drawn
+	 *            from then on
 	 * @return
 	 *            original frame/image with drawn circles
 	 */
-	private Mat findCircles(Mat frame) {
-		Mat gray = new Mat();
-		Mat circles = new Mat();
-		Mat edges = new Mat();
-		Mat morph = new Mat();
-		
-		// vector to count all circles
-		Vector<Mat> circlesList = new Vector<Mat>();
-		
-		// make frame 8-bit single-channel, blur it
-		Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGR2GRAY);
-		Imgproc.medianBlur(gray, gray, 3);
-		
-		// morphological operators
-		double dilateElem = this.dilateSlider.getValue();
-		// inverse ratio of the accumulator resolution to the image resolution
-		double dp = this.dpSlider.getValue();
-		// min distance between circle centers
-		double minDist = this.minDistSlider.getValue();
-		// threshold for the circle centers at the detection stage
-		double accumulator = this.accumulatorSlider.getValue();		
-		// min/max Radius
-		double minRadius = this.minRadiusSlider.getValue();
-		double maxRadius = this.maxRadiusSlider.getValue();
-		
-		double lowThreshold = 240;
-		double highThreshold = 255;
-		// find edges
-		Imgproc.Canny(gray, edges, lowThreshold, highThreshold);
-		
-		// dilate canny image
-		Mat dilateElement = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(dilateElem, dilateElem));
-		Imgproc.dilate(edges, morph, dilateElement);
-				
-		// display canny image
-		this.onFXThread(this.cannyImage.imageProperty(), this.mat2Image(morph));
-		
-		// find circles
-		Imgproc.HoughCircles(morph, circles, Imgproc.CV_HOUGH_GRADIENT, dp, minDist, 255, accumulator,
-				(int) minRadius, (int) maxRadius);
-		
-		// coordinates of circle center and circle radius
-		double x = 0.0;
-		double y = 0.0;
-		int r = 0;
+	private Mat findCircles(Mat frame, boolean fullResolution, BooleanSupplier superseded) {
+		DetectorParams params = this.params.get();
+		DetectionResult result;
+		if (fullResolution) {
+			PyramidDetector pyramid = new PyramidDetector(PyramidDetector.levelsFor(frame.width(), 640), REFINE_BUDGET);
+			result = pyramid.detect(frame, params);
+		}
+		else {
+			// only the changed parts of the frame are searched again
+			this.incrementalDetector.setPipDetector(this.pipDetector);
+			result = this.incrementalDetector.detect(frame, params);
+		}
 		
-		for (int i = 0; i < circles.cols(); i++) {
-			double data[] = circles.get(0, i);
-			if (data == null)
-				break;
-			
-			for (int j = 0; j < data.length; j++) {
-				x = data[0];
-				y = data[1];
-				r = (int) data[2];
-			}
-			Point center = new Point(x, y);
-			// draw circle center
-			Imgproc.circle(frame, center, 3, new Scalar(0, 255, 0), -1, 8, 0);
-			// draw circle outline
-			Imgproc.circle(frame, center, r, new Scalar(0, 0, 255), 1, 16, 0);
-			
-			System.out.println("r: " + r);
-			// count all circles
-			circlesList.add(circles);
+		// display canny image, an unchanged frame has none
+		if (result.preview() != null && !superseded.getAsBoolean()) {
+			this.onFXThread(this.cannyImage.imageProperty(), this.mat2Image(result.preview()));
+		}
+		if (fullResolution) {
+			result.preview().release();
+		}
+		if (superseded.getAsBoolean()) {
+			return frame;
 		}
 		
-		// display values
-		String valuesToPrint = "dilate: " + String.format("%.0f", dilateElem) + "\tdp: " + String.format("%.1f", dp) + 
-				"\tmin Dist: " + String.format("%.1f", minDist) + "\taccumulator: " + String.format("%.1f", accumulator) +
-				"\tmin Radius: " + String.format("%.1f", minRadius) + "\tmax Radius: " + String.format("%.1f", maxRadius);
-		String resultToPrint = "Result: " + String.format("%d", circlesList.size());
-		this.onFXThread(this.parameterValuesProp, valuesToPrint);
-		this.onFXThread(this.resultValueProp, resultToPrint);
+		// draw circle centers and outlines
+		Overlay.drawCircles(frame, result.circles());
 		
-		System.out.println("\t");
+		// display values
+		String valuesToPrint = "dilate: " + String.format("%.0f", params.dilate()) + "\tdp: " + String.format("%.1f", params.dp()) + 
+				"\tmin Dist: " + String.format("%.1f", params.minDist()) + "\taccumulator: " + String.format("%.1f", params.accumulator()) +
+				"\tmin Radius: " + String.format("%.1f", params.minRadius()) + "\tmax Radius: " + String.format("%.1f", params.maxRadius());
+		String resultToPrint = "Result: " + String.format("%d", result.circles().size());
+		if (!superseded.getAsBoolean()) {
+			this.onFXThread(this.parameterValuesProp, valuesToPrint);
+			this.onFXThread(this.resultValueProp, resultToPrint);
+		}
 		return frame;
 	}
 	
@@ -398,19 +539,15 @@ public class ObjRecognitionController {
 	
 	/**
 	 * Convert a {@link Mat} object (OpenCV) in the corresponding {@link Image}
-	 * for JavaFX
+	 * for JavaFX, copying the pixels through the pooled image of the
+	 * converter instead of encoding a PNG
 	 * 
 	 * @param frame
 	 *            the {@link Mat} representing the current frame
 	 * @return the {@link Image} to show
 	 */
 	private Image mat2Image(Mat frame) {
-		// create a temporary buffer
-		MatOfByte buffer = new MatOfByte();
-		// encode the frame in the buffer, according to the PNG format
-		Imgcodecs.imencode(".png", frame, buffer);
-		// build and return an Image created from the image encoded in the buffer
-		return new Image(new ByteArrayInputStream(buffer.toArray()));
+		return Utils.mat2Image(frame, this.converter);
 	}
 	
 	/**
@@ -2,34 +2,51 @@ package lv.brick_vision.video.edge;
 
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.IOException;
 import java.util.List;
-import java.util.Vector;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 
 import org.opencv.core.Mat;
-import org.opencv.core.MatOfPoint;
-import org.opencv.core.MatOfPoint2f;
-import org.opencv.core.Point;
-import org.opencv.core.Rect;
-import org.opencv.core.Scalar;
 import org.opencv.core.Size;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
-import org.opencv.videoio.VideoCapture;
 
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.stage.FileChooser;
+import lv.brick_vision.core.FrameRing;
+import lv.brick_vision.core.FrameSource;
+import lv.brick_vision.core.FrameSources;
+import lv.brick_vision.core.MatConverter;
+import lv.brick_vision.detect.BlobPipDetector;
+import lv.brick_vision.detect.CircleDetector;
+import lv.brick_vision.detect.DetectionResult;
+import lv.brick_vision.detect.DetectorParams;
+import lv.brick_vision.detect.DieFace;
+import lv.brick_vision.detect.FramePreprocessor;
+import lv.brick_vision.detect.IncrementalDetector;
+import lv.brick_vision.detect.ObjectTracker;
+import lv.brick_vision.detect.Overlay;
+import lv.brick_vision.detect.PipDetector;
+import lv.brick_vision.detect.RectDetector;
+import lv.brick_vision.detect.RegionPipDetector;
+import lv.brick_vision.detect.Track;
+import lv.brick_vision.detect.TrackingDetector;
+import lv.brick_vision.video.CaptureThread;
+import lv.brick_vision.video.DebouncedRecompute;
 import lv.brick_vision.video.Utils;
 
 /**
@@ -70,6 +87,12 @@ public class ObjRecognitionController {
     private Slider minRadiusSlider;
     @FXML
     private Slider maxRadiusSlider;
+    // FXML check box for the two-stage (faces, then pips) detection
+    @FXML
+    private CheckBox facesOnlyCheckBox;
+    // FXML choice box for the pip detection engine
+    @FXML
+    private ChoiceBox<PipDetector> engineChoiceBox;
     // FXML label to show the current values set with the sliders
     @FXML
     private Label parameterValues;
@@ -80,16 +103,54 @@ public class ObjRecognitionController {
     
     // a timer for acquiring the video stream
     private ScheduledExecutorService timer;
-    // the OpenCV object that performs the video capture
-    private VideoCapture capture = new VideoCapture();
+    // the camera, or the recording set with -Dbrick_vision.source; set on the
+    // JavaFX thread, read by the timer thread
+    private volatile FrameSource source;
+    // reads the camera into a ring of frames, the timer only processes them
+    private volatile CaptureThread captureThread;
     // a flag to change the button behavior
     private boolean cameraActive;
     private boolean pictureActive;
+    // the selected picture, decoded and resized once
+    private Mat still;
+    // detects the picture again when a parameter changes
+    private DebouncedRecompute stillRecompute;
     
     // property for object binding
     private ObjectProperty<String> parameterValuesProp;
     private ObjectProperty<String> radiusValuesProp;
     private ObjectProperty<String> resultValueProp;
+    
+    // last parameter snapshot published by the sliders, read by the timer thread
+    private final AtomicReference<DetectorParams> params = new AtomicReference<>(DetectorParams.EDGE_DEFAULTS);
+    // circles and rectangles, re-detected in the changed 32x32 tiles only
+    private final IncrementalDetector incrementalDetector = new IncrementalDetector(32, true);
+    // persistent ids for circles and shapes, a die may move 40 pixels per frame
+    private final ObjectTracker tracker = new ObjectTracker(40, 2);
+    // known objects confirmed in their search windows, only the regions of lost
+    // ones re-detected; the whole frame every 10th frame
+    private final TrackingDetector trackingDetector = new TrackingDetector(this.tracker, this.incrementalDetector, 10, 16);
+    // last die whose value changed, shown next to the result
+    private String lastValueChange = "";
+    private final RegionPipDetector regionPipDetector = new RegionPipDetector();
+    // search pips only inside the found die faces, set on the JavaFX thread
+    private volatile boolean facesOnly;
+    // pip detection engine of the incremental detection, set on the JavaFX thread
+    private volatile PipDetector pipDetector = new CircleDetector();
+    // preprocessing Mats and kernels reused between frames; like the detectors
+    // above used by the camera timer or the picture recompute thread, never
+    // both: a mode is stopped and its thread has terminated before the other
+    // one starts
+    private final FramePreprocessor preprocessor = new FramePreprocessor();
+    // pooled images for the frames shown, used by the same threads
+    private final MatConverter converter = new MatConverter();
+    // camera frame at the working size; the ring slots keep the camera size
+    // and are not reallocated for every frame
+    private final Mat working = new Mat();
+    // longest wait for a new camera frame in milliseconds
+    private static final long FRAME_WAIT = 100;
+    // quiet time after a slider change before the picture is detected again
+    private static final long RECOMPUTE_DELAY = 50;
    	 
     /**
      * The action triggered by pushing the button "Select Camera" on the GUI
@@ -110,14 +171,18 @@ public class ObjRecognitionController {
    	 
    	 if (!this.cameraActive) {
    		 // start the video capture
-   		 this.capture.open(0);
+   		 this.source = this.openSource();
    		 
    		 // is the video stream available?
-   		 if (this.capture.isOpened()) {
+   		 if (this.source != null) {
    			 this.cameraActive = true;
+   			 this.captureThread = new CaptureThread(this.source, new FrameRing());
+   			 this.captureThread.start();
    			 
-   			 this.pictureActive = false;
-   			 this.pictureButton.setText("Select Picture");
+   			 // the picture mode shares the detectors, stop it first
+   			 this.stopPicture();
+   			 // the tracks of the picture do not belong to the camera
+   			 this.trackingDetector.reset();
    			 
    			 // grab a frame
    			 Runnable frameGrabber = new Runnable() {
@@ -125,7 +190,10 @@ public class ObjRecognitionController {
    				 @Override
    				 public void run() {
    					 Image imageToShow = grabFrame();
-   					 originalFrame.setImage(imageToShow);
+   					 // keep the last image when no new frame arrived
+   					 if (imageToShow != null) {
+   						 originalFrame.setImage(imageToShow);
+   					 }
    				 }
    			 };
    			 this.timer = Executors.newSingleThreadScheduledExecutor();
@@ -140,23 +208,7 @@ public class ObjRecognitionController {
    		 }
    	 }
    	 else {
-   		 // the camera is not active at this point
-   		 this.cameraActive = false;
-   		 // update again the button content
-   		 this.cameraButton.setText("Start Camera");
-   		 
-   		 
-   		 // stop the timer
-   		 try {
-   			 this.timer.shutdown();
-   			 this.timer.awaitTermination(33, TimeUnit.MILLISECONDS);
-   		 }
-   		 catch (InterruptedException e) {
-   			 // log the exception
-   			 System.err.println("Exception in stopping the frame capture, trying to release the camera now... " + e);
-   		 }
-   		 // release the camera
-   		 this.capture.release();
+   		 this.stopCamera();
    	 }
     }
     
@@ -178,6 +230,8 @@ public class ObjRecognitionController {
    	 this.imageViewProperties(this.cannyImage, 400);
    	 
    	 if (!this.pictureActive) {
+   		 // the camera shares the detectors, stop it first
+   		 this.stopCamera();
    		 this.pictureActive = true;
    		 
    		 FileChooser chooser = new FileChooser();
@@ -185,114 +239,183 @@ public class ObjRecognitionController {
    		 chooser.getExtensionFilters().addAll(filterPNG);
    		 final File file = chooser.showOpenDialog(null);
    		 
-   		 // grab a frame
-   		 Runnable frameGrabber = new Runnable() {
+   		 if (file != null && this.loadPicture(file)) {
+   			 // detect once now and again whenever a parameter changes
+   			 this.stillRecompute = new DebouncedRecompute(this::showPicture, RECOMPUTE_DELAY);
+   			 this.stillRecompute.request();
    			 
-   			 @Override
-   			 public void run() {
-   				 Image imageToShow = grabImg(file);
-   				 originalFrame.setImage(imageToShow);
-   			 }
-   		 };
-   		 this.timer = Executors.newSingleThreadScheduledExecutor();
-   		 this.timer.scheduleAtFixedRate(frameGrabber, 0, 1000, TimeUnit.MILLISECONDS);
-   		 
-   		 // update the button content
-   		 this.pictureButton.setText("Pause");
-   	 }
-   	 else {
-   		 // the camera is not active at this point
-   		 this.pictureActive = false;
-   		 // update again the button content
-   		 this.pictureButton.setText("Select Picture");
-   		 
-   		 // stop the timer
-   		 try {
-   			 this.timer.shutdown();
-   			 this.timer.awaitTermination(33, TimeUnit.MILLISECONDS);
+   			 // update the button content
+   			 this.pictureButton.setText("Pause");
    		 }
-   		 catch (InterruptedException e) {
-   			 System.err.println("Exception in stopping the frame capture, trying to release the camera now... " + e);
+   		 else {
+   			 // no picture is active at this point
+   			 this.pictureActive = false;
    		 }
-   		 // release the camera
-   		 this.capture.release();
-   	 }   	 
+   	 }
+   	 else {
+   		 this.stopPicture();
+   	 }
+    }
+    
+    /**
+     * stop the camera and its timer, release the camera
+     */
+    private void stopCamera() {
+   	 if (!this.cameraActive) {
+   		 return;
+   	 }
+   	 // the camera is not active at this point
+   	 this.cameraActive = false;
+   	 // update again the button content
+   	 this.cameraButton.setText("Start Camera");
+   	 
+   	 // stop the timer and wait for a frame still being detected, the
+   	 // detectors and the working Mat are free only afterwards
+   	 this.timer.shutdown();
+   	 Utils.awaitTermination(this.timer);
+   	 try {
+   		 // the camera must not be read anymore when it is released
+   		 this.captureThread.shutdown();
+   		 Utils.onFXThread(this.resultValueProp, "dropped frames: " + this.captureThread.ring().dropped() + " of "
+   				 + this.captureThread.ring().published());
+   	 }
+   	 catch (InterruptedException e) {
+   		 // log the exception
+   		 System.err.println("Exception in stopping the frame capture, trying to release the camera now... " + e);
+   	 }
+   	 // release the camera
+   	 this.closeSource();
+    }
+    
+    /**
+     * stop detecting the selected picture and release it
+     */
+    private void stopPicture() {
+   	 if (!this.pictureActive) {
+   		 return;
+   	 }
+   	 // the picture is not active at this point
+   	 this.pictureActive = false;
+   	 // update again the button content
+   	 this.pictureButton.setText("Select Picture");
+   	 
+   	 // stop detecting the picture
+   	 try {
+   		 this.stillRecompute.shutdown();
+   	 }
+   	 catch (InterruptedException e) {
+   		 System.err.println("Exception in stopping the picture detection, releasing the picture now... " + e);
+   	 }
+   	 this.stillRecompute = null;
+   	 this.still.release();
     }
     
     /**
-     * change image width and height, call method to find circles in image
+     * decode the selected picture and resize it once
      * @param file
      *        	input file selected png image
      * @return
-     *        	image with found circles
+     *        	false when the picture can not be read
      */
-    private Image grabImg(File file) {
-   	 Mat frame = new Mat();
-   	 Image imageToShow = null;
-   	 
+    private boolean loadPicture(File file) {
+   	 Mat frame = Imgcodecs.imread(file.getAbsolutePath());
+   	 if (frame.empty()) {
+   		 System.err.println("Cannot read " + file);
+   		 return false;
+   	 }
+   	 this.still = this.resize(frame, new Mat());
+   	 if (this.still != frame) {
+   		 frame.release();
+   	 }
+   	 // the tracks of the last picture or camera do not belong to this one
+   	 this.trackingDetector.reset();
+   	 return true;
+    }
+    
+    /**
+     * find circles and rectangles in a copy of the selected picture and show
+     * it, called by the recompute thread
+     * @param superseded
+     *        	true once newer parameters wait, the result is not shown then
+     */
+    private void showPicture(BooleanSupplier superseded) {
+   	 Mat frame = this.still.clone();
    	 try {
-   		 String path = file.getAbsolutePath();
-   		 frame = Imgcodecs.imread(path);
-   		 
-   		 int originWidth = frame.width();
-   		 int originHeight = frame.height();
-   		 
-   		 if (originWidth > 640 && originHeight > 480){
-   			 if (originWidth > originHeight || originWidth == originHeight) {
-   				 Imgproc.resize(frame, frame, new Size(640, 640*originHeight/originWidth));
-   			 }
-   			 else if (originWidth < originHeight) {
-   				 Imgproc.resize(frame, frame, new Size(480*originWidth/originHeight, 480));
-   			 }
+   		 if (this.facesOnly) {
+   			 frame = this.findPipsInFaces(this.preprocessor.reset(frame), superseded);
    		 }
-   		 // find circles and show them
-   		 frame = this.findCircles(frame);
-   		 // find Rectangle
-   		 frame = this.findRect(frame);
-   		 
-   		 // convert the Mat object (OpenCV) to Image (JavaFX)
-   		 imageToShow = Utils.mat2Image(frame);
-   	 } catch (Exception e) {
-   		 System.err.print("ERROR");
-   		 e.printStackTrace();
+   		 else {
+   			 // only a parameter change makes the incremental detector search again
+   			 frame = this.findCirclesAndRect(frame, superseded);
+   		 }
+   		 if (!superseded.getAsBoolean()) {
+   			 Utils.onFXThread(this.originalFrame.imageProperty(), Utils.mat2Image(frame, this.converter));
+   		 }
+   	 } finally {
+   		 frame.release();
+   	 }
+    }
+    
+    /**
+     * detect the selected picture again, if there is one
+     */
+    private void requestRecompute() {
+   	 if (this.stillRecompute != null) {
+   		 this.stillRecompute.request();
+   	 }
+    }
+    
+    /**
+     * open the camera 0, or the frame source given with -Dbrick_vision.source
+     * @return
+     *        	source paced in real time, null when it can not be opened
+     */
+    private FrameSource openSource() {
+   	 try {
+   		 return FrameSources.openConfigured("0");
+   	 } catch (IOException e) {
+   		 System.err.println(e.getMessage());
+   		 return null;
+   	 }
+    }
+    
+    /**
+     * close the frame source if one is open
+     */
+    private void closeSource() {
+   	 if (this.source != null) {
+   		 this.source.close();
+   		 this.source = null;
    	 }
-   	 return imageToShow;
     }
     
     /**
-     * change frame width and height, call method to find circles in frame
+     * read a frame, change its width and height, call method to find circles in frame
      * @return
      *        	frame with found circles
      */
     private Image grabFrame() {
    	 Image imageToShow = null;
-   	 Mat frame = new Mat();
-   	 
-   	 int originWidth = frame.width();
-   	 int originHeight = frame.height();
-   	 
-   	 if (originWidth > 640 && originHeight > 480){
-   		 if (originWidth > originHeight || originWidth == originHeight) {
-   			 Imgproc.resize(frame, frame, new Size(640, 640*originHeight/originWidth));
-   		 }
-   		 else if (originWidth < originHeight) {
-   			 Imgproc.resize(frame, frame, new Size(480*originWidth/originHeight, 480));
-   		 }
-   	 }
+   	 CaptureThread captureThread = this.captureThread;
    	 
-   	 if (this.capture.isOpened()) {
+   	 if (captureThread != null) {
    		 try {
-   			 // read the current frame
-   			 this.capture.read(frame);
+   			 // newest frame of the capture thread, the ones in between are dropped
+   			 Mat frame = captureThread.ring().take(FRAME_WAIT);
    			 
-   			 // if the frame is not empty, process it
-   			 if (!frame.empty()) {
-   				 // count circles and show them
-   				 frame = this.findCircles(frame);
-   				 frame = this.findRect(frame);
+   			 // if a new frame arrived, process it
+   			 if (frame != null) {
+   				 frame = this.resize(frame, this.working);
+   				 if (this.facesOnly) {
+   					 frame = this.findPipsInFaces(this.preprocessor.reset(frame), () -> false);
+   				 }
+   				 else {
+   					 // find circles and rectangles in the parts of the frame that changed
+   					 frame = this.findCirclesAndRect(frame, () -> false);
+   				 }
    				 
    				 // convert the Mat object (OpenCV) to Image (JavaFX)
-   				 imageToShow = Utils.mat2Image(frame);
+   				 imageToShow = Utils.mat2Image(frame, this.converter);
    			 }
    		 }
    		 catch (Exception e) {
@@ -304,217 +427,166 @@ public class ObjRecognitionController {
     }
     
     /**
-     *
+     * change frame width and height to fit 640x480, preserving the ratio
      * @param frame
-     *       	 
+     *        	frame/image to resize, not modified
+     * @param dst
+     *        	destination of the resized frame, reused between frames
      * @return
-     *       	 
+     *        	dst, or frame when it already fits
      */
-    private Mat findCircles(Mat frame) {
-   	 Mat gray = new Mat();
-   	 Mat circles = new Mat();
-   	 Mat edges = new Mat();
-   	 Mat morph = new Mat();
-   	 
-   	 // vector to count all circles
-   	 Vector<Mat> circlesList = new Vector<Mat>();
-   	 
-   	 double lowThreshold = 240;
-   	 double highThreshold = 255;
-   	 
-   	 // inverse ratio of the accumulator resolution to the image resolution
-   	 double dp = this.dpSlider.getValue();
-   	 // min distance between circle centers
-   	 double minDist = this.minDistSlider.getValue();
-   	 
-   	 // separate out regions of an image corresponding to objects which we want to analyze
-   	 
-   	 // based on the variation of intensity between object and background pixels
-   	 double dilateElem = this.dilateSlider.getValue();
-   	 double erodeElem = this.erodeSlider.getValue();
-   	 // threshold for the circle centers at the detection stage
-   	 double accumulator = this.accumulatorSlider.getValue();   	 
-   	 // min/max Radius
-   	 double minRadius = this.minRadiusSlider.getValue();
-   	 double maxRadius = this.maxRadiusSlider.getValue();
-   	 
-   	 
-   	 
-   	 // make frame 8-bit single-channel, blur it
-   	 Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGR2GRAY);
-   	 Imgproc.medianBlur(gray, gray, 3);
-   					 
-   	 // find edges
-   	 Imgproc.Canny(gray, edges, lowThreshold, highThreshold);
-   	 
-   	 // morphological operators, dilate with large element, erode with small ones
-   	 Mat dilateElement = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(dilateElem, dilateElem));
-   	 Mat erodeElement = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(erodeElem, erodeElem));
-   	 
-   	 Imgproc.erode(edges, morph, erodeElement);
-   	 Imgproc.erode(edges, morph, erodeElement);
-   	 Imgproc.erode(edges, morph, erodeElement);
-   	 Imgproc.erode(edges, morph, erodeElement);
-   	 
-   	 Imgproc.dilate(edges, morph, dilateElement);
-   	 Imgproc.dilate(edges, morph, dilateElement);
-   	 Imgproc.dilate(edges, morph, dilateElement);
-   	 Imgproc.dilate(edges, morph, dilateElement);
-   	 
-   	 
-   	 // display canny image
-   	 Utils.onFXThread(this.cannyImage.imageProperty(), Utils.mat2Image(morph));
-   	 
-   	 // find circles
-   	 Imgproc.HoughCircles(morph, circles, Imgproc.CV_HOUGH_GRADIENT, dp, minDist, 255, accumulator,
-   			 (int) minRadius, (int) maxRadius);
-   	 
-   	 // coordinates of circle center and circle radius
-   	 double x = 0.0;
-   	 double y = 0.0;
-   	 int r = 0;
+    private Mat resize(Mat frame, Mat dst) {
+   	 int originWidth = frame.width();
+   	 int originHeight = frame.height();
    	 
-   	 for (int i = 0; i < circles.cols(); i++) {
-   		 double data[] = circles.get(0, i);
-   		 if (data == null)
-   			 break;
-   		 
-   		 for (int j = 0; j < data.length; j++) {
-   			 x = data[0];
-   			 y = data[1];
-   			 r = (int) data[2];
+   	 if (originWidth > 640 && originHeight > 480){
+   		 if (originWidth > originHeight || originWidth == originHeight) {
+   			 Imgproc.resize(frame, dst, new Size(640, 640*originHeight/originWidth));
+   			 return dst;
+   		 }
+   		 else if (originWidth < originHeight) {
+   			 Imgproc.resize(frame, dst, new Size(480*originWidth/originHeight, 480));
+   			 return dst;
    		 }
-   		 Point center = new Point(x, y);
-   		 // draw circle center
-   		 Imgproc.circle(frame, center, 3, new Scalar(0, 255, 0), -1, 8, 0);
-   		 // draw circle outline
-   		 Imgproc.circle(frame, center, r, new Scalar(0, 0, 255), 1, 16, 0);
-   		 
-   		 System.out.println("r: " + r);
-   		 // count all circles
-   		 circlesList.add(circles);
    	 }
-   	 
-   	 // display values
-   	 String valuesToPrint = "dp: " + String.format("%.1f", dp) + "\tmin Dist: " + String.format("%.1f", minDist) +
-   			 "\tdilate: " + String.format("%.0f", dilateElem) + "\terode: " +
-   			 String.format("%.0f", erodeElem) + "\taccumulator: " + String.format("%.1f", accumulator);
-   	 String radiusToPrint = "min Radius: " + String.format("%.1f", minRadius) + "\tmax Radius: " + String.format("%.1f", maxRadius);
-   	 String resultToPrint = "Result: " + String.format("%d", circlesList.size());
-   	 Utils.onFXThread(this.parameterValuesProp, valuesToPrint);
-   	 Utils.onFXThread(this.radiusValuesProp, radiusToPrint);
-   	 Utils.onFXThread(this.resultValueProp, resultToPrint);
-   	 
-   	 System.out.println("\t");
    	 return frame;
     }
     
-    @SuppressWarnings("unused")
-	private Mat findRect(Mat frame) {
-   	 
-   	 Mat gray = new Mat();
-   	 Mat edges = new Mat();
-   	 Mat hierarchy = new Mat();
-   	 Mat morph = new Mat();
-   	 
-   	 List<MatOfPoint> contours = new ArrayList<MatOfPoint>();
-   	 MatOfPoint2f matOfPoint2f = new MatOfPoint2f();
-   	 MatOfPoint2f approxCurve = new MatOfPoint2f();
-
-   	 // based on the variation of intensity between object and background pixels
-   	 double dilateElem = this.dilateSlider.getValue();
-   	 double erodeElem = this.erodeSlider.getValue();
-   	 
-   	 
-
-   	 // make frame 8-bit single-channel, blur it
-   			 Imgproc.cvtColor(frame, gray, Imgproc.COLOR_BGR2GRAY);
-   			 Imgproc.medianBlur(gray, gray, 3);
-   			 // Imgproc.blur(gray, gray, new Size(7, 7));
-   			 // Imgproc.equalizeHist(gray, gray);
-   			 // Imgproc.GaussianBlur(gray, gray, new Size(5, 5), 0, 0, Core.BORDER_DEFAULT);
-   	 
-  	//display Canny image
- 			 Imgproc.Canny(gray, edges, 50, 255);
-   	 
-   	 
-	// morphological operators, dilate with large element, erode with small ones
-   	 Mat dilateElement = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(dilateElem, dilateElem));
-   	 Mat erodeElement = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(erodeElem, erodeElem));
-   	 
-   	 Imgproc.erode(edges, morph, erodeElement);
-   	 Imgproc.erode(edges, morph, erodeElement);
-   	 Imgproc.erode(edges, morph, erodeElement);
-   	 Imgproc.erode(edges, morph, erodeElement);
-   	 
-   	 Imgproc.dilate(edges, morph, dilateElement);
-   	 Imgproc.dilate(edges, morph, dilateElement);
-   	 Imgproc.dilate(edges, morph, dilateElement);
-   	 Imgproc.dilate(edges, morph, dilateElement);
- 
+    /**
+     * Register slider listeners, every slider change publishes a new parameter
+     * snapshot
+     */
+    @FXML
+    private void initialize() {
+   	 ChangeListener<Number> publish = (observable, oldValue, newValue) -> this.publishParams();
+   	 for (Slider slider : new Slider[] { this.dpSlider, this.minDistSlider, this.dilateSlider, this.erodeSlider,
+   			 this.accumulatorSlider, this.minRadiusSlider, this.maxRadiusSlider }) {
+   		 slider.valueProperty().addListener(publish);
+   	 }
+   	 this.publishParams();
+   	 this.facesOnlyCheckBox.selectedProperty().addListener((observable, oldValue, newValue) -> {
+   		 this.facesOnly = newValue;
+   		 // the faces are searched for pips by their own detector
+   		 this.engineChoiceBox.setDisable(newValue);
+   		 this.requestRecompute();
+   	 });
+   	 this.engineChoiceBox.getItems().addAll(this.pipDetector, new BlobPipDetector());
+   	 this.engineChoiceBox.getSelectionModel().selectFirst();
+   	 this.engineChoiceBox.valueProperty().addListener((observable, oldValue, newValue) -> {
+   		 this.pipDetector = newValue;
+   		 this.requestRecompute();
+   	 });
+    }
     
-   		 
-   	 
+    /**
+     * read the sliders on the JavaFX thread and publish them as one immutable
+     * snapshot for the frame grabbing thread; a selected picture is detected
+     * again when the snapshot differs from the last one
+     */
+    private void publishParams() {
+   	 DetectorParams params = new DetectorParams(this.dpSlider.getValue(), this.minDistSlider.getValue(),
+   			 this.accumulatorSlider.getValue(), this.minRadiusSlider.getValue(), this.maxRadiusSlider.getValue(),
+   			 this.dilateSlider.getValue(), this.erodeSlider.getValue());
+   	 if (!params.equals(this.params.getAndSet(params))) {
+   		 this.requestRecompute();
+   	 }
+    }
+    
+    /**
+     * finds circles and rectangles with the last published parameters and
+     * draws them; only the changed parts of the frame are searched again, a
+     * frame without changes is not processed at all
+     * @param frame
+     *       	 frame/image to analyze
+     * @param superseded
+     *       	 true once newer parameters wait; nothing is shown or drawn from
+     *       	 then on
+     * @return
+     *       	 original frame/image with drawn circles and shapes
+     */
+    private Mat findCirclesAndRect(Mat frame, BooleanSupplier superseded) {
+   	 DetectorParams params = this.params.get();
+   	 this.trackingDetector.setPipDetector(this.pipDetector);
+   	 List<Track> tracks = this.trackingDetector.detect(frame, params);
+   	 DetectionResult result = this.trackingDetector.lastResult();
+   	 
+   	 // display canny image, it is only produced by a full detection
+   	 if (result.preview() != null && !superseded.getAsBoolean()) {
+   		 Utils.onFXThread(this.cannyImage.imageProperty(), Utils.mat2Image(result.preview(), this.converter));
+   	 }
+   	 if (superseded.getAsBoolean()) {
+   		 return frame;
+   	 }
    	 
+   	 // remember the last die that changed its value
+   	 for (Track track : tracks) {
+   		 if (track.valueChanged()) {
+   			 this.lastValueChange = "\tdie #" + track.id() + ": " + track.previousValue() + " -> " + track.value();
+   		 }
+   	 }
    	 
- 		 //find contours    
-   	 Utils.onFXThread(this.cannyImage.imageProperty(), Utils.mat2Image(morph));
-   						 
-   	 Imgproc.findContours(morph, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+   	 // draw circle centers and outlines, triangles and rectangles, track ids
+   	 Overlay.drawCircles(frame, result.circles());
+   	 Overlay.drawShapes(frame, result.shapes());
+   	 Overlay.drawTracks(frame, tracks);
    	 
+   	 // display values
+   	 String valuesToPrint = "dp: " + String.format("%.1f", params.dp()) + "\tmin Dist: " + String.format("%.1f", params.minDist()) +
+   			 "\tdilate: " + String.format("%.0f", params.dilate()) + "\terode: " +
+   			 String.format("%.0f", params.erode()) + "\taccumulator: " + String.format("%.1f", params.accumulator());
+   	 String radiusToPrint = "min Radius: " + String.format("%.1f", params.minRadius()) + "\tmax Radius: " + String.format("%.1f", params.maxRadius());
+   	 String resultToPrint = "Result: " + String.format("%d", result.circles().size()) + this.lastValueChange;
+   	 if (!superseded.getAsBoolean()) {
+   		 Utils.onFXThread(this.parameterValuesProp, valuesToPrint);
+   		 Utils.onFXThread(this.radiusValuesProp, radiusToPrint);
+   		 Utils.onFXThread(this.resultValueProp, resultToPrint);
+   	 }
+   	 return frame;
+    }
+    
+    /**
+     * finds die faces first and searches pips only inside them, draws the
+     * faces with their pips
+     * @param pre
+     *       	 preprocessor reset to the frame/image to analyze
+     * @param superseded
+     *       	 true once newer parameters wait; nothing is shown or drawn from
+     *       	 then on
+     * @return
+     *       	 original frame/image with drawn faces and pips
+     */
+    private Mat findPipsInFaces(FramePreprocessor pre, BooleanSupplier superseded) {
+   	 Mat frame = pre.frame();
+   	 DetectorParams params = this.params.get();
+   	 List<DieFace> faces = this.regionPipDetector.detect(pre, params);
    	 
-    	// Detect all angles from contours and try to stick them together
-   	 for (int idx = 0; idx >= 0; idx = (int) hierarchy.get(0, idx)[0]) {
-   	 	MatOfPoint contour = contours.get(idx);
-   	 	Rect rect = Imgproc.boundingRect(contour);
-   	 	double contourArea = Imgproc.contourArea(contour);
-   	 	matOfPoint2f.fromList(contour.toList());
-   	 	Imgproc.approxPolyDP(matOfPoint2f, approxCurve, Imgproc.arcLength(matOfPoint2f, true) * 0.02, true);
-   	 	long total = approxCurve.total();
-   			 
-   		 
-   	 	if (total >= 3 && total <= 6) {
-   	     	List<Double> cos = new ArrayList<>();
-   	     	Point[] points = approxCurve.toArray();
-   	     	for (int j = 2; j < total + 1; j++) {
-   	         	cos.add(angle(points[(int) (j % total)], points[j - 2], points[j - 1]));
-   	     	}    
-   	     	if (total == 3) {
-   	    		 Imgproc.line(frame, points[0], points[1], new Scalar(255, 255, 25), 5, 8, 0);
-   	    		 Imgproc.line(frame, points[1], points[2], new Scalar(255, 255, 25), 5, 8, 0);
-   	    		 Imgproc.line(frame, points[2], points[0], new Scalar(255, 255, 25), 5, 8, 0);
-   		     	}
-   	   	 
-   	     	if (total == 4) {
-   		     	//    Any FourAngle figure
-   	     	//    Imgproc.rectangle(frame, points[0], points[2], new Scalar(255, 255, 25), 5, 8, 0);
-   	    		 
-   		     	}    
-   	  	 
-   	    	 
-   	     	// Calculate Angles degrees for Rectangles and Plygons
-   	     	Collections.sort(cos);
-   	     	Double minCos = cos.get(0);
-   	     	Double maxCos = cos.get(cos.size() - 1);
-   	     	boolean isRect = total == 4 && minCos >= -0.8 && maxCos <= 0.8;
-   	     	boolean isPolygon = (total == 5 && minCos >= -0.34 && maxCos <= -0.27) || (total == 6 && minCos >= -0.55 && maxCos <= -0.45);
-   	     	if (isRect) {
-   	    	//      Draw rectangle
-   	     	//    Imgproc.rectangle(frame, points[0], points[2], new Scalar(255, 255, 25), 5, 8, 0);
-   	    		 Imgproc.line(frame, points[0], points[1], new Scalar(255, 255, 25), 5, 8, 0);
-   	    		 Imgproc.line(frame, points[1], points[2], new Scalar(255, 255, 25), 5, 8, 0);
-   	    		 Imgproc.line(frame, points[2], points[3], new Scalar(255, 255, 25), 5, 8, 0);
-   	    		 Imgproc.line(frame, points[3], points[0], new Scalar(255, 255, 25), 5, 8, 0);
-   	    		 
-   	     	}
-   	    	 
-   	     	if (isPolygon){
-   	    		 // Some code for polygon
-   	     	}
-   	 	}
+   	 if (superseded.getAsBoolean()) {
+   		 return frame;
+   	 }
+   	 // display canny image of the faces
+   	 Utils.onFXThread(this.cannyImage.imageProperty(), Utils.mat2Image(pre.morph(RectDetector.CANNY_LOW, RectDetector.CANNY_HIGH, params), this.converter));
+   	 Overlay.drawFaces(frame, faces);
+   	 
+   	 // display values, pips are counted per face
+   	 StringBuilder resultToPrint = new StringBuilder("Result: ");
+   	 for (int i = 0; i < faces.size(); i++) {
+   		 resultToPrint.append(i == 0 ? "" : " + ").append(faces.get(i).pipCount());
+   	 }
+   	 if (faces.isEmpty()) {
+   		 resultToPrint.append(0);
+   	 }
+   	 String valuesToPrint = "dp: " + String.format("%.1f", params.dp()) + "\tdilate: " + String.format("%.0f", params.dilate()) +
+   			 "\terode: " + String.format("%.0f", params.erode()) + "\taccumulator: " + String.format("%.1f", params.accumulator());
+   	 // erode and dilate time of this frame
+   	 String radiusToPrint = "radius from face size\t" + pre.morphology();
+   	 pre.morphology().resetTimings();
+   	 if (!superseded.getAsBoolean()) {
+   		 Utils.onFXThread(this.parameterValuesProp, valuesToPrint);
+   		 Utils.onFXThread(this.radiusValuesProp, radiusToPrint);
+   		 Utils.onFXThread(this.resultValueProp, resultToPrint.toString());
    	 }
    	 return frame;
-}   	 
+    }
     
     /**
      * Set typical {@link ImageView} properties: a fixed width and the
@@ -533,13 +605,4 @@ public class ObjRecognitionController {
     }
     
     
-    // Angle point calculation
-   	 private double angle(Point pt1, Point pt2, Point pt0) {
-   	 	double dx1 = pt1.x - pt0.x;
-   	 	double dy1 = pt1.y - pt0.y;
-   	 	double dx2 = pt2.x - pt0.x;
-   	 	double dy2 = pt2.y - pt0.y;
-   	 	return (dx1*dx2 + dy1*dy2)/Math.sqrt((dx1*dx1 + dy1*dy1)*(dx2*dx2 + dy2*dy2) + 1e-10);
-   	 }
-    
 }
\ No newline at end of file
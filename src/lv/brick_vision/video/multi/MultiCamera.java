@@ -0,0 +1,65 @@
+package lv.brick_vision.video.multi;
+
+import org.opencv.core.Core;
+
+import javafx.application.Application;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+import javafx.scene.layout.BorderPane;
+import javafx.stage.Stage;
+
+/**
+ * The main class of the multi camera application: counts pips on every
+ * table of a station at once, one camera per table, and shows all cameras in
+ * a grid with their frame rate, latency and dropped frames.
+ *
+ * The camera indexes are the program arguments, camera 0 when there are
+ * none: MultiCamera 0 1 2. A video file, image directory or recording can
+ * stand in for a camera: MultiCamera 0 table2.avi
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class MultiCamera extends Application {
+
+	/**
+	 * The main entry point for all JavaFX applications.
+	 */
+	@Override
+	public void start(Stage primaryStage) {
+		try {
+			// load the FXML resource
+			FXMLLoader loader = new FXMLLoader(getClass().getResource("MultiCamera.fxml"));
+			BorderPane root = (BorderPane) loader.load();
+			// set a whitesmoke background
+			root.setStyle("-fx-background-color: whitesmoke;");
+			// create and style a scene
+			Scene scene = new Scene(root, 900, 800);
+			scene.getStylesheets().add(getClass().getResource("application.css").toExternalForm());
+			primaryStage.setTitle("Object Recognition - all cameras");
+			primaryStage.setScene(scene);
+
+			MultiCameraController controller = loader.getController();
+			controller.setDevices(getParameters().getRaw());
+			// stop all cameras on closing the application
+			primaryStage.setOnCloseRequest(event -> controller.setClosed());
+			// show the GUI
+			primaryStage.show();
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Start of the program
+	 * @param args camera indexes or frame source specs
+	 */
+	public static void main(String[] args) {
+		// load the native OpenCV library
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+
+		launch(args);
+	}
+}
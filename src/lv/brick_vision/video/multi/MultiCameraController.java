@@ -0,0 +1,164 @@
+package lv.brick_vision.video.multi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import javafx.application.Platform;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.fxml.FXML;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.TilePane;
+import javafx.scene.layout.VBox;
+import lv.brick_vision.detect.DetectionResult;
+import lv.brick_vision.detect.DetectorParams;
+import lv.brick_vision.detect.IncrementalDetector;
+import lv.brick_vision.detect.Overlay;
+import lv.brick_vision.video.CameraLane;
+import lv.brick_vision.video.CameraStation;
+import lv.brick_vision.video.Utils;
+
+/**
+ * Controller of the multi camera application: one {@link CameraLane} per
+ * camera, all lanes on one {@link CameraStation}, and a grid cell with the
+ * processed frame and the counters of every camera.
+ *
+ * @version 1.0 (2026-10-18)
+ * @since 1.0 (2026-10-18)
+ *
+ */
+public class MultiCameraController {
+
+	// FXML grid with one cell per camera
+	@FXML
+	private TilePane grid;
+	// FXML button to start and stop all cameras
+	@FXML
+	private Button cameraButton;
+	// FXML label with the counters of the whole station
+	@FXML
+	private Label stationValues;
+
+	// frame sources from the command line
+	private final List<String> sources = new ArrayList<>();
+	private CameraStation station;
+	// refreshes the counters once a second
+	private ScheduledExecutorService statsTimer;
+	private boolean camerasActive;
+
+	/**
+	 * @param args
+	 *            camera indexes or other frame source specs, camera 0 when
+	 *            empty
+	 */
+	public void setDevices(List<String> args) {
+		this.sources.clear();
+		this.sources.addAll(args);
+		if (this.sources.isEmpty()) {
+			this.sources.add("0");
+		}
+	}
+
+	/**
+	 * The action triggered by pushing the button "Start cameras" on the GUI
+	 */
+	@FXML
+	private void startCameras() {
+		if (!this.camerasActive) {
+			this.grid.getChildren().clear();
+			this.station = new CameraStation();
+			List<ObjectProperty<String>> counters = new ArrayList<>();
+			for (String source : this.sources) {
+				ImageView view = new ImageView();
+				view.setFitWidth(400);
+				view.setPreserveRatio(true);
+				Label counter = new Label();
+				ObjectProperty<String> counterProp = new SimpleObjectProperty<>();
+				counter.textProperty().bind(counterProp);
+				counters.add(counterProp);
+				this.grid.getChildren().add(new VBox(5, view, counter));
+
+				CameraLane lane = this.station.addLane(source, new DiceCounter());
+				lane.setListener((l, shown) -> Utils.onFXThread(view.imageProperty(), Utils.mat2Image(shown)));
+			}
+			List<CameraLane> failed = this.station.start();
+			for (CameraLane lane : failed) {
+				System.err.println("Failed to open " + lane.source());
+			}
+			this.camerasActive = true;
+
+			this.statsTimer = Executors.newSingleThreadScheduledExecutor();
+			this.statsTimer.scheduleAtFixedRate(() -> this.showCounters(counters), 1, 1, TimeUnit.SECONDS);
+			this.cameraButton.setText("Stop cameras");
+		}
+		else {
+			this.setClosed();
+			this.cameraButton.setText("Start cameras");
+		}
+	}
+
+	/**
+	 * Stop all cameras, also on application close.
+	 */
+	public void setClosed() {
+		if (!this.camerasActive) {
+			return;
+		}
+		this.camerasActive = false;
+		this.statsTimer.shutdown();
+		try {
+			this.station.stop();
+		}
+		catch (InterruptedException e) {
+			System.err.println("Exception in stopping the cameras: " + e);
+		}
+	}
+
+	private void showCounters(List<ObjectProperty<String>> counters) {
+		List<CameraLane> lanes = this.station.lanes();
+		double fps = 0;
+		long dropped = 0;
+		for (int i = 0; i < lanes.size(); i++) {
+			CameraLane lane = lanes.get(i);
+			Utils.onFXThread(counters.get(i), lane.toString());
+			fps += lane.fps();
+			dropped += lane.dropped();
+		}
+		String total = String.format("%d cameras: %.1f fps, %d dropped", lanes.size(), fps, dropped);
+		Platform.runLater(() -> this.stationValues.setText(total));
+	}
+
+	/**
+	 * Pip counting of one camera; every lane has its own detector, as a lane
+	 * processes one frame at a time no locking is needed.
+	 */
+	private static final class DiceCounter implements CameraLane.Processor {
+
+		private final IncrementalDetector detector = new IncrementalDetector(32, false);
+
+		@Override
+		public Mat process(Mat frame) {
+			// same working size as the dice application
+			if (frame.width() > 640) {
+				Imgproc.resize(frame, frame, new Size(640, 640 * frame.height() / frame.width()));
+			}
+			DetectionResult result = this.detector.detect(frame, DetectorParams.DICE_DEFAULTS);
+			Overlay.drawCircles(frame, result.circles());
+			Imgproc.putText(frame, "pips: " + result.circles().size(), new Point(10, 30), Core.FONT_HERSHEY_SIMPLEX, 1,
+					new Scalar(0, 0, 255), 2);
+			return frame;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package lv.brick_vision.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.opencv.core.Rect;
+
+public class BackgroundModelTest {
+
+	@Test
+	public final void testDetectsNewObject() {
+		int w = 20;
+		int h = 10;
+		BackgroundModel model = new BackgroundModel(w, h);
+		byte[] frame = new byte[w * h];
+		byte[] mask = new byte[w * h];
+		Arrays.fill(frame, (byte) 100);
+		for (int i = 0; i < 10; i++) {
+			model.update(frame, mask);
+			assertEquals(0, model.foregroundCount());
+		}
+		// bright 3x2 object at (5, 4)
+		for (int y = 4; y < 6; y++) {
+			for (int x = 5; x < 8; x++) {
+				frame[y * w + x] = (byte) 220;
+			}
+		}
+		model.update(frame, mask);
+		assertEquals(6, model.foregroundCount());
+		assertEquals(255, mask[4 * w + 5] & 0xFF);
+		assertEquals(0, mask[0] & 0xFF);
+		Rect rect = model.foregroundRect();
+		assertEquals(5, rect.x);
+		assertEquals(4, rect.y);
+		assertEquals(3, rect.width);
+		assertEquals(2, rect.height);
+	}
+
+	@Test
+	public final void testFollowsLightingDrift() {
+		int w = 16;
+		int h = 16;
+		BackgroundModel model = new BackgroundModel(w, h);
+		byte[] frame = new byte[w * h];
+		byte[] mask = new byte[w * h];
+		// brightness rises by one level every 4 frames, 80 levels in total
+		for (int t = 0; t < 320; t++) {
+			Arrays.fill(frame, (byte) (100 + t / 4));
+			model.update(frame, mask);
+			assertEquals(0, model.foregroundCount());
+		}
+		assertNull(model.foregroundRect());
+	}
+
+}
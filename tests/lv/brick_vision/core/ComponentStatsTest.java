@@ -0,0 +1,65 @@
+package lv.brick_vision.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+public class ComponentStatsTest {
+
+	@Test
+	public final void testCompute() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		int[][] intArray = new int[][]{{0,0,1},{2,2,1},{2,2,3}};
+		Mat mat = new Mat(3,3,CvType.CV_32SC1);
+		for(int row=0;row<3;row++){
+		   for(int col=0;col<3;col++)
+		        mat.put(row, col, intArray[row][col]);
+		}
+		ComponentStats stats = new ComponentStats().compute(mat, 4);
+		assertEquals(4, stats.count());
+		assertEquals(2, stats.area(0));
+		assertEquals(2, stats.area(1));
+		assertEquals(4, stats.area(2));
+		assertEquals(1, stats.area(3));
+		//------------------------------------------------------
+		assertEquals(0.5, stats.centroidX(2), 1e-9);
+		assertEquals(1.5, stats.centroidY(2), 1e-9);
+		assertEquals(4, stats.xSum(1));
+		assertEquals(1, stats.ySum(1));
+		//------------------------------------------------------
+		//bounding box
+		assertEquals(2, stats.minX(1));
+		assertEquals(0, stats.minY(1));
+		assertEquals(1, stats.width(1));
+		assertEquals(2, stats.height(1));
+		assertEquals(2, stats.width(2));
+		assertEquals(2, stats.height(2));
+	}
+
+	@Test
+	public final void testParallelMatchesSerial() {
+		int w = 301;
+		int h = 257;
+		int[] lab = new int[w * h];
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				lab[y * w + x] = (x / 40 + y / 30) % 7;
+			}
+		}
+		ComponentStats serial = new ComponentStats(Integer.MAX_VALUE).compute(lab, w, h, 7);
+		ComponentStats parallel = new ComponentStats(1000).compute(lab, w, h, 7);
+		for (int i = 0; i < 7; i++) {
+			assertEquals(serial.area(i), parallel.area(i));
+			assertEquals(serial.xSum(i), parallel.xSum(i));
+			assertEquals(serial.ySum(i), parallel.ySum(i));
+			assertEquals(serial.minX(i), parallel.minX(i));
+			assertEquals(serial.minY(i), parallel.minY(i));
+			assertEquals(serial.maxX(i), parallel.maxX(i));
+			assertEquals(serial.maxY(i), parallel.maxY(i));
+		}
+	}
+
+}
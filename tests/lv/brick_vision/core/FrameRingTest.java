@@ -0,0 +1,84 @@
+package lv.brick_vision.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+
+public class FrameRingTest {
+
+	@Test
+	public final void testLatestFrameWins() throws InterruptedException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		FrameRing ring = new FrameRing();
+		assertNull(ring.take(0));
+
+		for (int i = 1; i <= 5; i++) {
+			Mat slot = ring.beginWrite();
+			slot.create(2, 2, CvType.CV_8UC1);
+			slot.setTo(new Scalar(i));
+			ring.publish();
+		}
+		Mat frame = ring.take(0);
+		assertEquals(5, frame.get(0, 0)[0], 0);
+		assertEquals(4, ring.dropped());
+		assertEquals(5, ring.published());
+		assertNull(ring.take(0));
+	}
+
+	@Test
+	public final void testWriterNeverTouchesHeldFrame() throws InterruptedException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		FrameRing ring = new FrameRing(3);
+		Mat first = ring.beginWrite();
+		ring.publish();
+		Mat held = ring.take(0);
+		assertSame(first, held);
+		for (int i = 0; i < 10; i++) {
+			Mat slot = ring.beginWrite();
+			assertNotSame(held, slot);
+			ring.publish();
+		}
+		assertNotSame(held, ring.take(0));
+	}
+
+	@Test
+	public final void testProducerThread() throws InterruptedException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		final FrameRing ring = new FrameRing();
+		final int frames = 200;
+		Thread producer = new Thread(() -> {
+			for (int i = 1; i <= frames; i++) {
+				Mat slot = ring.beginWrite();
+				slot.create(1, 1, CvType.CV_32SC1);
+				slot.put(0, 0, new int[] { i });
+				ring.publish();
+			}
+			ring.close();
+		});
+		producer.start();
+
+		int last = 0;
+		int taken = 0;
+		Mat frame;
+		int[] value = new int[1];
+		while ((frame = ring.take(1000)) != null) {
+			frame.get(0, 0, value);
+			// frames only move forward, never repeat
+			assertTrue(value[0] > last);
+			last = value[0];
+			taken++;
+		}
+		producer.join();
+		assertEquals(frames, last);
+		assertEquals(frames, taken + ring.dropped());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void testTooSmall() {
+		new FrameRing(2);
+	}
+}
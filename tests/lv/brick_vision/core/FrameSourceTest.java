@@ -0,0 +1,95 @@
+package lv.brick_vision.core;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+
+public class FrameSourceTest {
+
+	@Test
+	public final void testDirectoryInNameOrder() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		File dir = Files.createTempDirectory("frames").toFile();
+		dir.deleteOnExit();
+		for (int i = 2; i >= 0; i--) {
+			File file = new File(dir, "f" + i + ".png");
+			file.deleteOnExit();
+			Imgcodecs.imwrite(file.getAbsolutePath(), new Mat(12, 16, CvType.CV_8UC3, new Scalar(i * 10, 0, 0)));
+		}
+		new File(dir, "labels.csv").createNewFile();
+		new File(dir, "labels.csv").deleteOnExit();
+
+		try (PacedSource source = FrameSources.open(dir.getAbsolutePath(), PacedSource.Mode.FAST)) {
+			assertEquals(3, source.length());
+			Mat frame = new Mat();
+			for (int i = 0; i < 3; i++) {
+				assertTrue(source.read(frame));
+				assertEquals(i * 10, (int) frame.get(5, 5)[0]);
+			}
+			assertFalse(source.read(frame));
+			assertEquals(3, source.frames());
+		}
+	}
+
+	@Test
+	public final void testReplayRecording() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		File file = File.createTempFile("frames", FrameSources.STORE_SUFFIX);
+		file.deleteOnExit();
+		try (FrameStoreWriter writer = new FrameStoreWriter(file.getAbsolutePath())) {
+			for (int i = 0; i < 20; i++) {
+				writer.append(new Mat(24, 32, CvType.CV_8UC1, new Scalar(i)));
+			}
+		}
+
+		try (PacedSource source = FrameSources.open(file.getAbsolutePath(), PacedSource.Mode.FAST)) {
+			Mat frame = new Mat();
+			int n = 0;
+			while (source.read(frame)) {
+				assertEquals(n++, (int) frame.get(0, 0)[0]);
+			}
+			assertEquals(20, n);
+			assertTrue(source.throughput() > 0);
+		}
+	}
+
+	@Test
+	public final void testRealTimePacing() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		File file = File.createTempFile("frames", FrameSources.STORE_SUFFIX);
+		file.deleteOnExit();
+		try (FrameStoreWriter writer = new FrameStoreWriter(file.getAbsolutePath())) {
+			for (int i = 0; i < 11; i++) {
+				writer.append(new Mat(8, 8, CvType.CV_8UC1, new Scalar(i)));
+			}
+		}
+
+		// 11 frames at 100 fps are 10 frame intervals of 10 ms
+		PacedSource source = new PacedSource(new FrameStoreSource(file.getAbsolutePath(), 100),
+				PacedSource.Mode.REAL_TIME, 30);
+		Mat frame = new Mat();
+		long start = System.nanoTime();
+		while (source.read(frame)) {
+		}
+		long millis = (System.nanoTime() - start) / 1000000;
+		source.close();
+		assertEquals(11, source.frames());
+		assertTrue("took " + millis + " ms", millis >= 95);
+		assertTrue(source.throughput() <= 105);
+	}
+
+	@Test(expected = IOException.class)
+	public final void testMissingSource() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		FrameSources.open("does-not-exist" + FrameSources.STORE_SUFFIX, PacedSource.Mode.FAST);
+	}
+}
@@ -0,0 +1,85 @@
+package lv.brick_vision.core;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+
+public class FrameStoreTest {
+
+	@Test
+	public final void testWriteAndRead() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		File file = File.createTempFile("frames", ".bvrf");
+		file.deleteOnExit();
+
+		Mat color = new Mat(48, 64, CvType.CV_8UC3, new Scalar(1, 2, 3));
+		Mat gray = new Mat(10, 7, CvType.CV_8UC1, new Scalar(200));
+		try (FrameStoreWriter writer = new FrameStoreWriter(file.getAbsolutePath())) {
+			writer.append(color);
+			writer.append(gray);
+			writer.append(color.submat(8, 40, 4, 60));
+		}
+
+		try (FrameStore store = new FrameStore(file.getAbsolutePath())) {
+			assertEquals(3, store.size());
+			Mat frame = new Mat();
+			store.read(0, frame);
+			assertEquals(CvType.CV_8UC3, frame.type());
+			assertEquals(64, frame.cols());
+			assertEquals(3, (int) frame.get(47, 63)[2]);
+
+			store.read(1, frame);
+			assertEquals(CvType.CV_8UC1, frame.type());
+			assertEquals(10, frame.rows());
+			assertEquals(200, (int) frame.get(9, 6)[0]);
+			assertEquals(70, store.buffer(1).remaining());
+
+			store.read(2, frame);
+			assertEquals(32, frame.rows());
+			assertEquals(56, frame.cols());
+			assertEquals(2, (int) frame.get(31, 55)[1]);
+		}
+	}
+
+	@Test
+	public final void testReadMoreFramesThanMapped() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		File file = File.createTempFile("frames", ".bvrf");
+		file.deleteOnExit();
+
+		int frames = FrameStore.MAPPED_FRAMES * 2 + 1;
+		try (FrameStoreWriter writer = new FrameStoreWriter(file.getAbsolutePath())) {
+			for (int i = 0; i < frames; i++) {
+				Mat frame = new Mat(16, 24, CvType.CV_8UC3);
+				for (int y = 0; y < frame.rows(); y++) {
+					for (int x = 0; x < frame.cols(); x++) {
+						frame.put(y, x, i, x, y);
+					}
+				}
+				writer.append(frame);
+			}
+		}
+
+		try (FrameStore store = new FrameStore(file.getAbsolutePath())) {
+			Mat frame = new Mat();
+			// twice, the second pass maps the dropped frames again
+			for (int pass = 0; pass < 2; pass++) {
+				for (int i = 0; i < frames; i++) {
+					store.read(i, frame);
+					assertEquals(i, (int) frame.get(15, 23)[0]);
+					assertEquals(23, (int) frame.get(15, 23)[1]);
+					assertEquals(15, (int) frame.get(15, 23)[2]);
+					assertEquals(7, (int) frame.get(7, 11)[2]);
+				}
+			}
+		}
+	}
+
+}
@@ -3,13 +3,17 @@ package lv.brick_vision.core;
 import static org.junit.Assert.*;
 
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.List;
 
 import org.junit.Test;
 import org.opencv.core.Core;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
 
 public class ImgToolsTest {
 
@@ -33,6 +37,74 @@ public class ImgToolsTest {
 		tools.img2Mat("dice5.jpg");
 	}
 
+	@Test
+	public final void testImg2MatType() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+
+		ImgTools tools = new ImgTools();
+		Mat src = new Mat(20, 30, CvType.CV_8UC3, new Scalar(10, 100, 200));
+		File file = File.createTempFile("img2mat", ".png");
+		file.deleteOnExit();
+		Imgcodecs.imwrite(file.getAbsolutePath(), src);
+
+		Mat gray = tools.img2Mat(file.getAbsolutePath(), CvType.CV_8UC1);
+		assertEquals(CvType.CV_8UC1, gray.type());
+		assertEquals(30, gray.cols());
+		assertEquals(20, gray.rows());
+		Mat color = tools.bytes2Mat(Files.readAllBytes(file.toPath()), CvType.CV_8UC3);
+		assertEquals(CvType.CV_8UC3, color.type());
+		assertEquals(200, (int) color.get(5, 5)[2]);
+		Mat flt = tools.img2Mat(file.getAbsolutePath(), CvType.CV_32FC1);
+		assertEquals(CvType.CV_32FC1, flt.type());
+		assertEquals(gray.get(3, 3)[0], flt.get(3, 3)[0], 1e-6);
+	}
+
+	@Test
+	public final void testImg2MatConvertsChannelsAndDepth() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+
+		ImgTools tools = new ImgTools();
+		Mat src = new Mat(20, 30, CvType.CV_16UC1, new Scalar(0x8000));
+		File file = File.createTempFile("img2mat16", ".png");
+		file.deleteOnExit();
+		Imgcodecs.imwrite(file.getAbsolutePath(), src);
+
+		// decoded unchanged as 16-bit gray, scaled to 8 bits
+		Mat bgra = tools.img2Mat(file.getAbsolutePath(), CvType.CV_8UC4);
+		assertEquals(CvType.CV_8UC4, bgra.type());
+		assertEquals(128, (int) bgra.get(5, 5)[0]);
+		assertEquals(255, (int) bgra.get(5, 5)[3]);
+	}
+
+	@Test
+	public final void testImg2MatKeeps16BitDepth() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+
+		ImgTools tools = new ImgTools();
+		Mat src = new Mat(20, 30, CvType.CV_16UC1, new Scalar(1234));
+		File file = File.createTempFile("img2mat16", ".png");
+		file.deleteOnExit();
+		Imgcodecs.imwrite(file.getAbsolutePath(), src);
+
+		Mat gray = tools.img2Mat(file.getAbsolutePath(), CvType.CV_16UC1);
+		assertEquals(CvType.CV_16UC1, gray.type());
+		assertEquals(1234, (int) gray.get(5, 5)[0]);
+		Mat color = tools.img2Mat(file.getAbsolutePath(), CvType.CV_16UC3);
+		assertEquals(CvType.CV_16UC3, color.type());
+		assertEquals(1234, (int) color.get(5, 5)[2]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public final void testImg2MatUnsupportedType() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+
+		Mat src = new Mat(4, 4, CvType.CV_8UC3, new Scalar(1, 2, 3));
+		File file = File.createTempFile("img2mat", ".png");
+		file.deleteOnExit();
+		Imgcodecs.imwrite(file.getAbsolutePath(), src);
+		new ImgTools().img2Mat(file.getAbsolutePath(), CvType.CV_8UC2);
+	}
+
 	@Test
 	public final void testMat2BuffImgGray() {
 		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
@@ -0,0 +1,52 @@
+package lv.brick_vision.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IntegralImageTest {
+
+	@Test
+	public final void testQueriesMatchBruteForce() {
+		int w = 23;
+		int h = 17;
+		byte[] px = new byte[w * h];
+		Random random = new Random(5737);
+		for (int i = 0; i < px.length; i++) {
+			px[i] = (byte) (random.nextInt(4) == 0 ? 0 : random.nextInt(256));
+		}
+		IntegralImage integral = new IntegralImage().build(px, w, h);
+
+		int[] rects = new int[] { 0, 0, w, h, 3, 4, 5, 6, 22, 16, 1, 1, 7, 2, 0, 3 };
+		long[] sums = new long[4];
+		double[] variances = new double[4];
+		double[] ratios = new double[4];
+		integral.sums(rects, 4, sums);
+		integral.variances(rects, 4, variances);
+		integral.foregroundRatios(rects, 4, ratios);
+		for (int r = 0; r < 4; r++) {
+			int x0 = rects[r * 4], y0 = rects[r * 4 + 1], rw = rects[r * 4 + 2], rh = rects[r * 4 + 3];
+			long s = 0;
+			long sq = 0;
+			int nz = 0;
+			for (int y = y0; y < y0 + rh; y++) {
+				for (int x = x0; x < x0 + rw; x++) {
+					int p = px[y * w + x] & 0xFF;
+					s += p;
+					sq += p * p;
+					nz += p != 0 ? 1 : 0;
+				}
+			}
+			int area = rw * rh;
+			assertEquals(s, sums[r]);
+			assertEquals(s, integral.sum(x0, y0, rw, rh));
+			double mean = area == 0 ? 0 : (double) s / area;
+			assertEquals(mean, integral.mean(x0, y0, rw, rh), 1e-9);
+			assertEquals(area == 0 ? 0 : (double) sq / area - mean * mean, variances[r], 1e-6);
+			assertEquals(area == 0 ? 0 : (double) nz / area, ratios[r], 1e-9);
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package lv.brick_vision.core;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+public class MatConverterTest {
+
+	@Test
+	public final void testIntRgbToMat() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		MatConverter converter = new MatConverter();
+		BufferedImage img = new BufferedImage(4, 3, BufferedImage.TYPE_INT_RGB);
+		img.setRGB(1, 2, 0x102030);
+
+		Mat mat = converter.toMat(img);
+		assertEquals(CvType.CV_8UC3, mat.type());
+		double[] d = mat.get(2, 1);
+		assertEquals(0x30, (int) d[0]);
+		assertEquals(0x20, (int) d[1]);
+		assertEquals(0x10, (int) d[2]);
+	}
+
+	@Test
+	public final void testArgbToGray() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		MatConverter converter = new MatConverter();
+		BufferedImage img = new BufferedImage(5, 5, BufferedImage.TYPE_INT_ARGB);
+		img.setRGB(3, 3, 0xFFFFFFFF);
+
+		Mat mat = converter.toMat(img, CvType.CV_8UC1);
+		assertEquals(CvType.CV_8UC1, mat.type());
+		assertEquals(255, (int) mat.get(3, 3)[0]);
+		assertEquals(0, (int) mat.get(0, 0)[0]);
+	}
+
+	@Test
+	public final void testPoolReuse() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		MatConverter converter = new MatConverter();
+		BufferedImage img = new BufferedImage(8, 6, BufferedImage.TYPE_3BYTE_BGR);
+
+		Mat first = converter.toMat(img);
+		Mat second = converter.toMat(img);
+		assertSame(first, second);
+		BufferedImage out1 = converter.toBufferedImage(first);
+		BufferedImage out2 = converter.toBufferedImage(second);
+		assertSame(out1, out2);
+		assertEquals(BufferedImage.TYPE_3BYTE_BGR, out1.getType());
+	}
+
+	@Test
+	public final void testRoundTripBgra() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		MatConverter converter = new MatConverter();
+		Mat mat = new Mat(2, 2, CvType.CV_8UC4);
+		mat.put(0, 0, new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 });
+
+		BufferedImage img = converter.toBufferedImage(mat);
+		assertEquals(0x04030201, img.getRGB(0, 0));
+		Mat back = converter.toMat(img);
+		double[] d = back.get(0, 1);
+		assertEquals(5, (int) d[0]);
+		assertEquals(6, (int) d[1]);
+		assertEquals(7, (int) d[2]);
+	}
+
+}
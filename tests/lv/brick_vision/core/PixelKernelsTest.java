@@ -0,0 +1,50 @@
+package lv.brick_vision.core;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PixelKernelsTest {
+
+	@Test
+	public final void testThreshold() {
+		byte[] src = new byte[] { 0, 1, 2, (byte) 200, (byte) 255 };
+		byte[] dst = new byte[5];
+		PixelKernels.threshold(src, dst, 5, 1, 255);
+		assertArrayEquals(new byte[] { 0, 0, (byte) 255, (byte) 255, (byte) 255 }, dst);
+		PixelKernels.thresholdInv(src, dst, 5, 1, 255);
+		assertArrayEquals(new byte[] { (byte) 255, (byte) 255, 0, 0, 0 }, dst);
+	}
+
+	@Test
+	public final void testSubtractAndAbsDiff() {
+		byte[] a = new byte[] { 5, 7, 8, (byte) 250 };
+		byte[] b = new byte[] { 7, 5, 9, 10 };
+		byte[] dst = new byte[4];
+		PixelKernels.subtract(a, b, dst, 4);
+		assertArrayEquals(new byte[] { 0, 2, 0, (byte) 240 }, dst);
+		PixelKernels.absDiff(a, b, dst, 4);
+		assertArrayEquals(new byte[] { 2, 2, 1, (byte) 240 }, dst);
+	}
+
+	@Test
+	public final void testMaskAndCount() {
+		byte[] src = new byte[] { 10, 20, 30, 40 };
+		byte[] mask = new byte[] { 0, (byte) 255, 1, 0 };
+		byte[] dst = new byte[4];
+		PixelKernels.mask(src, mask, dst, 4);
+		assertArrayEquals(new byte[] { 0, 20, 30, 0 }, dst);
+		assertEquals(2, PixelKernels.countNonZero(dst, 4));
+	}
+
+	@Test
+	public final void testBgr2Gray() {
+		byte[] bgr = new byte[] { 0, 0, 0, (byte) 255, (byte) 255, (byte) 255, 0, 0, (byte) 255 };
+		byte[] gray = new byte[3];
+		PixelKernels.bgr2Gray(bgr, gray, 3);
+		assertEquals(0, gray[0] & 0xFF);
+		assertEquals(255, gray[1] & 0xFF);
+		assertEquals(77, gray[2] & 0xFF);
+	}
+
+}
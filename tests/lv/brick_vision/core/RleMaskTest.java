@@ -0,0 +1,62 @@
+package lv.brick_vision.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
+
+public class RleMaskTest {
+
+	@Test
+	public final void testLabelMatchesConnectedComponents() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		int w = 64;
+		int h = 48;
+		byte[] px = new byte[w * h];
+		Random random = new Random(13);
+		for (int i = 0; i < px.length; i++) {
+			px[i] = (byte) (random.nextInt(10) < 3 ? 255 : 0);
+		}
+		Mat binary = new Mat(h, w, CvType.CV_8UC1);
+		binary.put(0, 0, px);
+
+		for (int connectivity : new int[] { 4, 8 }) {
+			Mat labels = new Mat();
+			int num = Imgproc.connectedComponents(binary, labels, connectivity, CvType.CV_32S);
+			ComponentStats expected = new ComponentStats().compute(labels, num);
+			ComponentStats actual = RleMask.fromMat(binary).label(connectivity);
+
+			assertEquals(num, actual.count());
+			// OpenCV may number the labels in a different order, compare sorted
+			assertArrayEquals(signatures(expected), signatures(actual));
+		}
+	}
+
+	private static String[] signatures(ComponentStats stats) {
+		String[] out = new String[stats.count()];
+		for (int l = 0; l < out.length; l++) {
+			out[l] = stats.area(l) + "/" + stats.xSum(l) + "/" + stats.ySum(l)
+					+ (l == 0 ? "" : "/" + stats.minX(l) + "," + stats.minY(l) + "," + stats.maxX(l) + "," + stats.maxY(l));
+		}
+		Arrays.sort(out);
+		return out;
+	}
+
+	@Test
+	public final void testRoundTrip() {
+		byte[] px = new byte[] { 0, 1, 1, 0, 1, 0, 0, 0, 1, 1, 1, 1 };
+		RleMask mask = RleMask.fromBytes(px, 4, 3);
+		assertEquals(3, mask.runCount());
+		assertEquals(7, mask.foregroundCount());
+		// the first two runs only touch diagonally
+		assertEquals(2, mask.label(8).count());
+		assertEquals(3, mask.label(4).count());
+	}
+
+}
@@ -0,0 +1,51 @@
+package lv.brick_vision.core;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class TileDiffTest {
+
+	@Test
+	public final void testDirtyTiles() {
+		int w = 100;
+		int h = 60;
+		byte[] frame = new byte[w * h];
+		Arrays.fill(frame, (byte) 80);
+		TileDiff diff = new TileDiff(32);
+		// first frame is completely dirty, 4 x 2 tiles
+		assertEquals(8, diff.update(frame, w, h));
+		assertEquals(0, diff.update(frame, w, h));
+
+		// a 5x5 spot in tile (3, 1), the clipped corner tile
+		for (int y = 40; y < 45; y++) {
+			for (int x = 96; x < 100; x++) {
+				frame[y * w + x] = (byte) 200;
+			}
+		}
+		assertEquals(1, diff.update(frame, w, h));
+		assertTrue(diff.isDirty(3, 1));
+		assertFalse(diff.isDirty(2, 1));
+		// the reference of the dirty tile was replaced
+		assertEquals(0, diff.update(frame, w, h));
+	}
+
+	@Test
+	public final void testSlowChangeAddsUp() {
+		int w = 32;
+		int h = 32;
+		byte[] frame = new byte[w * h];
+		TileDiff diff = new TileDiff(32);
+		diff.update(frame, w, h);
+		int reported = 0;
+		// 5 gray levels per frame never exceeds the threshold between two frames
+		for (int level = 5; level <= 100; level += 5) {
+			Arrays.fill(frame, (byte) level);
+			reported += diff.update(frame, w, h);
+		}
+		assertTrue(reported > 0);
+	}
+
+}
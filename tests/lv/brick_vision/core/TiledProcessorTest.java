@@ -0,0 +1,71 @@
+package lv.brick_vision.core;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+public class TiledProcessorTest {
+
+	@Test
+	public final void testBandsMatchWholeImage() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat img = new Mat(300, 200, CvType.CV_8UC1, new Scalar(255));
+		// dark objects, several of them crossing band seams
+		Imgproc.circle(img, new Point(50, 40), 25, new Scalar(0), -1);
+		Imgproc.circle(img, new Point(140, 100), 30, new Scalar(0), -1);
+		Imgproc.rectangle(img, new Point(20, 150), new Point(60, 280), new Scalar(0), -1);
+		Imgproc.circle(img, new Point(150, 230), 20, new Scalar(0), -1);
+
+		TiledProcessor whole = new TiledProcessor(300, 0);
+		whole.setErodeSize(3);
+		ComponentStats expected = whole.process(img);
+
+		// blur 7 and erode radius 3 need 3 + 3 rows of margin
+		TiledProcessor tiled = new TiledProcessor(32, 6);
+		tiled.setErodeSize(3);
+		assertEquals(6, tiled.requiredMargin());
+		ComponentStats actual = tiled.process(img);
+
+		assertEquals(5, expected.count());
+		assertEquals(expected.count(), actual.count());
+		assertArrayEquals(sortedAreas(expected), sortedAreas(actual));
+	}
+
+	@Test
+	public final void testProcessFile() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat img = new Mat(120, 90, CvType.CV_8UC1, new Scalar(255));
+		Imgproc.circle(img, new Point(45, 60), 20, new Scalar(0), -1);
+		File file = File.createTempFile("tiled", ".png");
+		file.deleteOnExit();
+		Imgcodecs.imwrite(file.getAbsolutePath(), img);
+
+		TiledProcessor tiled = new TiledProcessor(16, 13);
+		ComponentStats stats = tiled.process(file.getAbsolutePath());
+		ComponentStats whole = new TiledProcessor(120, 0).process(img);
+		assertEquals(2, stats.count());
+		assertEquals(whole.area(1), stats.area(1));
+		assertEquals(whole.centroidY(1), stats.centroidY(1), 1e-9);
+	}
+
+	private static int[] sortedAreas(ComponentStats stats) {
+		int[] areas = new int[stats.count()];
+		for (int i = 0; i < areas.length; i++) {
+			areas[i] = stats.area(i);
+		}
+		Arrays.sort(areas);
+		return areas;
+	}
+
+}
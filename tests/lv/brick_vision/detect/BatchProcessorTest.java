@@ -0,0 +1,110 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+public class BatchProcessorTest {
+
+	@Test
+	public final void testProcessDirectory() throws IOException, InterruptedException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		File dir = Files.createTempDirectory("batch").toFile();
+		dir.deleteOnExit();
+		for (int i = 0; i < 4; i++) {
+			Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(0, 0, 0));
+			Imgproc.rectangle(frame, new Point(30, 40), new Point(130, 140), new Scalar(255, 255, 255), -1);
+			File file = new File(dir, "img" + i + ".png");
+			file.deleteOnExit();
+			Imgcodecs.imwrite(file.getAbsolutePath(), frame);
+		}
+		File broken = new File(dir, "broken.png");
+		broken.deleteOnExit();
+		Files.write(broken.toPath(), new byte[] { 1, 2, 3 });
+
+		List<File> files = BatchProcessor.collect(Collections.singletonList(dir.getAbsolutePath()));
+		assertEquals(5, files.size());
+		assertEquals(files, BatchProcessor.collect(Collections.singletonList(dir.getAbsolutePath() + "/*.png")));
+
+		BatchProcessor batch = new BatchProcessor(2);
+		try {
+			List<BatchProcessor.Result> results = batch.process(files);
+			assertEquals(5, results.size());
+			assertEquals(broken.getPath(), results.get(0).file());
+			assertNotNull(results.get(0).error());
+			for (BatchProcessor.Result r : results.subList(1, 5)) {
+				assertNull(r.error());
+				assertEquals(320, r.width());
+				assertEquals(1, r.bricks());
+			}
+			BatchProcessor.Summary summary = batch.summarize(results);
+			assertEquals(5, summary.images());
+			assertEquals(1, summary.failed());
+			assertTrue(summary.imagesPerSecond() > 0);
+			assertTrue(summary.p50() <= summary.p99());
+
+			StringWriter csv = new StringWriter();
+			BatchProcessor.writeCsv(results, new PrintWriter(csv));
+			assertEquals(6, csv.toString().split("\n").length);
+			StringWriter json = new StringWriter();
+			BatchProcessor.writeJson(results, new PrintWriter(json));
+			assertTrue(json.toString().contains("\"bricks\": 1"));
+		} finally {
+			batch.release();
+		}
+	}
+
+	@Test
+	public final void testWorkingSizeFitsLikeTheApps() throws IOException, InterruptedException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		File portrait = File.createTempFile("portrait", ".png");
+		portrait.deleteOnExit();
+		Imgcodecs.imwrite(portrait.getAbsolutePath(), new Mat(1600, 1200, CvType.CV_8UC3, new Scalar(0, 0, 0)));
+
+		BatchProcessor batch = new BatchProcessor(1);
+		try {
+			batch.setWorkingSize(ParameterTuner.WIDTH, ParameterTuner.HEIGHT);
+			BatchProcessor.Result r = batch.process(Collections.singletonList(portrait)).get(0);
+			assertNull(r.error());
+			assertEquals(360, r.width());
+			assertEquals(480, r.height());
+		} finally {
+			batch.release();
+		}
+	}
+
+	@Test
+	public final void testPercentile() {
+		long[] sorted = new long[100];
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = i + 1;
+		}
+		assertEquals(50, BatchProcessor.percentile(sorted, 50));
+		assertEquals(99, BatchProcessor.percentile(sorted, 99));
+		assertEquals(7, BatchProcessor.percentile(new long[] { 7 }, 99));
+		assertEquals(0, BatchProcessor.percentile(new long[0], 50));
+	}
+
+	@Test
+	public final void testOpenCvThreads() {
+		assertEquals(1, BatchProcessor.openCvThreads(8, 8));
+		assertEquals(4, BatchProcessor.openCvThreads(2, 8));
+		assertEquals(1, BatchProcessor.openCvThreads(16, 8));
+		assertEquals(1, BatchProcessor.openCvThreads(0, 1));
+	}
+}
@@ -0,0 +1,77 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+public class BlobPipDetectorTest {
+
+	@Test
+	public final void testDetectRoundBlobsOnly() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(40, 40, 40));
+		Imgproc.rectangle(frame, new Point(40, 40), new Point(280, 200), new Scalar(255, 255, 255), -1);
+		Point[] pips = { new Point(80, 80), new Point(160, 120), new Point(240, 160) };
+		for (Point pip : pips) {
+			Imgproc.circle(frame, pip, 14, new Scalar(0, 0, 0), -1);
+		}
+		// a square and a bar of pip size are no pips
+		Imgproc.rectangle(frame, new Point(220, 60), new Point(244, 84), new Scalar(0, 0, 0), -1);
+		Imgproc.rectangle(frame, new Point(60, 150), new Point(110, 162), new Scalar(0, 0, 0), -1);
+
+		DetectionResult result = new BlobPipDetector().detect(frame, DetectorParams.DICE_DEFAULTS);
+
+		assertEquals(pips.length, result.circles().size());
+		for (Point pip : pips) {
+			boolean found = false;
+			for (Circle c : result.circles()) {
+				found |= Math.hypot(c.x() - pip.x, c.y() - pip.y) < 2 && Math.abs(c.r() - 14) < 2;
+			}
+			assertTrue("pip at " + pip, found);
+		}
+		assertEquals(CvType.CV_8UC1, result.preview().type());
+		assertTrue(result.shapes().isEmpty());
+	}
+
+	@Test
+	public final void testUnevenLight() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		// the face darkens from left to right, a pip on the bright side is
+		// lighter than the face on the dark side
+		Mat frame = new Mat(240, 320, CvType.CV_8UC1);
+		for (int x = 0; x < frame.cols(); x++) {
+			Imgproc.line(frame, new Point(x, 0), new Point(x, 239), new Scalar(250 - 0.6 * x), 1);
+		}
+		Point[] pips = { new Point(40, 60), new Point(120, 180), new Point(200, 60), new Point(280, 180) };
+		for (Point pip : pips) {
+			Imgproc.circle(frame, pip, 12, new Scalar((250 - 0.6 * pip.x) / 2), -1);
+		}
+
+		DetectionResult result = new BlobPipDetector().detect(frame, DetectorParams.DICE_DEFAULTS);
+
+		assertEquals(pips.length, result.circles().size());
+	}
+
+	@Test
+	public final void testSwitchEngine() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(255, 255, 255));
+		Imgproc.circle(frame, new Point(160, 120), 14, new Scalar(0, 0, 0), -1);
+		IncrementalDetector detector = new IncrementalDetector(32, false);
+
+		assertEquals(1, detector.detect(frame, DetectorParams.DICE_DEFAULTS).circles().size());
+		assertTrue(detector.detect(frame, DetectorParams.DICE_DEFAULTS).preview() == null);
+
+		// a new engine detects the unchanged frame again
+		detector.setPipDetector(new BlobPipDetector());
+		DetectionResult result = detector.detect(frame, DetectorParams.DICE_DEFAULTS);
+		assertFalse(detector.lastSkipped());
+		assertEquals(1, result.circles().size());
+	}
+}
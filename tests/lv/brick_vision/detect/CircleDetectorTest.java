@@ -0,0 +1,82 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+public class CircleDetectorTest {
+
+	@Test
+	public final void testDetectPips() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(255, 255, 255));
+		Point[] pips = { new Point(80, 80), new Point(160, 120), new Point(240, 160) };
+		for (Point pip : pips) {
+			Imgproc.circle(frame, pip, 14, new Scalar(0, 0, 0), -1);
+		}
+
+		DetectionResult result = new CircleDetector().detect(frame, DetectorParams.DICE_DEFAULTS);
+
+		assertEquals(pips.length, result.circles().size());
+		for (Point pip : pips) {
+			boolean found = false;
+			for (Circle c : result.circles()) {
+				found |= Math.hypot(c.x() - pip.x, c.y() - pip.y) < 5;
+			}
+			assertTrue("pip at " + pip, found);
+		}
+		assertEquals(CvType.CV_8UC1, result.preview().type());
+		assertTrue(result.shapes().isEmpty());
+	}
+
+	@Test
+	public final void testDetectPipsEroded() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(255, 255, 255));
+		Point[] pips = { new Point(80, 80), new Point(160, 120), new Point(240, 160) };
+		for (Point pip : pips) {
+			Imgproc.circle(frame, pip, 14, new Scalar(0, 0, 0), -1);
+		}
+
+		// an erosion larger than 1 must not remove the 1 pixel Canny edges
+		DetectionResult result = new CircleDetector().detect(frame, new DetectorParams(1.6, 25, 22, 8, 20, 4, 3));
+
+		assertEquals(pips.length, result.circles().size());
+	}
+
+	@Test
+	public final void testSharedBetweenThreads() throws InterruptedException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		final Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(255, 255, 255));
+		Imgproc.circle(frame, new Point(160, 120), 14, new Scalar(0, 0, 0), -1);
+		final CircleDetector detector = new CircleDetector();
+		final int[] counts = new int[4];
+		Thread[] threads = new Thread[counts.length];
+		for (int t = 0; t < threads.length; t++) {
+			final int id = t;
+			threads[t] = new Thread(() -> counts[id] = detector.detect(frame, DetectorParams.DICE_DEFAULTS).circles().size());
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (int count : counts) {
+			assertEquals(1, count);
+		}
+	}
+
+	@Test
+	public final void testParamsEquality() {
+		DetectorParams a = new DetectorParams(1.6, 25, 22, 8, 20, 4, 1);
+		assertEquals(DetectorParams.DICE_DEFAULTS, a);
+		assertEquals(DetectorParams.DICE_DEFAULTS.hashCode(), a.hashCode());
+		assertNotEquals(DetectorParams.EDGE_DEFAULTS, a);
+	}
+
+}
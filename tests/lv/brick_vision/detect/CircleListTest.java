@@ -0,0 +1,64 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+public class CircleListTest {
+
+	@Test
+	public final void testReadHough() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat hough = new Mat(1, 3, CvType.CV_32FC3);
+		hough.put(0, 0, new float[] { 10.5f, 20.5f, 7.8f, 30, 40, 9, 50, 60, 11.2f });
+
+		CircleList list = new CircleList(1).readHough(hough);
+
+		assertEquals(3, list.size());
+		assertEquals(10.5f, list.x(0), 0);
+		assertEquals(20.5f, list.y(0), 0);
+		// radii are whole pixels like the old per element read
+		assertEquals(7, list.r(0), 0);
+		assertEquals(11, list.r(2), 0);
+		assertEquals(1, list.score(1), 0);
+		assertEquals(30, list.get(1).x(), 0);
+
+		// reused for the next frame
+		list.clear();
+		list.readHough(new Mat());
+		assertTrue(list.isEmpty());
+		list.readHough(hough.colRange(1, 2));
+		assertEquals(1, list.size());
+		assertEquals(40, list.y(0), 0);
+	}
+
+	@Test
+	public final void testAddTranslateCopy() {
+		CircleList list = new CircleList(0);
+		for (int i = 0; i < 40; i++) {
+			list.add(i, 2 * i, 3, 0.5);
+		}
+		list.translate(30, 100, -100);
+		assertEquals(40, list.size());
+		assertEquals(29, list.x(29), 0);
+		assertEquals(130, list.x(30), 0);
+		assertEquals(-40, list.y(30), 0);
+		assertEquals(0.5f, list.score(39), 0);
+
+		assertSame(list, CircleList.of(list));
+		CircleList other = CircleList.of(Arrays.asList(new Circle(1, 2, 3)));
+		assertEquals(1, other.size());
+		assertEquals(3, other.r(0), 0);
+
+		CircleList copy = list.copy();
+		list.clear();
+		assertEquals(40, copy.size());
+		assertEquals(130, copy.x(30), 0);
+		assertEquals(0.5f, copy.score(39), 0);
+	}
+}
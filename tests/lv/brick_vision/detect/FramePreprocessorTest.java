@@ -0,0 +1,58 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+public class FramePreprocessorTest {
+
+	@Test
+	public final void testProductsCachedPerFrame() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = new Mat(120, 160, CvType.CV_8UC3, new Scalar(255, 255, 255));
+		Imgproc.circle(frame, new Point(80, 60), 14, new Scalar(0, 0, 0), -1);
+		FramePreprocessor pre = new FramePreprocessor().reset(frame);
+
+		Mat edges = pre.edges(CircleDetector.CANNY_LOW, CircleDetector.CANNY_HIGH);
+		assertSame(edges, pre.edges(CircleDetector.CANNY_LOW, CircleDetector.CANNY_HIGH));
+		assertNotSame(edges, pre.edges(RectDetector.CANNY_LOW, RectDetector.CANNY_HIGH));
+		assertTrue(Core.countNonZero(edges) > 0);
+
+		// a gray frame computed before drawing is not affected by the drawing
+		Mat gray = pre.gray();
+		Imgproc.rectangle(frame, new Point(0, 0), new Point(159, 119), new Scalar(0, 0, 0), -1);
+		assertEquals(255, (int) gray.get(0, 0)[0]);
+
+		// a new frame invalidates every product
+		pre.reset(frame);
+		assertEquals(0, (int) pre.gray().get(0, 0)[0]);
+		assertEquals(0, Core.countNonZero(pre.edges(CircleDetector.CANNY_LOW, CircleDetector.CANNY_HIGH)));
+		pre.release();
+	}
+
+	@Test
+	public final void testSharedMatchesStandalone() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(255, 255, 255));
+		Imgproc.circle(frame, new Point(80, 80), 14, new Scalar(0, 0, 0), -1);
+		Imgproc.circle(frame, new Point(200, 150), 14, new Scalar(0, 0, 0), -1);
+		Imgproc.rectangle(frame, new Point(40, 40), new Point(280, 200), new Scalar(0, 0, 0), 3);
+
+		FramePreprocessor pre = new FramePreprocessor().reset(frame);
+		DetectionResult circles = new CircleDetector().detect(pre, DetectorParams.EDGE_DEFAULTS);
+		DetectionResult shapes = new RectDetector().detect(pre, DetectorParams.EDGE_DEFAULTS);
+
+		assertEquals(new CircleDetector().detect(frame, DetectorParams.EDGE_DEFAULTS).circles().size(),
+				circles.circles().size());
+		assertEquals(new RectDetector().detect(frame, DetectorParams.EDGE_DEFAULTS).shapes().size(),
+				shapes.shapes().size());
+		pre.release();
+	}
+
+}
@@ -0,0 +1,81 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+public class IncrementalDetectorTest {
+
+	@Test
+	public final void testStaticFrameSkipped() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = frame(new Point(100, 100), new Point(320, 240), new Point(500, 380));
+		IncrementalDetector detector = new IncrementalDetector(32, false);
+
+		DetectionResult first = detector.detect(frame, DetectorParams.DICE_DEFAULTS);
+		assertFalse(detector.lastSkipped());
+		assertEquals(3, first.circles().size());
+
+		DetectionResult second = detector.detect(frame.clone(), DetectorParams.DICE_DEFAULTS);
+		assertTrue(detector.lastSkipped());
+		assertEquals(first.circles(), second.circles());
+		assertNull(second.preview());
+
+		// new parameters need a full detection
+		detector.detect(frame, new DetectorParams(1.6, 25, 22, 8, 21, 4, 1));
+		assertFalse(detector.lastSkipped());
+		assertEquals(1, detector.lastRegions());
+	}
+
+	@Test
+	public final void testOnlyChangedTilesRedetected() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		IncrementalDetector detector = new IncrementalDetector(32, false);
+		detector.detect(frame(new Point(100, 100), new Point(320, 240), new Point(500, 380)),
+				DetectorParams.DICE_DEFAULTS);
+
+		// the first pip moves
+		DetectionResult result = detector.detect(frame(new Point(160, 110), new Point(320, 240), new Point(500, 380)),
+				DetectorParams.DICE_DEFAULTS);
+		assertFalse(detector.lastSkipped());
+		assertTrue(detector.lastDirtyTiles() < 20 * 15 / 4);
+		assertEquals(3, result.circles().size());
+		boolean moved = false;
+		for (Circle c : result.circles()) {
+			moved |= Math.hypot(c.x() - 160, c.y() - 110) < 5;
+			assertTrue(Math.hypot(c.x() - 100, c.y() - 100) > 5);
+		}
+		assertTrue(moved);
+	}
+
+	@Test
+	public final void testCircleListsReused() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		IncrementalDetector detector = new IncrementalDetector(32, false);
+		CircleList first = detector.detect(frame(new Point(100, 100)), DetectorParams.DICE_DEFAULTS).circles();
+		CircleList second = detector.detect(frame(new Point(160, 100)), DetectorParams.DICE_DEFAULTS).circles();
+		CircleList third = detector.detect(frame(new Point(220, 100)), DetectorParams.DICE_DEFAULTS).circles();
+
+		// two lists take turns, the last result stays valid while the next
+		// one is filled
+		assertNotSame(first, second);
+		assertSame(first, third);
+		assertEquals(1, third.size());
+		assertEquals(220, third.x(0), 5);
+	}
+
+	private static Mat frame(Point... pips) {
+		Mat frame = new Mat(480, 640, CvType.CV_8UC3, new Scalar(255, 255, 255));
+		for (Point pip : pips) {
+			Imgproc.circle(frame, pip, 14, new Scalar(0, 0, 0), -1);
+		}
+		return frame;
+	}
+
+}
@@ -0,0 +1,67 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+public class MorphologyStageTest {
+
+	@Test
+	public final void testKernelCached() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		MorphologyStage stage = new MorphologyStage();
+		Mat kernel = stage.kernel(Imgproc.MORPH_ELLIPSE, 5);
+		assertSame(kernel, stage.kernel(Imgproc.MORPH_ELLIPSE, 5));
+		assertNotSame(kernel, stage.kernel(Imgproc.MORPH_RECT, 5));
+		assertNotSame(kernel, stage.kernel(Imgproc.MORPH_ELLIPSE, 7));
+	}
+
+	@Test
+	public final void testIterationsChained() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat src = new Mat(64, 64, CvType.CV_8UC1, new Scalar(0));
+		Imgproc.circle(src, new Point(32, 32), 2, new Scalar(255), -1);
+
+		// three separate dilations of the previous result
+		Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(3, 3));
+		Mat expected = new Mat();
+		Imgproc.dilate(src, expected, kernel);
+		Imgproc.dilate(expected, expected, kernel);
+		Imgproc.dilate(expected, expected, kernel);
+
+		MorphologyStage stage = new MorphologyStage();
+		Mat dst = new Mat();
+		stage.dilate(src, dst, 3, 3);
+		Mat diff = new Mat();
+		Core.absdiff(expected, dst, diff);
+		assertEquals(0, Core.countNonZero(diff));
+		assertEquals(1, stage.dilateCount());
+	}
+
+	@Test
+	public final void testApplyDilatesThenErodes() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat src = new Mat(64, 64, CvType.CV_8UC1, new Scalar(0));
+		// a 1 pixel edge with a 2 pixel gap survives and is closed
+		Imgproc.line(src, new Point(5, 30), new Point(30, 30), new Scalar(255), 1);
+		Imgproc.line(src, new Point(33, 30), new Point(60, 30), new Scalar(255), 1);
+
+		MorphologyStage stage = new MorphologyStage();
+		Mat dst = new Mat();
+		stage.apply(src, dst, new DetectorParams(1, 1, 1, 1, 1, 5, 3));
+		assertEquals(255, (int) dst.get(30, 20)[0]);
+		assertEquals(255, (int) dst.get(30, 31)[0]);
+		assertEquals(0, (int) dst.get(10, 20)[0]);
+		assertEquals(1, stage.erodeCount());
+		assertEquals(1, stage.dilateCount());
+		assertTrue(stage.erodeNanos() > 0);
+	}
+
+}
@@ -0,0 +1,115 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.opencv.core.Point;
+
+public class ObjectTrackerTest {
+
+	@Test
+	public final void testStableIds() {
+		ObjectTracker tracker = new ObjectTracker(20, 1);
+		List<Track> tracks = tracker.update(Arrays.asList(new Circle(100, 100, 10), new Circle(200, 100, 10)),
+				Collections.<DetectedShape> emptyList());
+		assertEquals(2, tracks.size());
+		int left = idNear(tracks, 100, 100);
+		int right = idNear(tracks, 200, 100);
+
+		// both move right, the order of the detections is swapped
+		for (int step = 1; step <= 5; step++) {
+			tracks = tracker.update(Arrays.asList(new Circle(200 + 8 * step, 100, 10), new Circle(100 + 8 * step, 100, 10)),
+					Collections.<DetectedShape> emptyList());
+		}
+		assertEquals(2, tracks.size());
+		assertEquals(left, idNear(tracks, 140, 100));
+		assertEquals(right, idNear(tracks, 240, 100));
+		// constant velocity is predicted
+		Track t = tracks.get(0);
+		assertEquals(t.x() + 8, t.predictedX(), 1);
+	}
+
+	@Test
+	public final void testNewAndLostTracks() {
+		ObjectTracker tracker = new ObjectTracker(20, 1);
+		tracker.update(Arrays.asList(new Circle(100, 100, 10)), Collections.<DetectedShape> emptyList());
+		List<Track> tracks = tracker.update(Arrays.asList(new Circle(100, 100, 10), new Circle(300, 300, 10)),
+				Collections.<DetectedShape> emptyList());
+		assertEquals(2, tracks.size());
+		int second = idNear(tracks, 300, 300);
+		assertNotEquals(idNear(tracks, 100, 100), second);
+
+		// the first circle is gone, it survives one miss
+		tracks = tracker.update(Arrays.asList(new Circle(300, 300, 10)), Collections.<DetectedShape> emptyList());
+		assertEquals(2, tracks.size());
+		tracks = tracker.update(Arrays.asList(new Circle(300, 300, 10)), Collections.<DetectedShape> emptyList());
+		assertEquals(1, tracks.size());
+		assertEquals(second, tracks.get(0).id());
+	}
+
+	@Test
+	public final void testDieValueChange() {
+		ObjectTracker tracker = new ObjectTracker(20, 0);
+		DetectedShape face = new DetectedShape(DetectedShape.Kind.RECTANGLE,
+				new Point[] { new Point(0, 0), new Point(90, 0), new Point(90, 90), new Point(0, 90) });
+		List<Circle> three = Arrays.asList(new Circle(20, 20, 8), new Circle(45, 45, 8), new Circle(70, 70, 8));
+		List<Circle> two = new ArrayList<>(three.subList(0, 1));
+		two.add(new Circle(70, 70, 8));
+
+		Track die = find(tracker.update(three, Arrays.asList(face)), Track.Kind.RECTANGLE);
+		assertEquals(3, die.value());
+		assertFalse(die.valueChanged());
+
+		Track same = find(tracker.update(two, Arrays.asList(face)), Track.Kind.RECTANGLE);
+		assertEquals(die.id(), same.id());
+		assertEquals(2, same.value());
+		assertEquals(3, same.previousValue());
+		assertTrue(same.valueChanged());
+	}
+
+	@Test
+	public final void testManyObjects() {
+		ObjectTracker tracker = new ObjectTracker(10, 0);
+		List<Circle> grid = new ArrayList<>();
+		for (int y = 0; y < 40; y++) {
+			for (int x = 0; x < 40; x++) {
+				grid.add(new Circle(x * 30, y * 30, 5));
+			}
+		}
+		List<Track> first = new ArrayList<>(tracker.update(grid, Collections.<DetectedShape> emptyList()));
+		List<Circle> moved = new ArrayList<>();
+		for (Circle c : grid) {
+			moved.add(new Circle(c.x() + 3, c.y() - 2, 5));
+		}
+		List<Track> second = tracker.update(moved, Collections.<DetectedShape> emptyList());
+		assertEquals(first.size(), second.size());
+		for (Track t : second) {
+			assertEquals(1, t.misses() + t.hits() - 1);
+		}
+	}
+
+	private static int idNear(List<Track> tracks, double x, double y) {
+		for (Track t : tracks) {
+			if (Math.hypot(t.x() - x, t.y() - y) < 5) {
+				return t.id();
+			}
+		}
+		fail("no track near " + x + ", " + y);
+		return -1;
+	}
+
+	private static Track find(List<Track> tracks, Track.Kind kind) {
+		for (Track t : tracks) {
+			if (t.kind() == kind) {
+				return t;
+			}
+		}
+		return null;
+	}
+
+}
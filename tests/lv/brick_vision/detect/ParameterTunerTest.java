@@ -0,0 +1,80 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+public class ParameterTunerTest {
+
+	@Test
+	public final void testSearchRanksExactSetsFirst() throws InterruptedException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		List<ParameterTuner.Sample> samples = new ArrayList<>();
+		for (int pips = 1; pips <= 3; pips++) {
+			Mat frame = new Mat(160, 320, CvType.CV_8UC3, new Scalar(255, 255, 255));
+			for (int i = 0; i < pips; i++) {
+				Imgproc.circle(frame, new Point(60 + 90 * i, 80), 14, new Scalar(0, 0, 0), -1);
+			}
+			samples.add(new ParameterTuner.Sample("pips" + pips, frame, pips));
+		}
+		double[][] grid = { { 1.6 }, { 25 }, { 22, 300 }, { 8 }, { 20 }, { 2, 4 } };
+		ParameterTuner tuner = new ParameterTuner(samples, 2);
+		try {
+			List<ParameterTuner.Score> ranked = tuner.search(grid, 2, 1);
+
+			ParameterTuner.Score best = ranked.get(0);
+			assertEquals(1.0, best.accuracy(), 0);
+			assertEquals(0, best.meanError(), 0);
+			assertEquals(22, best.params().accumulator(), 5);
+			assertTrue(best.nanosPerFrame() > 0);
+			for (int i = 1; i < ranked.size(); i++) {
+				assertTrue(ParameterTuner.RANKING.compare(ranked.get(i - 1), ranked.get(i)) <= 0);
+			}
+			// an accumulator threshold of 300 finds nothing
+			ParameterTuner.Score blind = tuner.evaluate(new DetectorParams(1.6, 25, 300, 8, 20, 4, 1));
+			assertEquals(0, blind.accuracy(), 0);
+			assertEquals(2, blind.meanError(), 0);
+			// refinement adds neighbors of the grid sets
+			assertTrue(ranked.size() > 4);
+			// one dilated edge image per sample and dilate value: 2 and 4 from
+			// the grid, at most 1, 3 and 5 from the refinement
+			assertTrue(tuner.cachedPrefixes() >= 3 * 2);
+			assertTrue(tuner.cachedPrefixes() <= 3 * 5);
+		} finally {
+			tuner.release();
+		}
+	}
+
+	@Test
+	public final void testLoadFitsWorkingSize() throws IOException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		File dir = Files.createTempDirectory("tune").toFile();
+		Imgcodecs.imwrite(new File(dir, "wide.png").getPath(), new Mat(960, 1280, CvType.CV_8UC3, new Scalar(255, 255, 255)));
+		Imgcodecs.imwrite(new File(dir, "tall.png").getPath(), new Mat(1280, 960, CvType.CV_8UC3, new Scalar(255, 255, 255)));
+		try (PrintWriter out = new PrintWriter(new File(dir, ParameterTuner.LABELS))) {
+			out.println("wide.png,0");
+			out.println("tall.png,0");
+		}
+
+		List<ParameterTuner.Sample> samples = ParameterTuner.load(dir);
+		assertEquals(640, samples.get(0).frame().width());
+		assertEquals(480, samples.get(0).frame().height());
+		assertEquals(360, samples.get(1).frame().width());
+		assertEquals(480, samples.get(1).frame().height());
+		assertEquals(1280, ParameterTuner.load(dir, 0, 0).get(0).frame().width());
+	}
+}
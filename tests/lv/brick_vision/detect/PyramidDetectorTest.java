@@ -0,0 +1,71 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+public class PyramidDetectorTest {
+
+	private static final Point[] PIPS = { new Point(301, 245), new Point(640, 480), new Point(979, 715) };
+
+	@Test
+	public final void testRefinedAtFullResolution() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = frame();
+		DetectionResult result = new PyramidDetector(1, 16).detect(frame, DetectorParams.DICE_DEFAULTS);
+
+		assertEquals(PIPS.length, result.circles().size());
+		for (Point pip : PIPS) {
+			Circle c = nearest(result, pip);
+			assertEquals(pip.x, c.x(), 4);
+			assertEquals(pip.y, c.y(), 4);
+			assertEquals(28, c.r(), 2);
+		}
+		// the preview is the coarse level
+		assertEquals(640, result.preview().cols());
+	}
+
+	@Test
+	public final void testOverBudgetKeepsCoarsePositions() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		DetectionResult result = new PyramidDetector(1, 0).detect(frame(), DetectorParams.DICE_DEFAULTS);
+		assertEquals(PIPS.length, result.circles().size());
+		for (Point pip : PIPS) {
+			Circle c = nearest(result, pip);
+			assertEquals(pip.x, c.x(), 6);
+			assertEquals(pip.y, c.y(), 6);
+		}
+	}
+
+	@Test
+	public final void testLevelsFor() {
+		assertEquals(0, PyramidDetector.levelsFor(640, 640));
+		assertEquals(1, PyramidDetector.levelsFor(1280, 640));
+		assertEquals(3, PyramidDetector.levelsFor(4032, 640));
+	}
+
+	private static Mat frame() {
+		Mat frame = new Mat(960, 1280, CvType.CV_8UC3, new Scalar(255, 255, 255));
+		for (Point pip : PIPS) {
+			Imgproc.circle(frame, pip, 28, new Scalar(0, 0, 0), -1);
+		}
+		return frame;
+	}
+
+	private static Circle nearest(DetectionResult result, Point p) {
+		Circle best = null;
+		for (Circle c : result.circles()) {
+			if (best == null || Math.hypot(c.x() - p.x, c.y() - p.y) < Math.hypot(best.x() - p.x, best.y() - p.y)) {
+				best = c;
+			}
+		}
+		return best;
+	}
+
+}
@@ -0,0 +1,79 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+public class RectDetectorTest {
+
+	@Test
+	public final void testDetectShapes() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(0, 0, 0));
+		Imgproc.rectangle(frame, new Point(30, 40), new Point(130, 140), new Scalar(255, 255, 255), -1);
+		MatOfPoint triangle = new MatOfPoint(new Point(200, 180), new Point(290, 180), new Point(245, 60));
+		Imgproc.fillConvexPoly(frame, triangle, new Scalar(255, 255, 255));
+
+		DetectionResult result = new RectDetector().detect(frame, DetectorParams.EDGE_DEFAULTS);
+
+		int rects = 0;
+		int triangles = 0;
+		for (DetectedShape shape : result.shapes()) {
+			if (shape.kind() == DetectedShape.Kind.RECTANGLE) {
+				rects++;
+			} else if (shape.kind() == DetectedShape.Kind.TRIANGLE) {
+				triangles++;
+			}
+		}
+		assertEquals(1, rects);
+		assertEquals(1, triangles);
+	}
+
+	@Test
+	public final void testEmptyFrame() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = new Mat(120, 160, CvType.CV_8UC3, new Scalar(0, 0, 0));
+		assertTrue(new RectDetector().detect(frame, DetectorParams.EDGE_DEFAULTS).shapes().isEmpty());
+	}
+
+	@Test
+	public final void testClassify() {
+		float[] square = { 0, 0, 10, 0, 10, 10, 0, 10 };
+		assertEquals(DetectedShape.Kind.RECTANGLE, RectDetector.classify(square, 4));
+		float[] triangle = { 0, 0, 10, 0, 5, 8 };
+		assertEquals(DetectedShape.Kind.TRIANGLE, RectDetector.classify(triangle, 3));
+		float[] sliver = { 0, 0, 40, 0, 50, 2, 10, 2 };
+		assertNull(RectDetector.classify(sliver, 4));
+		assertEquals(DetectedShape.Kind.POLYGON, RectDetector.classify(regular(5), 5));
+		assertEquals(DetectedShape.Kind.POLYGON, RectDetector.classify(regular(6), 6));
+	}
+
+	@Test
+	public final void testIgnoreSpecks() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(0, 0, 0));
+		Imgproc.rectangle(frame, new Point(30, 40), new Point(130, 140), new Scalar(255, 255, 255), -1);
+		for (int x = 160; x < 300; x += 10) {
+			frame.put(200, x, 255, 255, 255);
+		}
+		DetectionResult result = new RectDetector().detect(frame, new DetectorParams(1.59, 18, 21, 8, 20, 1, 1));
+		assertEquals(1, result.shapes().size());
+		assertEquals(DetectedShape.Kind.RECTANGLE, result.shapes().get(0).kind());
+	}
+
+	private static float[] regular(int n) {
+		float[] xy = new float[n * 2];
+		for (int i = 0; i < n; i++) {
+			xy[2 * i] = (float) (100 + 50 * Math.cos(2 * Math.PI * i / n));
+			xy[2 * i + 1] = (float) (100 + 50 * Math.sin(2 * Math.PI * i / n));
+		}
+		return xy;
+	}
+}
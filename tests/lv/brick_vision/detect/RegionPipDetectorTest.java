@@ -0,0 +1,49 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+public class RegionPipDetectorTest {
+
+	@Test
+	public final void testPipsPerFace() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(40, 40, 40));
+		// a die showing three and a die showing one
+		drawFace(frame, 20, 60, new Point(25, 25), new Point(50, 50), new Point(75, 75));
+		drawFace(frame, 180, 60, new Point(50, 50));
+		// a pip-like spot on the table
+		Imgproc.circle(frame, new Point(160, 200), 9, new Scalar(0, 0, 0), -1);
+
+		List<DieFace> faces = new RegionPipDetector().detect(new FramePreprocessor().reset(frame),
+				DetectorParams.EDGE_DEFAULTS);
+
+		assertEquals(2, faces.size());
+		int[] counts = new int[2];
+		for (DieFace face : faces) {
+			counts[face.region().x < 160 ? 0 : 1] = face.pipCount();
+			for (Circle pip : face.pips()) {
+				assertTrue(face.region().contains(new Point(pip.x(), pip.y())));
+			}
+		}
+		assertEquals(3, counts[0]);
+		assertEquals(1, counts[1]);
+	}
+
+	private static void drawFace(Mat frame, int x, int y, Point... pips) {
+		Imgproc.rectangle(frame, new Point(x, y), new Point(x + 100, y + 100), new Scalar(255, 255, 255), -1);
+		for (Point pip : pips) {
+			Imgproc.circle(frame, new Point(x + pip.x, y + pip.y), 9, new Scalar(0, 0, 0), -1);
+		}
+	}
+
+}
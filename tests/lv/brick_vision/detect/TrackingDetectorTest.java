@@ -0,0 +1,142 @@
+package lv.brick_vision.detect;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Point;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+
+public class TrackingDetectorTest {
+
+	@Test
+	public final void testConfirmedInWindows() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		TrackingDetector detector = new TrackingDetector(new ObjectTracker(20, 1), 10, 12);
+
+		List<Track> tracks = detector.detect(frame(0), DetectorParams.DICE_DEFAULTS);
+		assertTrue(detector.lastFull());
+		assertEquals(2, tracks.size());
+		int[] ids = { tracks.get(0).id(), tracks.get(1).id() };
+
+		for (int step = 1; step < 5; step++) {
+			tracks = detector.detect(frame(4 * step), DetectorParams.DICE_DEFAULTS);
+			assertFalse(detector.lastFull());
+			assertEquals(2, tracks.size());
+		}
+		for (Track t : tracks) {
+			assertTrue(t.id() == ids[0] || t.id() == ids[1]);
+			assertEquals(0, t.misses());
+		}
+	}
+
+	@Test
+	public final void testLostObjectRedetectsItsRegionOnly() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		TrackingDetector detector = new TrackingDetector(new ObjectTracker(20, 1), 10, 12);
+		detector.detect(frame(0), DetectorParams.DICE_DEFAULTS);
+		Mat empty = new Mat(240, 320, CvType.CV_8UC3, new Scalar(255, 255, 255));
+		detector.detect(empty, DetectorParams.DICE_DEFAULTS);
+		assertFalse(detector.lastFull());
+		assertEquals(2, detector.lastRegions());
+		assertEquals(0, detector.lastResult().circles().size());
+	}
+
+	@Test
+	public final void testJumpFoundInRegion() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		TrackingDetector detector = new TrackingDetector(new ObjectTracker(40, 1), 10, 12);
+		detector.detect(frame(0), DetectorParams.DICE_DEFAULTS);
+		// further than the search window margin, inside the lost region
+		detector.detect(frame(24), DetectorParams.DICE_DEFAULTS);
+		assertFalse(detector.lastFull());
+		assertEquals(2, detector.lastRegions());
+		assertEquals(2, detector.lastResult().circles().size());
+	}
+
+	@Test
+	public final void testLastResultOutlivesNextFrame() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		TrackingDetector detector = new TrackingDetector(new ObjectTracker(20, 1), 10, 12);
+		detector.detect(frame(0), DetectorParams.DICE_DEFAULTS);
+		DetectionResult first = detector.lastResult();
+		detector.detect(new Mat(240, 320, CvType.CV_8UC3, new Scalar(255, 255, 255)), DetectorParams.DICE_DEFAULTS);
+		assertEquals(0, detector.lastResult().circles().size());
+		assertEquals(2, first.circles().size());
+	}
+
+	@Test
+	public final void testParameterChangeTriggersFullDetection() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		TrackingDetector detector = new TrackingDetector(new ObjectTracker(20, 1), 10, 12);
+		detector.detect(frame(0), DetectorParams.DICE_DEFAULTS);
+		detector.detect(frame(0), DetectorParams.EDGE_DEFAULTS);
+		assertTrue(detector.lastFull());
+	}
+
+	@Test
+	public final void testResetDetectsNewSceneCompletely() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		TrackingDetector detector = new TrackingDetector(new ObjectTracker(20, 1), 10, 12);
+		detector.detect(frame(0), DetectorParams.DICE_DEFAULTS);
+		Mat other = frame(0);
+		Imgproc.circle(other, new Point(260, 60), 14, new Scalar(0, 0, 0), -1);
+
+		// the new circle is outside every search window of the old tracks
+		detector.detect(other, DetectorParams.DICE_DEFAULTS);
+		assertFalse(detector.lastFull());
+		assertEquals(2, detector.lastResult().circles().size());
+
+		detector.reset();
+		List<Track> tracks = detector.detect(other, DetectorParams.DICE_DEFAULTS);
+		assertTrue(detector.lastFull());
+		assertEquals(3, detector.lastResult().circles().size());
+		assertEquals(3, tracks.size());
+	}
+
+	@Test
+	public final void testWindowsUseSelectedEngine() {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		int[] calls = new int[1];
+		BlobPipDetector blob = new BlobPipDetector();
+		PipDetector counting = new PipDetector() {
+			@Override
+			public DetectionResult detect(Mat frame, DetectorParams params) {
+				calls[0]++;
+				return blob.detect(frame, params);
+			}
+
+			@Override
+			public DetectionResult detect(FramePreprocessor pre, DetectorParams params) {
+				calls[0]++;
+				return blob.detect(pre, params);
+			}
+		};
+		TrackingDetector detector = new TrackingDetector(new ObjectTracker(20, 1), 10, 12);
+		detector.setPipDetector(counting);
+		detector.detect(frame(0), DetectorParams.DICE_DEFAULTS);
+		assertTrue(detector.lastFull());
+		int full = calls[0];
+		assertTrue(full > 0);
+
+		List<Track> tracks = detector.detect(frame(4), DetectorParams.DICE_DEFAULTS);
+		assertFalse(detector.lastFull());
+		assertEquals(2, tracks.size());
+		assertEquals(2, detector.lastResult().circles().size());
+		// one window per circle
+		assertEquals(full + 2, calls[0]);
+	}
+
+	private static Mat frame(int shift) {
+		Mat frame = new Mat(240, 320, CvType.CV_8UC3, new Scalar(255, 255, 255));
+		Imgproc.circle(frame, new Point(80 + shift, 80), 14, new Scalar(0, 0, 0), -1);
+		Imgproc.circle(frame, new Point(200 + shift, 150), 14, new Scalar(0, 0, 0), -1);
+		return frame;
+	}
+
+}
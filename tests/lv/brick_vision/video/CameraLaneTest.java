@@ -0,0 +1,80 @@
+package lv.brick_vision.video;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+
+public class CameraLaneTest {
+
+	// publish frames like the capture thread of a lane does
+	private static void feed(CameraLane lane, int frames, long pauseMillis) throws InterruptedException {
+		for (int i = 0; i < frames; i++) {
+			lane.ring().beginWrite().create(4, 4, CvType.CV_8UC1);
+			lane.ring().publish();
+			lane.frameArrived();
+			Thread.sleep(pauseMillis);
+		}
+	}
+
+	@Test
+	public final void testSlowLaneDoesNotStallOthers() throws InterruptedException {
+		System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		AtomicInteger concurrent = new AtomicInteger();
+		AtomicInteger overlap = new AtomicInteger();
+		CountDownLatch fastDone = new CountDownLatch(20);
+		CameraLane slow = new CameraLane(0, frame -> {
+			if (concurrent.incrementAndGet() > 1) {
+				overlap.incrementAndGet();
+			}
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			concurrent.decrementAndGet();
+			return frame;
+		});
+		CameraLane fast = new CameraLane(1, frame -> frame);
+		fast.setListener((lane, shown) -> fastDone.countDown());
+		slow.setPool(pool);
+		fast.setPool(pool);
+
+		Thread slowFeed = new Thread(() -> {
+			try {
+				feed(slow, 40, 2);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		slowFeed.start();
+		feed(fast, 20, 5);
+		slowFeed.join();
+
+		// every fast frame is processed while the slow lane is busy
+		assertTrue(fastDone.await(2, TimeUnit.SECONDS));
+		// the last slow frame is scheduled when the frame before it is done
+		long deadline = System.currentTimeMillis() + 2000;
+		while (slow.processed() + slow.dropped() < 40 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(2, TimeUnit.SECONDS));
+		// one frame at a time per lane, the rest of the slow frames is dropped
+		assertEquals(0, overlap.get());
+		assertTrue(slow.dropped() > 0);
+		assertEquals(40, slow.processed() + slow.dropped());
+		assertEquals(0, fast.dropped());
+		assertTrue(fast.fps() > 0);
+		assertTrue(slow.latencyMillis() >= 50);
+	}
+}
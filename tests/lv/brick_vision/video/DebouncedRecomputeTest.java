@@ -0,0 +1,70 @@
+package lv.brick_vision.video;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class DebouncedRecomputeTest {
+
+	@Test
+	public final void testBurstRunsOnce() throws InterruptedException {
+		AtomicInteger runs = new AtomicInteger();
+		DebouncedRecompute recompute = new DebouncedRecompute(superseded -> runs.incrementAndGet(), 100);
+		for (int i = 0; i < 20; i++) {
+			recompute.request();
+		}
+		Thread.sleep(400);
+		assertEquals(1, runs.get());
+		assertEquals(1, recompute.completed());
+
+		// no requests, no runs
+		Thread.sleep(200);
+		assertEquals(1, runs.get());
+		recompute.shutdown();
+	}
+
+	@Test
+	public final void testRequestSupersedesRunningJob() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger skipped = new AtomicInteger();
+		AtomicInteger runs = new AtomicInteger();
+		DebouncedRecompute recompute = new DebouncedRecompute(superseded -> {
+			if (runs.incrementAndGet() == 1) {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			if (superseded.getAsBoolean()) {
+				skipped.incrementAndGet();
+			}
+		}, 0);
+		recompute.request();
+		assertTrue(started.await(1, TimeUnit.SECONDS));
+		recompute.request();
+		release.countDown();
+		Thread.sleep(200);
+		assertEquals(2, runs.get());
+		assertEquals(1, skipped.get());
+		assertEquals(1, recompute.completed());
+		recompute.shutdown();
+	}
+
+	@Test
+	public final void testShutdownDropsWaitingRequest() throws InterruptedException {
+		AtomicInteger runs = new AtomicInteger();
+		DebouncedRecompute recompute = new DebouncedRecompute(superseded -> runs.incrementAndGet(), 100);
+		recompute.request();
+		recompute.shutdown();
+		recompute.request();
+		Thread.sleep(200);
+		assertEquals(0, runs.get());
+	}
+}